@@ -0,0 +1,74 @@
+package benchmarks.uk.gov.ida.verifyserviceprovider.dto;
+
+import benchmarks.uk.gov.ida.verifyserviceprovider.support.TranslationFixture;
+import benchmarks.uk.gov.ida.verifyserviceprovider.support.TranslationMode;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import io.dropwizard.jackson.Jackson;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import uk.gov.ida.verifyserviceprovider.dto.Attributes;
+import uk.gov.ida.verifyserviceprovider.dto.TranslatedMatchingResponseBody;
+import uk.gov.ida.verifyserviceprovider.dto.TranslatedNonMatchingResponseBody;
+import uk.gov.ida.verifyserviceprovider.dto.TranslatedResponseBody;
+
+import java.util.concurrent.TimeUnit;
+
+import static benchmarks.uk.gov.ida.verifyserviceprovider.support.TranslationFixture.REQUEST_ID;
+import static benchmarks.uk.gov.ida.verifyserviceprovider.support.TranslationFixture.SERVICE_ENTITY_ID;
+import static uk.gov.ida.verifyserviceprovider.dto.LevelOfAssurance.LEVEL_2;
+
+/**
+ * Writes the body translated from a successful response as JSON with Dropwizard's ObjectMapper, once through
+ * Jackson's bean serialiser and once through the hand-written serialisers the DTOs are annotated with.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class TranslatedResponseBodySerializationBenchmark {
+
+    @Param({"MATCHING", "NON_MATCHING"})
+    public TranslationMode mode;
+
+    private final ObjectMapper objectMapper = Jackson.newObjectMapper();
+    private final ObjectMapper beanSerializingObjectMapper = Jackson.newObjectMapper()
+            .addMixIn(TranslatedMatchingResponseBody.class, BeanSerialization.class)
+            .addMixIn(TranslatedNonMatchingResponseBody.class, BeanSerialization.class)
+            .addMixIn(Attributes.class, BeanSerialization.class);
+    private TranslatedResponseBody translatedResponseBody;
+
+    @Setup(Level.Trial)
+    public void translateResponse() {
+        TranslationFixture fixture = new TranslationFixture();
+        translatedResponseBody = fixture.createResponseService(mode)
+                .convertTranslatedResponseBody(fixture.createSamlResponse(mode), REQUEST_ID, LEVEL_2, SERVICE_ENTITY_ID);
+    }
+
+    @Benchmark
+    public byte[] beanSerializer() throws JsonProcessingException {
+        return beanSerializingObjectMapper.writeValueAsBytes(translatedResponseBody);
+    }
+
+    @Benchmark
+    public byte[] streamingSerializer() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(translatedResponseBody);
+    }
+
+    @JsonSerialize
+    private abstract static class BeanSerialization {
+    }
+}
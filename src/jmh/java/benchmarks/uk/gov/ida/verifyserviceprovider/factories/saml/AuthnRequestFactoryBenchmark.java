@@ -0,0 +1,165 @@
+package benchmarks.uk.gov.ida.verifyserviceprovider.factories.saml;
+
+import benchmarks.uk.gov.ida.verifyserviceprovider.support.TestKeysAndCerts;
+import org.joda.time.DateTime;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.opensaml.core.xml.XMLObject;
+import org.opensaml.core.xml.config.XMLObjectProviderRegistrySupport;
+import org.opensaml.core.xml.io.MarshallingException;
+import org.opensaml.saml.saml2.core.Attribute;
+import org.opensaml.saml.saml2.core.AuthnRequest;
+import org.opensaml.saml.saml2.core.EncryptedAttribute;
+import org.opensaml.saml.saml2.core.Issuer;
+import org.opensaml.saml.saml2.core.impl.AttributeBuilder;
+import org.opensaml.saml.saml2.core.impl.AuthnRequestBuilder;
+import org.opensaml.saml.saml2.core.impl.IssuerBuilder;
+import org.opensaml.security.credential.Credential;
+import org.opensaml.xmlsec.algorithm.descriptors.DigestSHA256;
+import org.opensaml.xmlsec.algorithm.descriptors.SignatureRSASHA256;
+import org.opensaml.xmlsec.encryption.support.EncryptionException;
+import org.opensaml.xmlsec.signature.Signature;
+import org.opensaml.xmlsec.signature.support.SignatureException;
+import org.opensaml.xmlsec.signature.support.Signer;
+import uk.gov.ida.saml.core.IdaSamlBootstrap;
+import uk.gov.ida.saml.core.extensions.versioning.Version;
+import uk.gov.ida.saml.core.extensions.versioning.VersionImpl;
+import uk.gov.ida.saml.core.extensions.versioning.application.ApplicationVersion;
+import uk.gov.ida.saml.core.extensions.versioning.application.ApplicationVersionImpl;
+import uk.gov.ida.saml.core.test.TestCredentialFactory;
+import uk.gov.ida.saml.security.IdaKeyStore;
+import uk.gov.ida.saml.security.IdaKeyStoreCredentialRetriever;
+import uk.gov.ida.saml.security.SignatureFactory;
+import uk.gov.ida.saml.serializers.XmlObjectToBase64EncodedStringTransformer;
+import uk.gov.ida.shared.utils.manifest.ManifestReader;
+import uk.gov.ida.verifyserviceprovider.VerifyServiceProviderApplication;
+import uk.gov.ida.verifyserviceprovider.factories.EncrypterFactory;
+import uk.gov.ida.verifyserviceprovider.factories.saml.AuthnRequestFactory;
+
+import java.io.IOException;
+import java.net.URI;
+import java.security.KeyPair;
+import java.util.Collections;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static uk.gov.ida.saml.core.test.TestCertificateStrings.HUB_TEST_PRIVATE_ENCRYPTION_KEY;
+import static uk.gov.ida.saml.core.test.TestCertificateStrings.HUB_TEST_PUBLIC_ENCRYPTION_CERT;
+import static uk.gov.ida.saml.core.test.TestEntityIds.HUB_ENTITY_ID;
+
+/**
+ * Covers AuthnRequestFactory.build and the serialisation GenerateAuthnRequestResource does on its result.
+ * The stage benchmarks repeat the relevant parts of AuthnRequestFactory so each can be measured on its own, and the
+ * createSignature pair compares building the signing material per request against sharing it as the factory does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class AuthnRequestFactoryBenchmark {
+
+    private static final URI HUB_SSO_LOCATION = URI.create("http://hub-sso-location");
+    private static final String SERVICE_ENTITY_ID = "http://service-entity-id";
+
+    private KeyPair signingKeyPair;
+    private SignatureFactory signatureFactory;
+    private EncrypterFactory encrypterFactory;
+    private AuthnRequestFactory authnRequestFactory;
+    private XmlObjectToBase64EncodedStringTransformer<XMLObject> xmlToBase64Transformer;
+    private AuthnRequest authnRequest;
+
+    @Setup(Level.Trial)
+    public void createAuthnRequestFactory() throws IOException {
+        IdaSamlBootstrap.bootstrap();
+
+        Credential hubEncryptionCredential = new TestCredentialFactory(HUB_TEST_PUBLIC_ENCRYPTION_CERT, HUB_TEST_PRIVATE_ENCRYPTION_KEY).getEncryptingCredential();
+        ManifestReader manifestReader = mock(ManifestReader.class);
+        when(manifestReader.getAttributeValueFor(VerifyServiceProviderApplication.class, "Version")).thenReturn("benchmark");
+
+        signingKeyPair = TestKeysAndCerts.vspSigningKeyPair();
+        signatureFactory = createSignatureFactory();
+        encrypterFactory = new EncrypterFactory(entityId -> hubEncryptionCredential, HUB_ENTITY_ID);
+        authnRequestFactory = new AuthnRequestFactory(HUB_SSO_LOCATION, signingKeyPair, manifestReader, encrypterFactory);
+        xmlToBase64Transformer = new XmlObjectToBase64EncodedStringTransformer<>();
+        authnRequest = authnRequestFactory.build(SERVICE_ENTITY_ID);
+    }
+
+    @Benchmark
+    public AuthnRequest build() {
+        return authnRequestFactory.build(SERVICE_ENTITY_ID);
+    }
+
+    @Benchmark
+    public String buildAndSerialise() {
+        return xmlToBase64Transformer.apply(authnRequestFactory.build(SERVICE_ENTITY_ID));
+    }
+
+    @Benchmark
+    public String generateRequestId() {
+        return String.format("_%s", UUID.randomUUID());
+    }
+
+    @Benchmark
+    public EncryptedAttribute encryptVersionsAttribute() throws EncryptionException {
+        ApplicationVersion applicationVersion = new ApplicationVersionImpl();
+        applicationVersion.setValue("benchmark");
+        Version version = new VersionImpl() {{
+            setApplicationVersion(applicationVersion);
+        }};
+        Attribute versionsAttribute = new AttributeBuilder().buildObject();
+        versionsAttribute.setName("Versions");
+        versionsAttribute.getAttributeValues().add(version);
+
+        return encrypterFactory.createEncrypter().encrypt(versionsAttribute);
+    }
+
+    @Benchmark
+    public AuthnRequest marshallAndSign() throws MarshallingException, SignatureException {
+        AuthnRequest unsignedRequest = new AuthnRequestBuilder().buildObject();
+        unsignedRequest.setID("_benchmark-request-id");
+        unsignedRequest.setIssueInstant(DateTime.now());
+        unsignedRequest.setDestination(HUB_SSO_LOCATION.toString());
+        Issuer issuer = new IssuerBuilder().buildObject();
+        issuer.setValue(SERVICE_ENTITY_ID);
+        unsignedRequest.setIssuer(issuer);
+
+        unsignedRequest.setSignature(signatureFactory.createSignature());
+
+        XMLObjectProviderRegistrySupport.getMarshallerFactory().getMarshaller(unsignedRequest).marshall(unsignedRequest);
+        Signer.signObject(unsignedRequest.getSignature());
+        return unsignedRequest;
+    }
+
+    @Benchmark
+    public String serialiseToBase64() {
+        return xmlToBase64Transformer.apply(authnRequest);
+    }
+
+    @Benchmark
+    public Signature createSignatureWithNewSignatureFactory() {
+        return createSignatureFactory().createSignature();
+    }
+
+    @Benchmark
+    public Signature createSignatureWithSharedSignatureFactory() {
+        return signatureFactory.createSignature();
+    }
+
+    private SignatureFactory createSignatureFactory() {
+        IdaKeyStoreCredentialRetriever credentialRetriever = new IdaKeyStoreCredentialRetriever(new IdaKeyStore(signingKeyPair, Collections.emptyList()));
+        return new SignatureFactory(credentialRetriever, new SignatureRSASHA256(), new DigestSHA256());
+    }
+}
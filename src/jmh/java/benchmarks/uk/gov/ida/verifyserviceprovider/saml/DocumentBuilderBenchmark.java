@@ -0,0 +1,78 @@
+package benchmarks.uk.gov.ida.verifyserviceprovider.saml;
+
+import net.shibboleth.utilities.java.support.component.ComponentInitializationException;
+import net.shibboleth.utilities.java.support.xml.BasicParserPool;
+import net.shibboleth.utilities.java.support.xml.XMLParserException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.w3c.dom.Document;
+import org.xml.sax.SAXException;
+import uk.gov.ida.verifyserviceprovider.factories.saml.ThreadLocalParserPool;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parses the hub response in example-saml into a DOM on four threads at once, creating and securing a new
+ * DocumentBuilder for every parse, sharing OpenSAML's BasicParserPool, and using a ThreadLocalParserPool.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Threads(4)
+@Fork(1)
+public class DocumentBuilderBenchmark {
+
+    private final ThreadLocalParserPool threadLocalParserPool = new ThreadLocalParserPool();
+    private final BasicParserPool basicParserPool = new BasicParserPool();
+    private byte[] samlResponse;
+
+    @Setup(Level.Trial)
+    public void loadExampleResponse() throws IOException, ComponentInitializationException {
+        basicParserPool.initialize();
+        samlResponse = Files.readAllBytes(Paths.get("example-saml", "example-saml-response.xml"));
+    }
+
+    @Benchmark
+    public Document newDocumentBuilderPerParse() throws ParserConfigurationException, IOException, SAXException {
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setNamespaceAware(true);
+        factory.setCoalescing(true);
+        factory.setIgnoringComments(true);
+        factory.setExpandEntityReferences(false);
+        factory.setXIncludeAware(false);
+        factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+        factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+        factory.setFeature("http://xml.org/sax/features/external-general-entities", false);
+        factory.setFeature("http://xml.org/sax/features/external-parameter-entities", false);
+        return factory.newDocumentBuilder().parse(new ByteArrayInputStream(samlResponse));
+    }
+
+    @Benchmark
+    public Document basicParserPool() throws XMLParserException {
+        return basicParserPool.parse(new ByteArrayInputStream(samlResponse));
+    }
+
+    @Benchmark
+    public Document threadLocalParserPool() throws XMLParserException {
+        return threadLocalParserPool.parse(new ByteArrayInputStream(samlResponse));
+    }
+}
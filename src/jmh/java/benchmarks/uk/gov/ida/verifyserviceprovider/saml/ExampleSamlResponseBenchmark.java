@@ -0,0 +1,68 @@
+package benchmarks.uk.gov.ida.verifyserviceprovider.saml;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.opensaml.saml.saml2.core.Response;
+import uk.gov.ida.saml.core.IdaSamlBootstrap;
+import uk.gov.ida.saml.deserializers.OpenSamlXMLObjectUnmarshaller;
+import uk.gov.ida.saml.deserializers.StringToOpenSamlObjectTransformer;
+import uk.gov.ida.saml.deserializers.parser.SamlObjectParser;
+import uk.gov.ida.saml.deserializers.validators.Base64StringDecoder;
+import uk.gov.ida.saml.deserializers.validators.NotNullSamlStringValidator;
+import uk.gov.ida.verifyserviceprovider.factories.saml.ResponseFactory;
+import uk.gov.ida.verifyserviceprovider.validators.ResponseSizeValidator;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unmarshals the hub response in example-saml, which is signed by a key we don't hold and so can
+ * only be used to measure parsing. Compares the transformer ResponseFactory builds, which decodes
+ * the response once into bytes, with saml-lib's, which decodes the whole response to a String first.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class ExampleSamlResponseBenchmark {
+
+    private StringToOpenSamlObjectTransformer<Response> stringToResponseTransformer;
+    private StringToOpenSamlObjectTransformer<Response> bufferingStringToResponseTransformer;
+    private String samlResponse;
+
+    @Setup(Level.Trial)
+    public void loadExampleResponse() throws IOException {
+        IdaSamlBootstrap.bootstrap();
+        stringToResponseTransformer = ResponseFactory.createStringToResponseTransformer();
+        bufferingStringToResponseTransformer = new StringToOpenSamlObjectTransformer<>(
+                new NotNullSamlStringValidator(),
+                new Base64StringDecoder(),
+                new ResponseSizeValidator(),
+                new OpenSamlXMLObjectUnmarshaller<>(new SamlObjectParser()));
+        samlResponse = Base64.getEncoder().encodeToString(Files.readAllBytes(Paths.get("example-saml", "example-saml-response.xml")));
+    }
+
+    @Benchmark
+    public Response unmarshal() {
+        return stringToResponseTransformer.apply(samlResponse);
+    }
+
+    @Benchmark
+    public Response unmarshalViaDecodedString() {
+        return bufferingStringToResponseTransformer.apply(samlResponse);
+    }
+}
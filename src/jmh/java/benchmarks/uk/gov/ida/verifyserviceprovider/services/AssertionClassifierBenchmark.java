@@ -0,0 +1,71 @@
+package benchmarks.uk.gov.ida.verifyserviceprovider.services;
+
+import benchmarks.uk.gov.ida.verifyserviceprovider.support.TranslationFixture;
+import benchmarks.uk.gov.ida.verifyserviceprovider.support.TranslationMode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.opensaml.saml.saml2.core.Assertion;
+import org.opensaml.saml.saml2.core.Response;
+import org.opensaml.saml.saml2.metadata.SPSSODescriptor;
+import uk.gov.ida.verifyserviceprovider.factories.saml.ResponseFactory;
+import uk.gov.ida.verifyserviceprovider.services.AssertionClassifier;
+import uk.gov.ida.verifyserviceprovider.services.AssertionClassifier.AssertionType;
+import uk.gov.ida.verifyserviceprovider.services.ClassifiedAssertions;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Picks the authn and matching dataset assertions out of the decrypted assertions of a non-matching response,
+ * grouping them by type once for each as VerifyAssertionTranslator used to, and classifying them in a single pass.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class AssertionClassifierBenchmark {
+
+    private final AssertionClassifier assertionClassifier = new AssertionClassifier();
+    private List<Assertion> assertions;
+
+    @Setup(Level.Trial)
+    public void decryptAssertions() {
+        TranslationFixture fixture = new TranslationFixture();
+        Response response = ResponseFactory.createStringToResponseTransformer()
+                .apply(fixture.createSamlResponse(TranslationMode.NON_MATCHING));
+        assertions = fixture.getResponseFactory().createAssertionDecrypter().decryptAssertions(
+                fixture.createResponseSignatureValidator().validate(response, SPSSODescriptor.DEFAULT_ELEMENT_NAME));
+    }
+
+    @Benchmark
+    public void groupByTypeForEachAssertion(Blackhole blackhole) {
+        Map<AssertionType, List<Assertion>> authnAssertionMap = assertions.stream()
+                .collect(Collectors.groupingBy(assertionClassifier::classifyAssertion));
+        blackhole.consume(authnAssertionMap.get(AssertionType.AUTHN_ASSERTION).get(0));
+
+        Map<AssertionType, List<Assertion>> mdsAssertionMap = assertions.stream()
+                .collect(Collectors.groupingBy(assertionClassifier::classifyAssertion));
+        blackhole.consume(mdsAssertionMap.get(AssertionType.MDS_ASSERTION).get(0));
+    }
+
+    @Benchmark
+    public void classifyInOnePass(Blackhole blackhole) {
+        ClassifiedAssertions classifiedAssertions = assertionClassifier.classifyAssertions(assertions);
+        blackhole.consume(classifiedAssertions.getAuthnAssertion());
+        blackhole.consume(classifiedAssertions.getMatchingDatasetAssertion());
+    }
+}
@@ -0,0 +1,78 @@
+package benchmarks.uk.gov.ida.verifyserviceprovider.services;
+
+import benchmarks.uk.gov.ida.verifyserviceprovider.support.TestKeysAndCerts;
+import benchmarks.uk.gov.ida.verifyserviceprovider.support.TranslationFixture;
+import benchmarks.uk.gov.ida.verifyserviceprovider.support.TranslationMode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.opensaml.saml.saml2.core.Assertion;
+import org.opensaml.saml.saml2.metadata.SPSSODescriptor;
+import uk.gov.ida.saml.security.AssertionDecrypter;
+import uk.gov.ida.saml.security.validators.ValidatedResponse;
+import uk.gov.ida.verifyserviceprovider.factories.saml.ResponseFactory;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Collections.singletonList;
+
+/**
+ * Decrypts the two assertions of a non-matching response one after the other, and in parallel on a pool of
+ * two threads as the cryptoWorkers parallelDecryption option does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class AssertionDecryptionBenchmark {
+
+    private ExecutorService executor;
+    private AssertionDecrypter sequentialAssertionDecrypter;
+    private AssertionDecrypter parallelAssertionDecrypter;
+    private ValidatedResponse validatedResponse;
+
+    @Setup(Level.Trial)
+    public void createDecrypters() {
+        executor = Executors.newFixedThreadPool(2);
+        sequentialAssertionDecrypter = new ResponseFactory(singletonList(TestKeysAndCerts.vspEncryptionKeyPair()))
+                .createAssertionDecrypter();
+        parallelAssertionDecrypter = ResponseFactory.builder(singletonList(TestKeysAndCerts.vspEncryptionKeyPair()))
+                .withDecryptionExecutor(executor)
+                .build()
+                .createAssertionDecrypter();
+
+        TranslationFixture fixture = new TranslationFixture();
+        validatedResponse = fixture.createResponseSignatureValidator().validate(
+                ResponseFactory.createStringToResponseTransformer().apply(fixture.createSamlResponse(TranslationMode.NON_MATCHING)),
+                SPSSODescriptor.DEFAULT_ELEMENT_NAME);
+    }
+
+    @TearDown(Level.Trial)
+    public void shutdownExecutor() {
+        executor.shutdown();
+    }
+
+    @Benchmark
+    public List<Assertion> decryptSequentially() {
+        return sequentialAssertionDecrypter.decryptAssertions(validatedResponse);
+    }
+
+    @Benchmark
+    public List<Assertion> decryptInParallel() {
+        return parallelAssertionDecrypter.decryptAssertions(validatedResponse);
+    }
+}
@@ -0,0 +1,57 @@
+package benchmarks.uk.gov.ida.verifyserviceprovider.services;
+
+import benchmarks.uk.gov.ida.verifyserviceprovider.support.TranslationFixture;
+import benchmarks.uk.gov.ida.verifyserviceprovider.support.TranslationMode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import uk.gov.ida.verifyserviceprovider.dto.TranslatedResponseBody;
+import uk.gov.ida.verifyserviceprovider.services.ResponseService;
+
+import java.util.concurrent.TimeUnit;
+
+import static benchmarks.uk.gov.ida.verifyserviceprovider.support.TranslationFixture.REQUEST_ID;
+import static benchmarks.uk.gov.ida.verifyserviceprovider.support.TranslationFixture.SERVICE_ENTITY_ID;
+import static uk.gov.ida.verifyserviceprovider.dto.LevelOfAssurance.LEVEL_2;
+
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class ResponseServiceBenchmark {
+
+    @Param({"MATCHING", "NON_MATCHING"})
+    public TranslationMode mode;
+
+    private TranslationFixture fixture;
+    private ResponseService responseService;
+    private String samlResponse;
+
+    @Setup(Level.Trial)
+    public void createResponseService() {
+        fixture = new TranslationFixture();
+        responseService = fixture.createResponseService(mode);
+    }
+
+    // The response IssueInstant has to stay inside the five minute window InstantValidator accepts
+    @Setup(Level.Iteration)
+    public void createSamlResponse() {
+        samlResponse = fixture.createSamlResponse(mode);
+    }
+
+    @Benchmark
+    public TranslatedResponseBody convertTranslatedResponseBody() {
+        return responseService.convertTranslatedResponseBody(samlResponse, REQUEST_ID, LEVEL_2, SERVICE_ENTITY_ID);
+    }
+}
@@ -0,0 +1,97 @@
+package benchmarks.uk.gov.ida.verifyserviceprovider.services;
+
+import benchmarks.uk.gov.ida.verifyserviceprovider.support.TranslationFixture;
+import benchmarks.uk.gov.ida.verifyserviceprovider.support.TranslationMode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.opensaml.saml.saml2.core.Assertion;
+import org.opensaml.saml.saml2.core.Response;
+import org.opensaml.saml.saml2.metadata.SPSSODescriptor;
+import uk.gov.ida.saml.deserializers.StringToOpenSamlObjectTransformer;
+import uk.gov.ida.saml.security.AssertionDecrypter;
+import uk.gov.ida.saml.security.validators.ValidatedResponse;
+import uk.gov.ida.saml.security.validators.signature.SamlResponseSignatureValidator;
+import uk.gov.ida.verifyserviceprovider.dto.TranslatedResponseBody;
+import uk.gov.ida.verifyserviceprovider.factories.saml.ResponseFactory;
+import uk.gov.ida.verifyserviceprovider.services.AssertionTranslator;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static benchmarks.uk.gov.ida.verifyserviceprovider.support.TranslationFixture.REQUEST_ID;
+import static benchmarks.uk.gov.ida.verifyserviceprovider.support.TranslationFixture.SERVICE_ENTITY_ID;
+import static uk.gov.ida.verifyserviceprovider.dto.LevelOfAssurance.LEVEL_2;
+
+/**
+ * Each benchmark runs one stage of ResponseService.convertTranslatedResponseBody against the output of the
+ * stages before it, which are run once per iteration during setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class ResponseServiceStagesBenchmark {
+
+    @Param({"MATCHING", "NON_MATCHING"})
+    public TranslationMode mode;
+
+    private TranslationFixture fixture;
+    private StringToOpenSamlObjectTransformer<Response> stringToResponseTransformer;
+    private SamlResponseSignatureValidator responseSignatureValidator;
+    private AssertionDecrypter assertionDecrypter;
+    private AssertionTranslator assertionTranslator;
+
+    private String samlResponse;
+    private Response response;
+    private ValidatedResponse validatedResponse;
+    private List<Assertion> assertions;
+
+    @Setup(Level.Trial)
+    public void createStages() {
+        fixture = new TranslationFixture();
+        stringToResponseTransformer = ResponseFactory.createStringToResponseTransformer();
+        responseSignatureValidator = fixture.createResponseSignatureValidator();
+        assertionDecrypter = fixture.getResponseFactory().createAssertionDecrypter();
+        assertionTranslator = fixture.createAssertionTranslator(mode);
+    }
+
+    @Setup(Level.Iteration)
+    public void createStageInputs() {
+        samlResponse = fixture.createSamlResponse(mode);
+        response = stringToResponseTransformer.apply(samlResponse);
+        validatedResponse = responseSignatureValidator.validate(response, SPSSODescriptor.DEFAULT_ELEMENT_NAME);
+        assertions = assertionDecrypter.decryptAssertions(validatedResponse);
+    }
+
+    @Benchmark
+    public Response unmarshal() {
+        return stringToResponseTransformer.apply(samlResponse);
+    }
+
+    @Benchmark
+    public ValidatedResponse validateResponseSignature() {
+        return responseSignatureValidator.validate(response, SPSSODescriptor.DEFAULT_ELEMENT_NAME);
+    }
+
+    @Benchmark
+    public List<Assertion> decryptAssertions() {
+        return assertionDecrypter.decryptAssertions(validatedResponse);
+    }
+
+    @Benchmark
+    public TranslatedResponseBody translateSuccessResponse() {
+        return assertionTranslator.translateSuccessResponse(assertions, REQUEST_ID, LEVEL_2, SERVICE_ENTITY_ID);
+    }
+}
@@ -0,0 +1,58 @@
+package benchmarks.uk.gov.ida.verifyserviceprovider.support;
+
+import org.opensaml.security.x509.BasicX509Credential;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.PrivateKey;
+import java.security.cert.CertificateFactory;
+import java.security.cert.X509Certificate;
+import java.security.spec.PKCS8EncodedKeySpec;
+
+/**
+ * Loads the keys and certificates in the test-keys-and-certs directory.
+ * The jmh task runs from the project directory, so the relative path resolves there.
+ */
+public class TestKeysAndCerts {
+
+    private static final Path KEYS_AND_CERTS_DIRECTORY = Paths.get("test-keys-and-certs");
+
+    public static KeyPair vspEncryptionKeyPair() {
+        return new KeyPair(certificate("vsp-encryption.crt").getPublicKey(), privateKey("vsp-encryption.pk8"));
+    }
+
+    public static BasicX509Credential vspEncryptionCredential() {
+        return new BasicX509Credential(certificate("vsp-encryption.crt"));
+    }
+
+    public static KeyPair vspSigningKeyPair() {
+        return new KeyPair(certificate("vsp-signing.crt").getPublicKey(), privateKey("vsp-signing.pk8"));
+    }
+
+    public static BasicX509Credential msaSigningCredential() {
+        return new BasicX509Credential(certificate("msa-signing.crt"), privateKey("msa-signing.pk8"));
+    }
+
+    private static X509Certificate certificate(String fileName) {
+        try (InputStream inputStream = Files.newInputStream(KEYS_AND_CERTS_DIRECTORY.resolve(fileName))) {
+            return (X509Certificate) CertificateFactory.getInstance("X.509").generateCertificate(inputStream);
+        } catch (IOException | GeneralSecurityException e) {
+            throw new IllegalStateException("Could not load certificate " + fileName, e);
+        }
+    }
+
+    private static PrivateKey privateKey(String fileName) {
+        try {
+            byte[] encodedKey = Files.readAllBytes(KEYS_AND_CERTS_DIRECTORY.resolve(fileName));
+            return KeyFactory.getInstance("RSA").generatePrivate(new PKCS8EncodedKeySpec(encodedKey));
+        } catch (IOException | GeneralSecurityException e) {
+            throw new IllegalStateException("Could not load private key " + fileName, e);
+        }
+    }
+}
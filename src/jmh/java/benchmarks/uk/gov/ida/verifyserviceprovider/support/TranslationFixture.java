@@ -0,0 +1,207 @@
+package benchmarks.uk.gov.ida.verifyserviceprovider.support;
+
+import org.joda.time.DateTime;
+import org.joda.time.Duration;
+import org.opensaml.core.xml.XMLObject;
+import org.opensaml.core.xml.io.MarshallingException;
+import org.opensaml.saml.saml2.core.AuthnStatement;
+import org.opensaml.saml.saml2.core.EncryptedAssertion;
+import org.opensaml.saml.saml2.core.Response;
+import org.opensaml.saml.saml2.core.StatusCode;
+import org.opensaml.saml.saml2.core.Subject;
+import org.opensaml.security.credential.Credential;
+import org.opensaml.security.credential.impl.CollectionCredentialResolver;
+import org.opensaml.xmlsec.config.impl.DefaultSecurityConfigurationBootstrap;
+import org.opensaml.xmlsec.signature.Signature;
+import org.opensaml.xmlsec.signature.support.SignatureException;
+import org.opensaml.xmlsec.signature.support.impl.ExplicitKeySignatureTrustEngine;
+import uk.gov.ida.saml.core.IdaSamlBootstrap;
+import uk.gov.ida.saml.core.test.TestCredentialFactory;
+import uk.gov.ida.saml.core.test.builders.AssertionBuilder;
+import uk.gov.ida.saml.core.test.builders.ResponseBuilder;
+import uk.gov.ida.saml.security.MetadataBackedSignatureValidator;
+import uk.gov.ida.saml.security.SamlMessageSignatureValidator;
+import uk.gov.ida.saml.security.validators.signature.SamlResponseSignatureValidator;
+import uk.gov.ida.saml.serializers.XmlObjectToBase64EncodedStringTransformer;
+import uk.gov.ida.verifyserviceprovider.factories.saml.ResponseFactory;
+import uk.gov.ida.verifyserviceprovider.factories.saml.SignatureValidatorFactory;
+import uk.gov.ida.verifyserviceprovider.services.AssertionTranslator;
+import uk.gov.ida.verifyserviceprovider.services.ResponseService;
+import uk.gov.ida.verifyserviceprovider.utils.DateTimeComparator;
+
+import java.security.KeyPair;
+import java.util.List;
+
+import static java.util.Collections.singletonList;
+import static uk.gov.ida.saml.core.extensions.IdaAuthnContext.LEVEL_2_AUTHN_CTX;
+import static uk.gov.ida.saml.core.test.TestCertificateStrings.HUB_TEST_PRIVATE_SIGNING_KEY;
+import static uk.gov.ida.saml.core.test.TestCertificateStrings.HUB_TEST_PUBLIC_SIGNING_CERT;
+import static uk.gov.ida.saml.core.test.TestEntityIds.STUB_IDP_ONE;
+import static uk.gov.ida.saml.core.test.TestEntityIds.TEST_RP_MS;
+import static uk.gov.ida.saml.core.test.builders.AssertionBuilder.anAssertion;
+import static uk.gov.ida.saml.core.test.builders.AttributeStatementBuilder.anAttributeStatement;
+import static uk.gov.ida.saml.core.test.builders.AudienceRestrictionBuilder.anAudienceRestriction;
+import static uk.gov.ida.saml.core.test.builders.AuthnContextBuilder.anAuthnContext;
+import static uk.gov.ida.saml.core.test.builders.AuthnContextClassRefBuilder.anAuthnContextClassRef;
+import static uk.gov.ida.saml.core.test.builders.AuthnStatementBuilder.anAuthnStatement;
+import static uk.gov.ida.saml.core.test.builders.ConditionsBuilder.aConditions;
+import static uk.gov.ida.saml.core.test.builders.IPAddressAttributeBuilder.anIPAddress;
+import static uk.gov.ida.saml.core.test.builders.IssuerBuilder.anIssuer;
+import static uk.gov.ida.saml.core.test.builders.ResponseBuilder.aResponse;
+import static uk.gov.ida.saml.core.test.builders.SignatureBuilder.aSignature;
+import static uk.gov.ida.saml.core.test.builders.StatusBuilder.aStatus;
+import static uk.gov.ida.saml.core.test.builders.StatusCodeBuilder.aStatusCode;
+import static uk.gov.ida.saml.core.test.builders.SubjectBuilder.aSubject;
+import static uk.gov.ida.saml.core.test.builders.SubjectConfirmationBuilder.aSubjectConfirmation;
+import static uk.gov.ida.saml.core.test.builders.SubjectConfirmationDataBuilder.aSubjectConfirmationData;
+
+/**
+ * Wires the translate-response pipeline the same way VerifyServiceProviderFactory does, but with trust engines
+ * built from local credentials rather than metadata, and builds signed and encrypted responses for it to consume.
+ */
+public class TranslationFixture {
+
+    public static final String REQUEST_ID = ResponseBuilder.DEFAULT_REQUEST_ID;
+    public static final String SERVICE_ENTITY_ID = "http://service-entity-id";
+    public static final String HASHING_ENTITY_ID = "http://hashing-entity-id";
+    private static final String PID = "some-pid";
+
+    static {
+        IdaSamlBootstrap.bootstrap();
+    }
+
+    private final Credential hubSigningCredential = new TestCredentialFactory(HUB_TEST_PUBLIC_SIGNING_CERT, HUB_TEST_PRIVATE_SIGNING_KEY).getSigningCredential();
+    private final Credential msaSigningCredential = TestKeysAndCerts.msaSigningCredential();
+    private final Credential vspEncryptionCredential = TestKeysAndCerts.vspEncryptionCredential();
+    private final List<KeyPair> decryptionKeyPairs = singletonList(TestKeysAndCerts.vspEncryptionKeyPair());
+    private final DateTimeComparator dateTimeComparator = new DateTimeComparator(Duration.standardSeconds(5));
+    private final ResponseFactory responseFactory = new ResponseFactory(decryptionKeyPairs);
+    private final XmlObjectToBase64EncodedStringTransformer<XMLObject> base64EncodedStringTransformer = new XmlObjectToBase64EncodedStringTransformer<>();
+
+    public ResponseFactory getResponseFactory() {
+        return responseFactory;
+    }
+
+    public ResponseService createResponseService(TranslationMode mode) {
+        if (mode == TranslationMode.MATCHING) {
+            return responseFactory.createMatchingResponseService(hubSignatureTrustEngine(), createAssertionTranslator(mode), dateTimeComparator);
+        }
+        return responseFactory.createNonMatchingResponseService(hubSignatureTrustEngine(), createAssertionTranslator(mode), dateTimeComparator);
+    }
+
+    public AssertionTranslator createAssertionTranslator(TranslationMode mode) {
+        SignatureValidatorFactory signatureValidatorFactory = new SignatureValidatorFactory();
+        if (mode == TranslationMode.MATCHING) {
+            return responseFactory.createMsaAssertionTranslator(msaSignatureTrustEngine(), signatureValidatorFactory, dateTimeComparator);
+        }
+        return responseFactory.createVerifyIdpAssertionTranslator(
+                hubSignatureTrustEngine(),
+                signatureValidatorFactory,
+                dateTimeComparator,
+                HASHING_ENTITY_ID);
+    }
+
+    public SamlResponseSignatureValidator createResponseSignatureValidator() {
+        return new SamlResponseSignatureValidator(new SamlMessageSignatureValidator(
+                MetadataBackedSignatureValidator.withoutCertificateChainValidation(hubSignatureTrustEngine())));
+    }
+
+    public Response createResponse(TranslationMode mode) {
+        ResponseBuilder responseBuilder = aResponse()
+                .withStatus(aStatus().withStatusCode(aStatusCode().withValue(StatusCode.SUCCESS).build()).build())
+                .withNoDefaultAssertion();
+
+        if (mode == TranslationMode.MATCHING) {
+            responseBuilder.addEncryptedAssertion(aMatchingServiceAssertion());
+        } else {
+            responseBuilder
+                    .addEncryptedAssertion(anIdpAuthnAssertion())
+                    .addEncryptedAssertion(anIdpMatchingDatasetAssertion());
+        }
+
+        try {
+            return responseBuilder.withSigningCredential(hubSigningCredential).build();
+        } catch (MarshallingException | SignatureException e) {
+            throw new IllegalStateException("Could not build a signed SAML response", e);
+        }
+    }
+
+    public String createSamlResponse(TranslationMode mode) {
+        return toBase64EncodedString(createResponse(mode));
+    }
+
+    public String toBase64EncodedString(XMLObject xmlObject) {
+        return base64EncodedStringTransformer.apply(xmlObject);
+    }
+
+    private ExplicitKeySignatureTrustEngine hubSignatureTrustEngine() {
+        return trustEngineFor(hubSigningCredential);
+    }
+
+    private ExplicitKeySignatureTrustEngine msaSignatureTrustEngine() {
+        return trustEngineFor(msaSigningCredential);
+    }
+
+    private ExplicitKeySignatureTrustEngine trustEngineFor(Credential credential) {
+        return new ExplicitKeySignatureTrustEngine(
+                new CollectionCredentialResolver(singletonList(credential)),
+                DefaultSecurityConfigurationBootstrap.buildBasicInlineKeyInfoCredentialResolver());
+    }
+
+    private EncryptedAssertion aMatchingServiceAssertion() {
+        return anAssertion()
+                .withIssuer(anIssuer().withIssuerId(TEST_RP_MS).build())
+                .withSubject(aBearerSubject())
+                .withConditions(aConditions()
+                        .withoutDefaultAudienceRestriction()
+                        .addAudienceRestriction(anAudienceRestriction().withAudienceId(SERVICE_ENTITY_ID).build())
+                        .build())
+                .addAuthnStatement(aLevelTwoAuthnStatement())
+                .withSignature(aSignatureFrom(msaSigningCredential))
+                .buildWithEncrypterCredential(vspEncryptionCredential);
+    }
+
+    private EncryptedAssertion anIdpAuthnAssertion() {
+        return anIdpAssertion()
+                .addAuthnStatement(aLevelTwoAuthnStatement())
+                .addAttributeStatement(anAttributeStatement().addAttribute(anIPAddress().build()).build())
+                .buildWithEncrypterCredential(vspEncryptionCredential);
+    }
+
+    private EncryptedAssertion anIdpMatchingDatasetAssertion() {
+        return anIdpAssertion()
+                .addAttributeStatement(anAttributeStatement().build())
+                .buildWithEncrypterCredential(vspEncryptionCredential);
+    }
+
+    private AssertionBuilder anIdpAssertion() {
+        return anAssertion()
+                .withIssuer(anIssuer().withIssuerId(STUB_IDP_ONE).build())
+                .withSubject(aBearerSubject())
+                .withSignature(aSignatureFrom(hubSigningCredential));
+    }
+
+    private Subject aBearerSubject() {
+        return aSubject()
+                .withPersistentId(PID)
+                .withSubjectConfirmation(aSubjectConfirmation()
+                        .withSubjectConfirmationData(aSubjectConfirmationData()
+                                .withNotOnOrAfter(DateTime.now().plusMinutes(15))
+                                .withInResponseTo(REQUEST_ID)
+                                .build())
+                        .build())
+                .build();
+    }
+
+    private AuthnStatement aLevelTwoAuthnStatement() {
+        return anAuthnStatement()
+                .withAuthnContext(anAuthnContext()
+                        .withAuthnContextClassRef(anAuthnContextClassRef().withAuthnContextClasRefValue(LEVEL_2_AUTHN_CTX).build())
+                        .build())
+                .build();
+    }
+
+    private Signature aSignatureFrom(Credential signingCredential) {
+        return aSignature().withSigningCredential(signingCredential).build();
+    }
+}
@@ -0,0 +1,6 @@
+package benchmarks.uk.gov.ida.verifyserviceprovider.support;
+
+public enum TranslationMode {
+    MATCHING,
+    NON_MATCHING
+}
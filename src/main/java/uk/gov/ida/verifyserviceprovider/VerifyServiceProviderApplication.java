@@ -66,14 +66,16 @@ public class VerifyServiceProviderApplication extends Application<VerifyServiceP
     @Override
     public void run(VerifyServiceProviderConfiguration configuration, Environment environment) throws Exception {
         Client client = new JerseyClientBuilder(environment).build(getName());
-        VerifyServiceProviderFactory factory = new VerifyServiceProviderFactory(configuration, hubMetadataBundle, msaMetadataBundle, client);
+        VerifyServiceProviderFactory factory = new VerifyServiceProviderFactory(configuration, hubMetadataBundle, msaMetadataBundle, client, environment);
 
         environment.jersey().register(new JerseyViolationExceptionMapper());
         environment.jersey().register(new JsonProcessingExceptionMapper());
         environment.jersey().register(new InvalidEntityIdExceptionMapper());
+        environment.jersey().register(factory.getRequestSizeLimitFeature());
         environment.jersey().register(factory.getVersionNumberResource());
         environment.jersey().register(factory.getGenerateAuthnRequestResource());
         environment.jersey().register(factory.getTranslateSamlResponseResource());
+        environment.jersey().register(factory.getTranslateSamlResponsesResource());
         environment.lifecycle().addServerLifecycleListener(new VerifyServiceProviderServerListener(environment));
     }
 }
@@ -29,7 +29,14 @@ public class ComplianceToolModeConfiguration extends VerifyServiceProviderConfig
               encryptionKeysAndCert.getPrivate(),
               encryptionKeysAndCert.getPrivate(),
               Optional.empty(),
-              org.joda.time.Duration.standardMinutes(2));
+              org.joda.time.Duration.standardMinutes(2),
+              null,
+              null,
+              null,
+              null,
+              null,
+              null,
+              null);
 
         this.serviceEntityId = serviceEntityId;
         this.signingKeysAndCert = signingKeysAndCert;
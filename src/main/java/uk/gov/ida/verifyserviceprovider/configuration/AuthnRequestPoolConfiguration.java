@@ -0,0 +1,54 @@
+package uk.gov.ida.verifyserviceprovider.configuration;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.joda.time.Duration;
+
+import javax.validation.constraints.Min;
+
+import static java.util.Optional.ofNullable;
+
+public class AuthnRequestPoolConfiguration {
+
+    private static final int DEFAULT_SIZE = 10;
+    private static final Duration DEFAULT_MAX_AGE = Duration.standardMinutes(1);
+    private static final Duration DEFAULT_REFILL_INTERVAL = Duration.standardSeconds(5);
+
+    private final boolean enabled;
+    private final int size;
+    private final Duration maxAge;
+    private final Duration refillInterval;
+
+    public AuthnRequestPoolConfiguration() {
+        this(null, null, null, null);
+    }
+
+    @JsonCreator
+    public AuthnRequestPoolConfiguration(
+            @JsonProperty("enabled") Boolean enabled,
+            @JsonProperty("size") @Min(1) Integer size,
+            @JsonProperty("maxAge") Duration maxAge,
+            @JsonProperty("refillInterval") Duration refillInterval
+    ) {
+        this.enabled = ofNullable(enabled).orElse(false);
+        this.size = ofNullable(size).orElse(DEFAULT_SIZE);
+        this.maxAge = ofNullable(maxAge).orElse(DEFAULT_MAX_AGE);
+        this.refillInterval = ofNullable(refillInterval).orElse(DEFAULT_REFILL_INTERVAL);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public Duration getMaxAge() {
+        return maxAge;
+    }
+
+    public Duration getRefillInterval() {
+        return refillInterval;
+    }
+}
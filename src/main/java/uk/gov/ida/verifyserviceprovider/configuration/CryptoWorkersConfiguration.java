@@ -0,0 +1,51 @@
+package uk.gov.ida.verifyserviceprovider.configuration;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import javax.validation.constraints.Min;
+
+import static java.util.Optional.ofNullable;
+
+public class CryptoWorkersConfiguration {
+
+    private static final int DEFAULT_QUEUE_SIZE = 100;
+
+    private final int threads;
+    private final int queueSize;
+    private final boolean parallelAssertionSignatureValidation;
+    private final boolean parallelDecryption;
+
+    public CryptoWorkersConfiguration() {
+        this(null, null, null, null);
+    }
+
+    @JsonCreator
+    public CryptoWorkersConfiguration(
+            @JsonProperty("threads") @Min(1) Integer threads,
+            @JsonProperty("queueSize") @Min(1) Integer queueSize,
+            @JsonProperty("parallelAssertionSignatureValidation") Boolean parallelAssertionSignatureValidation,
+            @JsonProperty("parallelDecryption") Boolean parallelDecryption
+    ) {
+        this.threads = ofNullable(threads).orElse(Runtime.getRuntime().availableProcessors());
+        this.queueSize = ofNullable(queueSize).orElse(DEFAULT_QUEUE_SIZE);
+        this.parallelAssertionSignatureValidation = ofNullable(parallelAssertionSignatureValidation).orElse(false);
+        this.parallelDecryption = ofNullable(parallelDecryption).orElse(false);
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public int getQueueSize() {
+        return queueSize;
+    }
+
+    public boolean isParallelAssertionSignatureValidation() {
+        return parallelAssertionSignatureValidation;
+    }
+
+    public boolean isParallelDecryption() {
+        return parallelDecryption;
+    }
+}
@@ -0,0 +1,24 @@
+package uk.gov.ida.verifyserviceprovider.configuration;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import static java.util.Optional.ofNullable;
+
+public class ReplayCacheConfiguration {
+
+    private final boolean enabled;
+
+    public ReplayCacheConfiguration() {
+        this(null);
+    }
+
+    @JsonCreator
+    public ReplayCacheConfiguration(@JsonProperty("enabled") Boolean enabled) {
+        this.enabled = ofNullable(enabled).orElse(false);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+}
@@ -0,0 +1,75 @@
+package uk.gov.ida.verifyserviceprovider.configuration;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import uk.gov.ida.verifyserviceprovider.validators.ResponseSizeValidator;
+import uk.gov.ida.verifyserviceprovider.validators.ResponseStructureValidator;
+
+import javax.validation.constraints.Min;
+
+import static java.util.Optional.ofNullable;
+
+public class RequestLimitsConfiguration {
+
+    public static final int MAX_BATCH_SIZE = 100;
+    private static final int REQUEST_BODY_OVERHEAD = 16 * 1024;
+
+    private final int maxSamlResponseLength;
+    private final int maxRequestBodySize;
+    private final long maxBatchRequestBodySize;
+    private final int maxResponseElements;
+    private final int maxResponseDepth;
+    private final int maxAttributesPerElement;
+    private final int maxEncryptedAssertions;
+
+    public RequestLimitsConfiguration() {
+        this(null, null, null, null, null, null, null);
+    }
+
+    @JsonCreator
+    public RequestLimitsConfiguration(
+            @JsonProperty("maxSamlResponseLength") @Min(1) Integer maxSamlResponseLength,
+            @JsonProperty("maxRequestBodySize") @Min(1) Integer maxRequestBodySize,
+            @JsonProperty("maxBatchRequestBodySize") @Min(1) Long maxBatchRequestBodySize,
+            @JsonProperty("maxResponseElements") @Min(1) Integer maxResponseElements,
+            @JsonProperty("maxResponseDepth") @Min(1) Integer maxResponseDepth,
+            @JsonProperty("maxAttributesPerElement") @Min(1) Integer maxAttributesPerElement,
+            @JsonProperty("maxEncryptedAssertions") @Min(1) Integer maxEncryptedAssertions
+    ) {
+        this.maxSamlResponseLength = ofNullable(maxSamlResponseLength).orElse(ResponseSizeValidator.DEFAULT_MAX_SAML_RESPONSE_LENGTH);
+        this.maxRequestBodySize = ofNullable(maxRequestBodySize).orElse(this.maxSamlResponseLength + REQUEST_BODY_OVERHEAD);
+        this.maxBatchRequestBodySize = ofNullable(maxBatchRequestBodySize).orElse((long) this.maxRequestBodySize * MAX_BATCH_SIZE);
+        this.maxResponseElements = ofNullable(maxResponseElements).orElse(ResponseStructureValidator.DEFAULT_MAX_ELEMENTS);
+        this.maxResponseDepth = ofNullable(maxResponseDepth).orElse(ResponseStructureValidator.DEFAULT_MAX_DEPTH);
+        this.maxAttributesPerElement = ofNullable(maxAttributesPerElement).orElse(ResponseStructureValidator.DEFAULT_MAX_ATTRIBUTES_PER_ELEMENT);
+        this.maxEncryptedAssertions = ofNullable(maxEncryptedAssertions).orElse(ResponseStructureValidator.DEFAULT_MAX_ENCRYPTED_ASSERTIONS);
+    }
+
+    public int getMaxSamlResponseLength() {
+        return maxSamlResponseLength;
+    }
+
+    public int getMaxRequestBodySize() {
+        return maxRequestBodySize;
+    }
+
+    public long getMaxBatchRequestBodySize() {
+        return maxBatchRequestBodySize;
+    }
+
+    public int getMaxResponseElements() {
+        return maxResponseElements;
+    }
+
+    public int getMaxResponseDepth() {
+        return maxResponseDepth;
+    }
+
+    public int getMaxAttributesPerElement() {
+        return maxAttributesPerElement;
+    }
+
+    public int getMaxEncryptedAssertions() {
+        return maxEncryptedAssertions;
+    }
+}
@@ -0,0 +1,46 @@
+package uk.gov.ida.verifyserviceprovider.configuration;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.joda.time.Duration;
+
+import javax.validation.constraints.Min;
+
+import static java.util.Optional.ofNullable;
+
+public class TranslationCacheConfiguration {
+
+    private static final int DEFAULT_MAX_ENTRIES = 1000;
+    private static final Duration DEFAULT_TIME_TO_LIVE = Duration.standardSeconds(30);
+
+    private final boolean enabled;
+    private final int maxEntries;
+    private final Duration timeToLive;
+
+    public TranslationCacheConfiguration() {
+        this(null, null, null);
+    }
+
+    @JsonCreator
+    public TranslationCacheConfiguration(
+            @JsonProperty("enabled") Boolean enabled,
+            @JsonProperty("maxEntries") @Min(1) Integer maxEntries,
+            @JsonProperty("timeToLive") Duration timeToLive
+    ) {
+        this.enabled = ofNullable(enabled).orElse(false);
+        this.maxEntries = ofNullable(maxEntries).orElse(DEFAULT_MAX_ENTRIES);
+        this.timeToLive = ofNullable(timeToLive).orElse(DEFAULT_TIME_TO_LIVE);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public Duration getTimeToLive() {
+        return timeToLive;
+    }
+}
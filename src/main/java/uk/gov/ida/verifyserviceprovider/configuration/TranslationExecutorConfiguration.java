@@ -0,0 +1,53 @@
+package uk.gov.ida.verifyserviceprovider.configuration;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.joda.time.Duration;
+
+import javax.validation.constraints.Min;
+
+import static java.util.Optional.ofNullable;
+
+public class TranslationExecutorConfiguration {
+
+    private static final int DEFAULT_QUEUE_SIZE = 100;
+    private static final Duration DEFAULT_TIMEOUT = Duration.standardSeconds(30);
+
+    private final int threads;
+    private final int queueSize;
+    private final Duration timeout;
+    private final int batchConcurrency;
+
+    public TranslationExecutorConfiguration() {
+        this(null, null, null, null);
+    }
+
+    @JsonCreator
+    public TranslationExecutorConfiguration(
+            @JsonProperty("threads") @Min(1) Integer threads,
+            @JsonProperty("queueSize") @Min(1) Integer queueSize,
+            @JsonProperty("timeout") Duration timeout,
+            @JsonProperty("batchConcurrency") @Min(1) Integer batchConcurrency
+    ) {
+        this.threads = ofNullable(threads).orElse(Runtime.getRuntime().availableProcessors());
+        this.queueSize = ofNullable(queueSize).orElse(DEFAULT_QUEUE_SIZE);
+        this.timeout = ofNullable(timeout).orElse(DEFAULT_TIMEOUT);
+        this.batchConcurrency = ofNullable(batchConcurrency).orElse(Math.max(1, this.threads / 2));
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public int getQueueSize() {
+        return queueSize;
+    }
+
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    public int getBatchConcurrency() {
+        return batchConcurrency;
+    }
+}
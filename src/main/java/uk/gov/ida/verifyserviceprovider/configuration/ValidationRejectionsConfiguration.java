@@ -0,0 +1,24 @@
+package uk.gov.ida.verifyserviceprovider.configuration;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import static java.util.Optional.ofNullable;
+
+public class ValidationRejectionsConfiguration {
+
+    private final boolean stackless;
+
+    public ValidationRejectionsConfiguration() {
+        this(null);
+    }
+
+    @JsonCreator
+    public ValidationRejectionsConfiguration(@JsonProperty("stackless") Boolean stackless) {
+        this.stackless = ofNullable(stackless).orElse(false);
+    }
+
+    public boolean isStackless() {
+        return stackless;
+    }
+}
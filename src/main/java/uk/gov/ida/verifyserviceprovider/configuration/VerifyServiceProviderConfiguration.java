@@ -14,6 +14,8 @@ import java.security.PrivateKey;
 import java.util.List;
 import java.util.Optional;
 
+import static java.util.Optional.ofNullable;
+
 public class VerifyServiceProviderConfiguration extends Configuration {
 
     private static final String NOT_EMPTY_MESSAGE = "may not be empty";
@@ -26,6 +28,13 @@ public class VerifyServiceProviderConfiguration extends Configuration {
     private PrivateKey samlSecondaryEncryptionKey;
     private Optional<MsaMetadataConfiguration> msaMetadata;
     private Duration clockSkew;
+    private AuthnRequestPoolConfiguration authnRequestPool;
+    private TranslationExecutorConfiguration translationExecutor;
+    private CryptoWorkersConfiguration cryptoWorkers;
+    private RequestLimitsConfiguration requestLimits;
+    private TranslationCacheConfiguration translationCache;
+    private ReplayCacheConfiguration replayCache;
+    private ValidationRejectionsConfiguration validationRejections;
 
     protected VerifyServiceProviderConfiguration() {
     }
@@ -38,7 +47,14 @@ public class VerifyServiceProviderConfiguration extends Configuration {
             @JsonProperty("samlPrimaryEncryptionKey") @NotNull @Valid @JsonDeserialize(using = PrivateKeyDeserializer.class) PrivateKey samlPrimaryEncryptionKey,
             @JsonProperty("samlSecondaryEncryptionKey") @Valid @JsonDeserialize(using = PrivateKeyDeserializer.class) PrivateKey samlSecondaryEncryptionKey,
             @JsonProperty("msaMetadata") @NotNull Optional<@NotNull @Valid MsaMetadataConfiguration> msaMetadata,
-            @JsonProperty("clockSkew") @NotNull @Valid Duration clockSkew) {
+            @JsonProperty("clockSkew") @NotNull @Valid Duration clockSkew,
+            @JsonProperty("authnRequestPool") @Valid AuthnRequestPoolConfiguration authnRequestPool,
+            @JsonProperty("translationExecutor") @Valid TranslationExecutorConfiguration translationExecutor,
+            @JsonProperty("cryptoWorkers") @Valid CryptoWorkersConfiguration cryptoWorkers,
+            @JsonProperty("requestLimits") @Valid RequestLimitsConfiguration requestLimits,
+            @JsonProperty("translationCache") @Valid TranslationCacheConfiguration translationCache,
+            @JsonProperty("replayCache") @Valid ReplayCacheConfiguration replayCache,
+            @JsonProperty("validationRejections") @Valid ValidationRejectionsConfiguration validationRejections) {
         this.serviceEntityIds = serviceEntityIds;
         this.hashingEntityId = hashingEntityId;
         this.verifyHubConfiguration = verifyHubConfiguration;
@@ -47,6 +63,13 @@ public class VerifyServiceProviderConfiguration extends Configuration {
         this.samlSecondaryEncryptionKey = samlSecondaryEncryptionKey;
         this.msaMetadata = msaMetadata;
         this.clockSkew = clockSkew;
+        this.authnRequestPool = ofNullable(authnRequestPool).orElseGet(AuthnRequestPoolConfiguration::new);
+        this.translationExecutor = ofNullable(translationExecutor).orElseGet(TranslationExecutorConfiguration::new);
+        this.cryptoWorkers = ofNullable(cryptoWorkers).orElseGet(CryptoWorkersConfiguration::new);
+        this.requestLimits = ofNullable(requestLimits).orElseGet(RequestLimitsConfiguration::new);
+        this.translationCache = ofNullable(translationCache).orElseGet(TranslationCacheConfiguration::new);
+        this.replayCache = ofNullable(replayCache).orElseGet(ReplayCacheConfiguration::new);
+        this.validationRejections = ofNullable(validationRejections).orElseGet(ValidationRejectionsConfiguration::new);
     }
 
     public List<String> getServiceEntityIds() {
@@ -92,4 +115,32 @@ public class VerifyServiceProviderConfiguration extends Configuration {
     public Duration getClockSkew() {
         return clockSkew;
     }
+
+    public AuthnRequestPoolConfiguration getAuthnRequestPool() {
+        return authnRequestPool;
+    }
+
+    public TranslationExecutorConfiguration getTranslationExecutor() {
+        return translationExecutor;
+    }
+
+    public CryptoWorkersConfiguration getCryptoWorkers() {
+        return cryptoWorkers;
+    }
+
+    public RequestLimitsConfiguration getRequestLimits() {
+        return requestLimits;
+    }
+
+    public TranslationCacheConfiguration getTranslationCache() {
+        return translationCache;
+    }
+
+    public ReplayCacheConfiguration getReplayCache() {
+        return replayCache;
+    }
+
+    public ValidationRejectionsConfiguration getValidationRejections() {
+        return validationRejections;
+    }
 }
@@ -3,6 +3,7 @@ package uk.gov.ida.verifyserviceprovider.dto;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import org.apache.commons.collections.CollectionUtils;
 
 import java.time.LocalDate;
@@ -11,6 +12,7 @@ import java.util.List;
 import static com.fasterxml.jackson.annotation.JsonInclude.Include;
 
 @JsonInclude(Include.NON_NULL)
+@JsonSerialize(using = AttributesSerializer.class)
 public class Attributes {
 
     private final VerifiableAttribute<String> firstName;
@@ -0,0 +1,118 @@
+package uk.gov.ida.verifyserviceprovider.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Writes Attributes with the same fields, in the same order, as Jackson's bean serialiser would, without
+ * introspecting the class for every response. Dates are still handed to the provider so that they're written
+ * in whatever format the ObjectMapper is configured for.
+ */
+public class AttributesSerializer extends StdSerializer<Attributes> {
+
+    public AttributesSerializer() {
+        super(Attributes.class);
+    }
+
+    @Override
+    public void serialize(Attributes attributes, JsonGenerator generator, SerializerProvider provider) throws IOException {
+        generator.writeStartObject();
+        writeVerifiableString(generator, "firstName", attributes.getFirstName());
+        writeVerifiableString(generator, "middleName", attributes.getMiddleName());
+        writeVerifiableString(generator, "surname", attributes.getSurname());
+        writeVerifiableDate(generator, provider, "dateOfBirth", attributes.getDateOfBirth());
+        writeVerifiableAddress(generator, provider, "address", attributes.getAddress());
+        writeAddressHistory(generator, provider, attributes.getAddressHistory());
+        if (attributes.getCycle3() != null) {
+            generator.writeStringField("cycle3", attributes.getCycle3());
+        }
+        generator.writeEndObject();
+    }
+
+    private static void writeVerifiableString(JsonGenerator generator, String fieldName, VerifiableAttribute<String> attribute) throws IOException {
+        if (attribute == null) {
+            return;
+        }
+        generator.writeObjectFieldStart(fieldName);
+        generator.writeStringField("value", attribute.getValue());
+        generator.writeBooleanField("verified", attribute.isVerified());
+        generator.writeEndObject();
+    }
+
+    private static void writeVerifiableDate(JsonGenerator generator, SerializerProvider provider, String fieldName, VerifiableAttribute<LocalDate> attribute) throws IOException {
+        if (attribute == null) {
+            return;
+        }
+        generator.writeObjectFieldStart(fieldName);
+        generator.writeFieldName("value");
+        provider.defaultSerializeValue(attribute.getValue(), generator);
+        generator.writeBooleanField("verified", attribute.isVerified());
+        generator.writeEndObject();
+    }
+
+    private static void writeVerifiableAddress(JsonGenerator generator, SerializerProvider provider, String fieldName, VerifiableAttribute<Address> attribute) throws IOException {
+        if (attribute == null) {
+            return;
+        }
+        generator.writeFieldName(fieldName);
+        writeVerifiableAddress(generator, provider, attribute);
+    }
+
+    private static void writeAddressHistory(JsonGenerator generator, SerializerProvider provider, List<VerifiableAttribute<Address>> addressHistory) throws IOException {
+        if (addressHistory == null) {
+            return;
+        }
+        generator.writeArrayFieldStart("addressHistory");
+        for (VerifiableAttribute<Address> address : addressHistory) {
+            if (address == null) {
+                generator.writeNull();
+            } else {
+                writeVerifiableAddress(generator, provider, address);
+            }
+        }
+        generator.writeEndArray();
+    }
+
+    private static void writeVerifiableAddress(JsonGenerator generator, SerializerProvider provider, VerifiableAttribute<Address> attribute) throws IOException {
+        generator.writeStartObject();
+        generator.writeFieldName("value");
+        writeAddress(generator, provider, attribute.getValue());
+        generator.writeBooleanField("verified", attribute.isVerified());
+        generator.writeEndObject();
+    }
+
+    private static void writeAddress(JsonGenerator generator, SerializerProvider provider, Address address) throws IOException {
+        if (address == null) {
+            generator.writeNull();
+            return;
+        }
+        generator.writeStartObject();
+        generator.writeFieldName("lines");
+        writeLines(generator, address.getLines());
+        generator.writeStringField("postCode", address.getPostCode());
+        generator.writeStringField("internationalPostCode", address.getInternationalPostCode());
+        generator.writeStringField("uprn", address.getUprn());
+        generator.writeFieldName("fromDate");
+        provider.defaultSerializeValue(address.getFromDate(), generator);
+        generator.writeFieldName("toDate");
+        provider.defaultSerializeValue(address.getToDate(), generator);
+        generator.writeEndObject();
+    }
+
+    private static void writeLines(JsonGenerator generator, List<String> lines) throws IOException {
+        if (lines == null) {
+            generator.writeNull();
+            return;
+        }
+        generator.writeStartArray();
+        for (String line : lines) {
+            generator.writeString(line);
+        }
+        generator.writeEndArray();
+    }
+}
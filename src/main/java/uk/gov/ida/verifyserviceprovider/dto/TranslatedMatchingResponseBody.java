@@ -2,9 +2,11 @@ package uk.gov.ida.verifyserviceprovider.dto;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 
 import java.util.Optional;
 
+@JsonSerialize(using = TranslatedMatchingResponseBodySerializer.class)
 public class TranslatedMatchingResponseBody implements TranslatedResponseBody {
 
     private final MatchingScenario scenario;
@@ -0,0 +1,44 @@
+package uk.gov.ida.verifyserviceprovider.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+
+/**
+ * Streams a TranslatedMatchingResponseBody straight to the generator, writing the same JSON as Jackson's bean
+ * serialiser did, including a null for anything that's missing.
+ */
+public class TranslatedMatchingResponseBodySerializer extends StdSerializer<TranslatedMatchingResponseBody> {
+
+    private final AttributesSerializer attributesSerializer = new AttributesSerializer();
+
+    public TranslatedMatchingResponseBodySerializer() {
+        super(TranslatedMatchingResponseBody.class);
+    }
+
+    @Override
+    public void serialize(TranslatedMatchingResponseBody body, JsonGenerator generator, SerializerProvider provider) throws IOException {
+        generator.writeStartObject();
+        writeEnumField(generator, "scenario", body.getScenario());
+        generator.writeStringField("pid", body.getPid());
+        writeEnumField(generator, "levelOfAssurance", body.getLevelOfAssurance());
+        generator.writeFieldName("attributes");
+        Attributes attributes = body.getAttributes().orElse(null);
+        if (attributes == null) {
+            generator.writeNull();
+        } else {
+            attributesSerializer.serialize(attributes, generator, provider);
+        }
+        generator.writeEndObject();
+    }
+
+    static void writeEnumField(JsonGenerator generator, String fieldName, Enum<?> value) throws IOException {
+        if (value == null) {
+            generator.writeNullField(fieldName);
+        } else {
+            generator.writeStringField(fieldName, value.name());
+        }
+    }
+}
@@ -3,10 +3,12 @@ package uk.gov.ida.verifyserviceprovider.dto;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import uk.gov.ida.saml.core.domain.NonMatchingAttributes;
 
 import java.util.Objects;
 
+@JsonSerialize(using = TranslatedNonMatchingResponseBodySerializer.class)
 public class TranslatedNonMatchingResponseBody implements TranslatedResponseBody {
 
     @JsonProperty("scenario")
@@ -0,0 +1,39 @@
+package uk.gov.ida.verifyserviceprovider.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+
+import static uk.gov.ida.verifyserviceprovider.dto.TranslatedMatchingResponseBodySerializer.writeEnumField;
+
+/**
+ * Streams a TranslatedNonMatchingResponseBody straight to the generator, leaving out the pid, level of assurance
+ * and attributes when they're null, as Jackson's bean serialiser did.
+ *
+ * The attributes are a NonMatchingAttributes from saml-lib, whose shape is owned by that library, so they are
+ * still written by the serialiser Jackson has cached for them.
+ */
+public class TranslatedNonMatchingResponseBodySerializer extends StdSerializer<TranslatedNonMatchingResponseBody> {
+
+    public TranslatedNonMatchingResponseBodySerializer() {
+        super(TranslatedNonMatchingResponseBody.class);
+    }
+
+    @Override
+    public void serialize(TranslatedNonMatchingResponseBody body, JsonGenerator generator, SerializerProvider provider) throws IOException {
+        generator.writeStartObject();
+        writeEnumField(generator, "scenario", (NonMatchingScenario) body.getScenario());
+        if (body.getPid() != null) {
+            generator.writeStringField("pid", body.getPid());
+        }
+        if (body.getLevelOfAssurance() != null) {
+            writeEnumField(generator, "levelOfAssurance", body.getLevelOfAssurance());
+        }
+        if (body.getAttributes() != null) {
+            provider.defaultSerializeField("attributes", body.getAttributes(), generator);
+        }
+        generator.writeEndObject();
+    }
+}
@@ -0,0 +1,43 @@
+package uk.gov.ida.verifyserviceprovider.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.dropwizard.jersey.errors.ErrorMessage;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TranslationResult {
+    private final String requestId;
+    private final int status;
+    private final TranslatedResponseBody response;
+    private final ErrorMessage error;
+
+    private TranslationResult(String requestId, int status, TranslatedResponseBody response, ErrorMessage error) {
+        this.requestId = requestId;
+        this.status = status;
+        this.response = response;
+        this.error = error;
+    }
+
+    public static TranslationResult success(String requestId, TranslatedResponseBody response) {
+        return new TranslationResult(requestId, 200, response, null);
+    }
+
+    public static TranslationResult error(String requestId, int status, String message) {
+        return new TranslationResult(requestId, status, null, new ErrorMessage(status, message));
+    }
+
+    public String getRequestId() {
+        return requestId;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public TranslatedResponseBody getResponse() {
+        return response;
+    }
+
+    public ErrorMessage getError() {
+        return error;
+    }
+}
@@ -1,31 +1,62 @@
 package uk.gov.ida.verifyserviceprovider.factories;
 
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.dropwizard.lifecycle.ExecutorServiceManager;
+import io.dropwizard.setup.Environment;
+import io.dropwizard.util.Duration;
 import org.opensaml.saml.saml2.metadata.SPSSODescriptor;
 import org.opensaml.saml.security.impl.MetadataCredentialResolver;
 import org.opensaml.security.crypto.KeySupport;
 import org.opensaml.xmlsec.signature.support.impl.ExplicitKeySignatureTrustEngine;
 import uk.gov.ida.saml.metadata.bundle.MetadataResolverBundle;
+import uk.gov.ida.saml.security.EncryptionCredentialResolver;
 import uk.gov.ida.saml.security.IdaKeyStore;
 import uk.gov.ida.saml.security.MetadataBackedEncryptionCredentialResolver;
-import uk.gov.ida.saml.security.SamlAssertionsSignatureValidator;
 import uk.gov.ida.shared.utils.manifest.ManifestReader;
+import uk.gov.ida.verifyserviceprovider.configuration.AuthnRequestPoolConfiguration;
+import uk.gov.ida.verifyserviceprovider.configuration.CryptoWorkersConfiguration;
+import uk.gov.ida.verifyserviceprovider.configuration.RequestLimitsConfiguration;
+import uk.gov.ida.verifyserviceprovider.configuration.TranslationCacheConfiguration;
+import uk.gov.ida.verifyserviceprovider.configuration.TranslationExecutorConfiguration;
 import uk.gov.ida.verifyserviceprovider.configuration.VerifyServiceProviderConfiguration;
 import uk.gov.ida.verifyserviceprovider.factories.saml.AuthnRequestFactory;
+import uk.gov.ida.verifyserviceprovider.factories.saml.AuthnRequestPool;
+import uk.gov.ida.verifyserviceprovider.factories.saml.AuthnRequestProvider;
 import uk.gov.ida.verifyserviceprovider.factories.saml.ResponseFactory;
 import uk.gov.ida.verifyserviceprovider.factories.saml.SignatureValidatorFactory;
+import uk.gov.ida.verifyserviceprovider.filters.RequestSizeLimitFeature;
+import uk.gov.ida.verifyserviceprovider.metrics.TranslationExecutorGauges;
 import uk.gov.ida.verifyserviceprovider.resources.GenerateAuthnRequestResource;
 import uk.gov.ida.verifyserviceprovider.resources.TranslateSamlResponseResource;
+import uk.gov.ida.verifyserviceprovider.resources.TranslateSamlResponsesResource;
 import uk.gov.ida.verifyserviceprovider.resources.VersionNumberResource;
+import uk.gov.ida.verifyserviceprovider.security.CachingEncryptionCredentialResolver;
+import uk.gov.ida.verifyserviceprovider.security.IndexedSignatureTrustEngine;
+import uk.gov.ida.verifyserviceprovider.security.MetadataCacheExpiry;
+import uk.gov.ida.verifyserviceprovider.services.EncryptedTranslationCache;
 import uk.gov.ida.verifyserviceprovider.services.EntityIdService;
+import uk.gov.ida.verifyserviceprovider.services.ReplayCache;
 import uk.gov.ida.verifyserviceprovider.services.ResponseService;
+import uk.gov.ida.verifyserviceprovider.services.TimeBucketedReplayCache;
+import uk.gov.ida.verifyserviceprovider.services.TranslationCache;
 import uk.gov.ida.verifyserviceprovider.services.VerifyAssertionTranslator;
 import uk.gov.ida.verifyserviceprovider.utils.DateTimeComparator;
+import uk.gov.ida.verifyserviceprovider.utils.RunOnCallerPolicy;
+import uk.gov.ida.verifyserviceprovider.utils.TranslationClock;
+import uk.gov.ida.verifyserviceprovider.validators.ResponseStructureValidator;
+import uk.gov.ida.verifyserviceprovider.validators.SamlValidationRejections;
 
 import javax.ws.rs.client.Client;
 import java.security.KeyException;
 import java.security.KeyPair;
 import java.security.PrivateKey;
 import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import static java.util.Arrays.asList;
 import static java.util.Collections.singletonList;
@@ -35,34 +66,94 @@ public class VerifyServiceProviderFactory {
     private final VerifyServiceProviderConfiguration configuration;
     private final ResponseFactory responseFactory;
 
+    private final TranslationClock clock;
     private final DateTimeComparator dateTimeComparator;
     private final EntityIdService entityIdService;
     private final MetadataResolverBundle<VerifyServiceProviderConfiguration> verifyMetadataBundler;
     private final MetadataResolverBundle<VerifyServiceProviderConfiguration> msaMetadataBundle;
     private final ManifestReader manifestReader;
     private final Client client;
+    private final Environment environment;
+    private ResponseService responseService;
+    private ExecutorService translationExecutorService;
+    private ExecutorService cryptoWorkersExecutorService;
+    private ExplicitKeySignatureTrustEngine hubSignatureTrustEngine;
+    private ExplicitKeySignatureTrustEngine msaSignatureTrustEngine;
     private final IdaKeyStore keyStore;
-    private final SamlAssertionsSignatureValidator hubSignatureValidator;
 
     public VerifyServiceProviderFactory(
             VerifyServiceProviderConfiguration configuration,
             MetadataResolverBundle<VerifyServiceProviderConfiguration> verifyMetadataBundler,
             MetadataResolverBundle<VerifyServiceProviderConfiguration> msaMetadataBundle,
-            Client client) throws KeyException {
+            Client client,
+            Environment environment) throws KeyException {
+        this(configuration, verifyMetadataBundler, msaMetadataBundle, client, environment, TranslationClock.systemUTC());
+    }
+
+    /**
+     * @param clock the clock that responses are validated against and that replayed IDs are expired by
+     */
+    public VerifyServiceProviderFactory(
+            VerifyServiceProviderConfiguration configuration,
+            MetadataResolverBundle<VerifyServiceProviderConfiguration> verifyMetadataBundler,
+            MetadataResolverBundle<VerifyServiceProviderConfiguration> msaMetadataBundle,
+            Client client,
+            Environment environment,
+            TranslationClock clock) throws KeyException {
         this.configuration = configuration;
         List<KeyPair> decryptionKeyPairs = getDecryptionKeyPairs(
                 configuration.getSamlPrimaryEncryptionKey(),
                 configuration.getSamlSecondaryEncryptionKey()
         );
         this.keyStore = new IdaKeyStore(null, decryptionKeyPairs);
-        this.responseFactory = new ResponseFactory(decryptionKeyPairs);
-        this.dateTimeComparator = new DateTimeComparator(configuration.getClockSkew());
+        this.clock = clock;
+        this.dateTimeComparator = new DateTimeComparator(configuration.getClockSkew(), clock);
         this.entityIdService = new EntityIdService(configuration.getServiceEntityIds());
         this.verifyMetadataBundler = verifyMetadataBundler;
         this.msaMetadataBundle = msaMetadataBundle;
         this.manifestReader = new ManifestReader();
         this.client = client;
-        this.hubSignatureValidator = new SignatureValidatorFactory().getSignatureValidator(getHubSignatureTrustEngine());
+        this.environment = environment;
+        SamlValidationRejections validationRejections = SamlValidationRejections.stackless(configuration.getValidationRejections().isStackless());
+        this.responseFactory = ResponseFactory.builder(decryptionKeyPairs)
+                .withMetricRegistry(environment.metrics())
+                .withDecryptionExecutor(getDecryptionExecutor())
+                .withMaxSamlResponseLength(configuration.getRequestLimits().getMaxSamlResponseLength())
+                .withResponseStructureValidator(createResponseStructureValidator(validationRejections))
+                .withValidationRejections(validationRejections)
+                .withTranslationCache(createTranslationCache())
+                .withReplayCache(createReplayCache())
+                .build();
+    }
+
+    private ResponseStructureValidator createResponseStructureValidator(SamlValidationRejections validationRejections) {
+        RequestLimitsConfiguration requestLimits = configuration.getRequestLimits();
+        return new ResponseStructureValidator(
+                requestLimits.getMaxResponseElements(),
+                requestLimits.getMaxResponseDepth(),
+                requestLimits.getMaxAttributesPerElement(),
+                requestLimits.getMaxEncryptedAssertions(),
+                validationRejections
+        );
+    }
+
+    private TranslationCache createTranslationCache() {
+        TranslationCacheConfiguration cacheConfiguration = configuration.getTranslationCache();
+        if (!cacheConfiguration.isEnabled()) {
+            return TranslationCache.NONE;
+        }
+        return new EncryptedTranslationCache(
+                cacheConfiguration.getMaxEntries(),
+                cacheConfiguration.getTimeToLive(),
+                environment.getObjectMapper(),
+                environment.metrics());
+    }
+
+    private ReplayCache createReplayCache() {
+        if (!configuration.getReplayCache().isEnabled()) {
+            return ReplayCache.NONE;
+        }
+        return new TimeBucketedReplayCache(configuration.getClockSkew(), clock, environment.metrics());
     }
 
     private List<KeyPair> getDecryptionKeyPairs(PrivateKey primary, PrivateKey secondary) throws KeyException {
@@ -79,7 +170,12 @@ public class VerifyServiceProviderFactory {
 
     public GenerateAuthnRequestResource getGenerateAuthnRequestResource() throws Exception {
         MetadataCredentialResolver metadataCredentialResolver = getHubMetadataCredentialResolver();
-        MetadataBackedEncryptionCredentialResolver encryptionCredentialResolver = new MetadataBackedEncryptionCredentialResolver(metadataCredentialResolver, SPSSODescriptor.DEFAULT_ELEMENT_NAME);
+        EncryptionCredentialResolver encryptionCredentialResolver = new CachingEncryptionCredentialResolver(
+                new MetadataBackedEncryptionCredentialResolver(metadataCredentialResolver, SPSSODescriptor.DEFAULT_ELEMENT_NAME),
+                verifyMetadataBundler.getMetadataResolver(),
+                MetadataCacheExpiry.DEFAULT_TIME_TO_LIVE,
+                clock
+        );
         EncrypterFactory encrypterFactory = new EncrypterFactory(encryptionCredentialResolver, configuration.getVerifyHubMetadata().getExpectedEntityId());
 
         PrivateKey signingKey = configuration.getSamlSigningKey();
@@ -91,43 +187,139 @@ public class VerifyServiceProviderFactory {
         );
 
         return new GenerateAuthnRequestResource(
-            authnRequestFactory,
+            getAuthnRequestProvider(authnRequestFactory),
             configuration.getHubSsoLocation(),
             entityIdService
         );
     }
 
+    private AuthnRequestProvider getAuthnRequestProvider(AuthnRequestFactory authnRequestFactory) {
+        AuthnRequestPoolConfiguration poolConfiguration = configuration.getAuthnRequestPool();
+        if (!poolConfiguration.isEnabled()) {
+            return authnRequestFactory;
+        }
+
+        AuthnRequestPool authnRequestPool = new AuthnRequestPool(
+                authnRequestFactory,
+                configuration.getServiceEntityIds(),
+                poolConfiguration.getSize(),
+                poolConfiguration.getMaxAge(),
+                poolConfiguration.getRefillInterval(),
+                environment.lifecycle().scheduledExecutorService("authn-request-pool-%d").build(),
+                clock,
+                environment.metrics()
+        );
+        environment.lifecycle().manage(authnRequestPool);
+        return authnRequestPool;
+    }
+
     public TranslateSamlResponseResource getTranslateSamlResponseResource() {
-        if (configuration.getMsaMetadata().isPresent()) {
-            return getTranslateMatchingSamlResponseResource();
-        } else {
-            return getTranslateNonMatchingSamlResponseResource();
+        return new TranslateSamlResponseResource(
+                getResponseService(),
+                entityIdService,
+                getTranslationExecutorService(),
+                configuration.getTranslationExecutor().getTimeout()
+        );
+    }
+
+    public TranslateSamlResponsesResource getTranslateSamlResponsesResource() {
+        return new TranslateSamlResponsesResource(
+                getResponseService(),
+                entityIdService,
+                getTranslationExecutorService(),
+                configuration.getTranslationExecutor().getBatchConcurrency()
+        );
+    }
+
+    private ResponseService getResponseService() {
+        if (responseService == null) {
+            if (configuration.getMsaMetadata().isPresent()) {
+                responseService = createMatchingResponseService();
+            } else {
+                responseService = createNonMatchingResponseService();
+            }
         }
+        return responseService;
     }
 
-    private TranslateSamlResponseResource getTranslateMatchingSamlResponseResource() {
-        ResponseService matchingResponseService = responseFactory.createMatchingResponseService(
+    private ResponseService createMatchingResponseService() {
+        return responseFactory.createMatchingResponseService(
                 getHubSignatureTrustEngine(),
                 responseFactory.createMsaAssertionTranslator(getMsaSignatureTrustEngine(), new SignatureValidatorFactory(), dateTimeComparator),
                 dateTimeComparator
         );
-        return new TranslateSamlResponseResource(matchingResponseService, entityIdService);
     }
 
-    private TranslateSamlResponseResource getTranslateNonMatchingSamlResponseResource() {
+    private ResponseService createNonMatchingResponseService() {
         VerifyAssertionTranslator assertionTranslator = responseFactory.createVerifyIdpAssertionTranslator(
-                hubSignatureValidator,
+                getHubSignatureTrustEngine(),
+                new SignatureValidatorFactory(),
                 dateTimeComparator,
-                configuration.getHashingEntityId()
+                configuration.getHashingEntityId(),
+                getAssertionValidationExecutor()
         );
 
-        return new TranslateSamlResponseResource(
-                responseFactory.createNonMatchingResponseService(
-                        getHubSignatureTrustEngine(),
-                        assertionTranslator,
-                        dateTimeComparator
-                ),
-                entityIdService);
+        return responseFactory.createNonMatchingResponseService(
+                getHubSignatureTrustEngine(),
+                assertionTranslator,
+                dateTimeComparator
+        );
+    }
+
+    private ExecutorService getTranslationExecutorService() {
+        if (translationExecutorService == null) {
+            TranslationExecutorConfiguration executorConfiguration = configuration.getTranslationExecutor();
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                    executorConfiguration.getThreads(),
+                    executorConfiguration.getThreads(),
+                    0L,
+                    TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(executorConfiguration.getQueueSize()),
+                    new ThreadFactoryBuilder().setNameFormat("translate-response-%d").build(),
+                    new ThreadPoolExecutor.AbortPolicy()
+            );
+            environment.lifecycle().manage(new ExecutorServiceManager(executor, Duration.seconds(5), "translate-response"));
+            TranslationExecutorGauges.register(environment.metrics(), executor);
+            translationExecutorService = executor;
+        }
+        return translationExecutorService;
+    }
+
+    private Executor getDecryptionExecutor() {
+        if (configuration.getCryptoWorkers().isParallelDecryption()) {
+            return getCryptoWorkersExecutorService();
+        }
+        return null;
+    }
+
+    private Executor getAssertionValidationExecutor() {
+        if (configuration.getCryptoWorkers().isParallelAssertionSignatureValidation()) {
+            return getCryptoWorkersExecutorService();
+        }
+        return MoreExecutors.directExecutor();
+    }
+
+    private ExecutorService getCryptoWorkersExecutorService() {
+        if (cryptoWorkersExecutorService == null) {
+            CryptoWorkersConfiguration cryptoWorkersConfiguration = configuration.getCryptoWorkers();
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                    cryptoWorkersConfiguration.getThreads(),
+                    cryptoWorkersConfiguration.getThreads(),
+                    0L,
+                    TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(cryptoWorkersConfiguration.getQueueSize()),
+                    new ThreadFactoryBuilder().setNameFormat("crypto-worker-%d").build(),
+                    new RunOnCallerPolicy()
+            );
+            environment.lifecycle().manage(new ExecutorServiceManager(executor, Duration.seconds(5), "crypto-worker"));
+            cryptoWorkersExecutorService = executor;
+        }
+        return cryptoWorkersExecutorService;
+    }
+
+    public RequestSizeLimitFeature getRequestSizeLimitFeature() {
+        RequestLimitsConfiguration requestLimits = configuration.getRequestLimits();
+        return new RequestSizeLimitFeature(requestLimits.getMaxRequestBodySize(), requestLimits.getMaxBatchRequestBodySize());
     }
 
     public VersionNumberResource getVersionNumberResource() {
@@ -135,7 +327,15 @@ public class VerifyServiceProviderFactory {
     }
 
     private ExplicitKeySignatureTrustEngine getHubSignatureTrustEngine() {
-        return verifyMetadataBundler.getSignatureTrustEngine();
+        if (hubSignatureTrustEngine == null) {
+            hubSignatureTrustEngine = new IndexedSignatureTrustEngine(
+                    verifyMetadataBundler.getSignatureTrustEngine(),
+                    verifyMetadataBundler.getMetadataResolver(),
+                    MetadataCacheExpiry.DEFAULT_TIME_TO_LIVE,
+                    clock
+            );
+        }
+        return hubSignatureTrustEngine;
     }
 
     private MetadataCredentialResolver getHubMetadataCredentialResolver() {
@@ -143,7 +343,15 @@ public class VerifyServiceProviderFactory {
     }
 
     private ExplicitKeySignatureTrustEngine getMsaSignatureTrustEngine() {
-        return msaMetadataBundle.getSignatureTrustEngine();
+        if (msaSignatureTrustEngine == null) {
+            msaSignatureTrustEngine = new IndexedSignatureTrustEngine(
+                    msaMetadataBundle.getSignatureTrustEngine(),
+                    msaMetadataBundle.getMetadataResolver(),
+                    MetadataCacheExpiry.DEFAULT_TIME_TO_LIVE,
+                    clock
+            );
+        }
+        return msaSignatureTrustEngine;
     }
 
 }
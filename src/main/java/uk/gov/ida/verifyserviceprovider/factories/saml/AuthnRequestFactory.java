@@ -1,5 +1,6 @@
 package uk.gov.ida.verifyserviceprovider.factories.saml;
 
+import com.google.common.base.Suppliers;
 import org.joda.time.DateTime;
 import org.opensaml.core.xml.config.XMLObjectProviderRegistrySupport;
 import org.opensaml.core.xml.io.MarshallingException;
@@ -16,7 +17,6 @@ import org.opensaml.saml.saml2.core.impl.IssuerBuilder;
 import org.opensaml.xmlsec.algorithm.descriptors.DigestSHA256;
 import org.opensaml.xmlsec.algorithm.descriptors.SignatureRSASHA256;
 import org.opensaml.xmlsec.encryption.support.EncryptionException;
-import org.opensaml.xmlsec.signature.Signature;
 import org.opensaml.xmlsec.signature.support.SignatureException;
 import org.opensaml.xmlsec.signature.support.Signer;
 import org.slf4j.Logger;
@@ -37,15 +37,17 @@ import java.net.URI;
 import java.security.KeyPair;
 import java.util.Collections;
 import java.util.UUID;
+import java.util.function.Supplier;
 
-public class AuthnRequestFactory {
+public class AuthnRequestFactory implements AuthnRequestProvider {
 
     private static final Logger LOG = LoggerFactory.getLogger(AuthnRequestFactory.class);
 
     private final URI destination;
     private final ManifestReader manifestReader;
     private final EncrypterFactory encrypterFactory;
-    private KeyPair signingKeyPair;
+    private final SignatureFactory signatureFactory;
+    private final Supplier<String> applicationManifestVersion;
 
     public AuthnRequestFactory(
             URI destination,
@@ -56,9 +58,11 @@ public class AuthnRequestFactory {
         this.destination = destination;
         this.manifestReader = manifestReader;
         this.encrypterFactory = encrypterFactory;
-        this.signingKeyPair = signingKeyPair;
+        this.signatureFactory = createSignatureFactory(signingKeyPair);
+        this.applicationManifestVersion = Suppliers.memoize(this::readApplicationManifestVersion);
     }
 
+    @Override
     public AuthnRequest build(String serviceEntityId) {
         AuthnRequest authnRequest = new AuthnRequestBuilder().buildObject();
         authnRequest.setID(String.format("_%s", UUID.randomUUID()));
@@ -71,7 +75,7 @@ public class AuthnRequestFactory {
         issuer.setValue(serviceEntityId);
         authnRequest.setIssuer(issuer);
 
-        authnRequest.setSignature(createSignature());
+        authnRequest.setSignature(signatureFactory.createSignature());
 
         try {
             XMLObjectProviderRegistrySupport.getMarshallerFactory().getMarshaller(authnRequest).marshall(authnRequest);
@@ -102,27 +106,27 @@ public class AuthnRequestFactory {
 
     private Version createApplicationVersion() {
         ApplicationVersion applicationVersion = new ApplicationVersionImpl();
+        applicationVersion.setValue(applicationManifestVersion.get());
+        Version version = new VersionImpl() {{
+            setApplicationVersion(applicationVersion);
+        }};
+        return version;
+    }
 
-        String applicationManifestVersion = "UNKNOWN_VERSION";
+    private String readApplicationManifestVersion() {
         try {
-            applicationManifestVersion = manifestReader.getAttributeValueFor(VerifyServiceProviderApplication.class, "Version");
+            return manifestReader.getAttributeValueFor(VerifyServiceProviderApplication.class, "Version");
         } catch (IOException e) {
             LOG.warn("Failed to read version number from the manifest");
+            return "UNKNOWN_VERSION";
         }
-
-        applicationVersion.setValue(applicationManifestVersion);
-        Version version = new VersionImpl() {{
-            setApplicationVersion(applicationVersion);
-        }};
-        return version;
     }
 
-    private Signature createSignature() {
+    private static SignatureFactory createSignatureFactory(KeyPair signingKeyPair) {
         IdaKeyStore keyStore = new IdaKeyStore(signingKeyPair, Collections.emptyList());
         IdaKeyStoreCredentialRetriever keyStoreCredentialRetriever = new IdaKeyStoreCredentialRetriever(keyStore);
         SignatureRSASHA256 signatureAlgorithm = new SignatureRSASHA256();
         DigestSHA256 digestAlgorithm = new DigestSHA256();
-        SignatureFactory signatureFactory = new SignatureFactory(keyStoreCredentialRetriever, signatureAlgorithm, digestAlgorithm);
-        return signatureFactory.createSignature();
+        return new SignatureFactory(keyStoreCredentialRetriever, signatureAlgorithm, digestAlgorithm);
     }
 }
@@ -0,0 +1,117 @@
+package uk.gov.ida.verifyserviceprovider.factories.saml;
+
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import io.dropwizard.lifecycle.Managed;
+import org.joda.time.Duration;
+import org.opensaml.saml.saml2.core.AuthnRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import uk.gov.ida.verifyserviceprovider.utils.TranslationClock;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.function.Function.identity;
+import static java.util.stream.Collectors.toMap;
+
+/**
+ * Keeps a bounded queue of signed AuthnRequests for each service entity ID, refilled by a background task, so
+ * that signing happens off the request thread. Requests whose IssueInstant is older than the maximum age are
+ * discarded, and when a queue is empty a request is built on the calling thread instead.
+ *
+ * Until the pools have been filled once, failures to refill them are only logged at debug level, since hub metadata
+ * usually hasn't been fetched yet when the first refill runs.
+ */
+public class AuthnRequestPool implements AuthnRequestProvider, Managed {
+
+    private static final Logger LOG = LoggerFactory.getLogger(AuthnRequestPool.class);
+    private static final long STOP_TIMEOUT_SECONDS = 5;
+
+    private final AuthnRequestFactory authnRequestFactory;
+    private final Map<String, BlockingQueue<AuthnRequest>> pools;
+    private final Duration maxAge;
+    private final Duration refillInterval;
+    private final ScheduledExecutorService scheduledExecutorService;
+    private final TranslationClock clock;
+    private final Meter hits;
+    private final Meter misses;
+    private volatile boolean filled;
+
+    public AuthnRequestPool(
+            AuthnRequestFactory authnRequestFactory,
+            List<String> serviceEntityIds,
+            int size,
+            Duration maxAge,
+            Duration refillInterval,
+            ScheduledExecutorService scheduledExecutorService,
+            TranslationClock clock,
+            MetricRegistry metricRegistry
+    ) {
+        this.authnRequestFactory = authnRequestFactory;
+        this.pools = serviceEntityIds.stream().distinct().collect(toMap(identity(), entityId -> new ArrayBlockingQueue<>(size)));
+        this.maxAge = maxAge;
+        this.refillInterval = refillInterval;
+        this.scheduledExecutorService = scheduledExecutorService;
+        this.clock = clock;
+        this.hits = metricRegistry.meter(MetricRegistry.name(AuthnRequestPool.class, "hits"));
+        this.misses = metricRegistry.meter(MetricRegistry.name(AuthnRequestPool.class, "misses"));
+    }
+
+    @Override
+    public AuthnRequest build(String serviceEntityId) {
+        BlockingQueue<AuthnRequest> pool = pools.get(serviceEntityId);
+        if (pool != null) {
+            AuthnRequest authnRequest;
+            while ((authnRequest = pool.poll()) != null) {
+                if (isFresh(authnRequest)) {
+                    hits.mark();
+                    return authnRequest;
+                }
+            }
+        }
+        misses.mark();
+        return authnRequestFactory.build(serviceEntityId);
+    }
+
+    @Override
+    public void start() {
+        scheduledExecutorService.scheduleWithFixedDelay(this::refill, 0, refillInterval.getMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() throws InterruptedException {
+        scheduledExecutorService.shutdown();
+        if (!scheduledExecutorService.awaitTermination(STOP_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+            scheduledExecutorService.shutdownNow();
+        }
+        pools.values().forEach(BlockingQueue::clear);
+    }
+
+    public void refill() {
+        pools.forEach((serviceEntityId, pool) -> {
+            try {
+                pool.removeIf(authnRequest -> !isFresh(authnRequest));
+                while (pool.remainingCapacity() > 0) {
+                    pool.offer(authnRequestFactory.build(serviceEntityId));
+                }
+                filled = true;
+            } catch (RuntimeException e) {
+                String message = String.format("Failed to refill the AuthnRequest pool for entityId: %s", serviceEntityId);
+                if (filled) {
+                    LOG.warn(message, e);
+                } else {
+                    LOG.debug(message, e);
+                }
+            }
+        });
+    }
+
+    private boolean isFresh(AuthnRequest authnRequest) {
+        return authnRequest.getIssueInstant().getMillis() + maxAge.getMillis() > clock.nowMillis();
+    }
+}
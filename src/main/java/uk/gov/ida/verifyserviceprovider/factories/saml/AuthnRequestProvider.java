@@ -0,0 +1,7 @@
+package uk.gov.ida.verifyserviceprovider.factories.saml;
+
+import org.opensaml.saml.saml2.core.AuthnRequest;
+
+public interface AuthnRequestProvider {
+    AuthnRequest build(String serviceEntityId);
+}
@@ -1,5 +1,7 @@
 package uk.gov.ida.verifyserviceprovider.factories.saml;
 
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.util.concurrent.MoreExecutors;
 import org.opensaml.saml.saml2.core.Response;
 import org.opensaml.security.credential.Credential;
 import org.opensaml.xmlsec.signature.support.impl.ExplicitKeySignatureTrustEngine;
@@ -15,7 +17,6 @@ import uk.gov.ida.saml.deserializers.validators.Base64StringDecoder;
 import uk.gov.ida.saml.deserializers.validators.NotNullSamlStringValidator;
 import uk.gov.ida.saml.hub.factories.UserIdHashFactory;
 import uk.gov.ida.saml.security.AssertionDecrypter;
-import uk.gov.ida.saml.security.DecrypterFactory;
 import uk.gov.ida.saml.security.IdaKeyStore;
 import uk.gov.ida.saml.security.IdaKeyStoreCredentialRetriever;
 import uk.gov.ida.saml.security.MetadataBackedSignatureValidator;
@@ -23,49 +24,96 @@ import uk.gov.ida.saml.security.SamlAssertionsSignatureValidator;
 import uk.gov.ida.saml.security.SamlMessageSignatureValidator;
 import uk.gov.ida.saml.security.validators.encryptedelementtype.EncryptionAlgorithmValidator;
 import uk.gov.ida.saml.security.validators.signature.SamlResponseSignatureValidator;
+import uk.gov.ida.verifyserviceprovider.metrics.TranslationTimers;
+import uk.gov.ida.verifyserviceprovider.security.KeyInfoIndexedDecrypter;
+import uk.gov.ida.verifyserviceprovider.security.ParallelAssertionDecrypter;
 import uk.gov.ida.verifyserviceprovider.services.AssertionClassifier;
 import uk.gov.ida.verifyserviceprovider.services.AssertionTranslator;
 import uk.gov.ida.verifyserviceprovider.services.IdentityResponderCodeTranslator;
 import uk.gov.ida.verifyserviceprovider.services.MatchingAssertionTranslator;
 import uk.gov.ida.verifyserviceprovider.services.MatchingResponderCodeTranslator;
+import uk.gov.ida.verifyserviceprovider.services.ReplayCache;
 import uk.gov.ida.verifyserviceprovider.services.ResponseService;
+import uk.gov.ida.verifyserviceprovider.services.TranslationCache;
 import uk.gov.ida.verifyserviceprovider.services.VerifyAssertionTranslator;
 import uk.gov.ida.verifyserviceprovider.utils.DateTimeComparator;
 import uk.gov.ida.verifyserviceprovider.validators.AssertionValidator;
 import uk.gov.ida.verifyserviceprovider.validators.ConditionsValidator;
 import uk.gov.ida.verifyserviceprovider.validators.InstantValidator;
 import uk.gov.ida.verifyserviceprovider.validators.LevelOfAssuranceValidator;
+import uk.gov.ida.verifyserviceprovider.validators.ResponsePreValidator;
 import uk.gov.ida.verifyserviceprovider.validators.ResponseSizeValidator;
+import uk.gov.ida.verifyserviceprovider.validators.ResponseStructureValidator;
+import uk.gov.ida.verifyserviceprovider.validators.SamlValidationRejections;
 import uk.gov.ida.verifyserviceprovider.validators.SubjectValidator;
 import uk.gov.ida.verifyserviceprovider.validators.TimeRestrictionValidator;
 
 import java.security.KeyPair;
 import java.util.List;
+import java.util.concurrent.Executor;
 
 public class ResponseFactory {
 
     private static final NotNullSamlStringValidator notNullSamlStringValidator = new NotNullSamlStringValidator();
     private static final Base64StringDecoder base64StringDecoder = new Base64StringDecoder();
-    private static final ResponseSizeValidator responseSizeValidator = new ResponseSizeValidator();
     private static final SamlObjectParser samlObjectParser = new SamlObjectParser();
     private static final OpenSamlXMLObjectUnmarshaller<Response> responseOpenSamlXMLObjectUnmarshaller = new OpenSamlXMLObjectUnmarshaller<>(samlObjectParser);
     private static final EncryptionAlgorithmValidator encryptionAlgorithmValidator = new EncryptionAlgorithmValidator();
-    private static final DecrypterFactory decrypterFactory = new DecrypterFactory();
+    private static final ThreadLocalParserPool parserPool = new ThreadLocalParserPool();
 
     private final List<KeyPair> encryptionKeyPairs;
     private final IdaKeyStoreCredentialRetriever idaKeyStoreCredentialRetriever;
+    private final MetricRegistry metricRegistry;
+    private final Executor decryptionExecutor;
+    private final int maxSamlResponseLength;
+    private final ResponseStructureValidator responseStructureValidator;
+    private final TranslationCache translationCache;
+    private final ReplayCache replayCache;
+    private final SamlValidationRejections rejections;
+    private final TranslationTimers matchingTimers;
+    private final TranslationTimers nonMatchingTimers;
 
     public ResponseFactory(List<KeyPair> encryptionKeyPairs) {
-        this.encryptionKeyPairs = encryptionKeyPairs;
+        this(builder(encryptionKeyPairs));
+    }
+
+    private ResponseFactory(Builder builder) {
+        this.encryptionKeyPairs = builder.encryptionKeyPairs;
         this.idaKeyStoreCredentialRetriever = new IdaKeyStoreCredentialRetriever(createEncryptionKeyStore());
+        this.metricRegistry = builder.metricRegistry;
+        this.decryptionExecutor = builder.decryptionExecutor;
+        this.maxSamlResponseLength = builder.maxSamlResponseLength;
+        this.responseStructureValidator = builder.responseStructureValidator;
+        this.translationCache = builder.translationCache;
+        this.replayCache = builder.replayCache;
+        this.rejections = builder.rejections;
+        this.matchingTimers = new TranslationTimers(metricRegistry, TranslationTimers.MATCHING);
+        this.nonMatchingTimers = new TranslationTimers(metricRegistry, TranslationTimers.NON_MATCHING);
+    }
+
+    public static Builder builder(List<KeyPair> encryptionKeyPairs) {
+        return new Builder(encryptionKeyPairs);
     }
 
     public static StringToOpenSamlObjectTransformer<Response> createStringToResponseTransformer() {
-        return new StringToOpenSamlObjectTransformer<>(
+        return createStringToResponseTransformer(ResponseSizeValidator.DEFAULT_MAX_SAML_RESPONSE_LENGTH);
+    }
+
+    public static StringToOpenSamlObjectTransformer<Response> createStringToResponseTransformer(int maxSamlResponseLength) {
+        return createStringToResponseTransformer(maxSamlResponseLength, new ResponseStructureValidator());
+    }
+
+    public static StringToOpenSamlObjectTransformer<Response> createStringToResponseTransformer(
+            int maxSamlResponseLength,
+            ResponseStructureValidator responseStructureValidator
+    ) {
+        return new StreamingStringToResponseTransformer(
                 notNullSamlStringValidator,
                 base64StringDecoder,
-                responseSizeValidator,
-                responseOpenSamlXMLObjectUnmarshaller
+                new ResponseSizeValidator(maxSamlResponseLength),
+                responseStructureValidator,
+                responseOpenSamlXMLObjectUnmarshaller,
+                parserPool
         );
     }
 
@@ -78,12 +126,17 @@ public class ResponseFactory {
         final MetadataBackedSignatureValidator metadataBackedSignatureValidator = createMetadataBackedSignatureValidator(hubSignatureTrustEngine);
 
         return new ResponseService(
-                createStringToResponseTransformer(),
+                createStringToResponseTransformer(maxSamlResponseLength, responseStructureValidator),
                 assertionDecrypter,
                 matchingAssertionTranslator,
                 new SamlResponseSignatureValidator(new SamlMessageSignatureValidator(metadataBackedSignatureValidator)),
-                new InstantValidator(dateTimeComparator),
-                new MatchingResponderCodeTranslator()
+                new ResponsePreValidator(createInstantValidator(dateTimeComparator), rejections),
+                new MatchingResponderCodeTranslator(),
+                matchingTimers,
+                dateTimeComparator.getClock(),
+                translationCache,
+                replayCache,
+                rejections
         );
     }
 
@@ -93,15 +146,20 @@ public class ResponseFactory {
             DateTimeComparator dateTimeComparator) {
         final AssertionDecrypter assertionDecrypter = createAssertionDecrypter();
         final MetadataBackedSignatureValidator metadataBackedSignatureValidator = createMetadataBackedSignatureValidator(hubSignatureTrustEngine);
-        final StringToOpenSamlObjectTransformer<Response> stringToResponseTransformer = createStringToResponseTransformer();
+        final StringToOpenSamlObjectTransformer<Response> stringToResponseTransformer = createStringToResponseTransformer(maxSamlResponseLength, responseStructureValidator);
 
         return new ResponseService(
                 stringToResponseTransformer,
                 assertionDecrypter,
                 nonMatchingAssertionTranslator,
                 new SamlResponseSignatureValidator(new SamlMessageSignatureValidator(metadataBackedSignatureValidator)),
-                new InstantValidator(dateTimeComparator),
-                new IdentityResponderCodeTranslator()
+                new ResponsePreValidator(createInstantValidator(dateTimeComparator), rejections),
+                new IdentityResponderCodeTranslator(),
+                nonMatchingTimers,
+                dateTimeComparator.getClock(),
+                translationCache,
+                replayCache,
+                rejections
         );
     }
 
@@ -109,12 +167,14 @@ public class ResponseFactory {
             ExplicitKeySignatureTrustEngine signatureTrustEngine,
             SignatureValidatorFactory signatureValidatorFactory,
             DateTimeComparator dateTimeComparator) {
-        final TimeRestrictionValidator timeRestrictionValidator = new TimeRestrictionValidator(dateTimeComparator);
-        final SamlAssertionsSignatureValidator signatureValidator = signatureValidatorFactory.getSignatureValidator(signatureTrustEngine);
+        final TimeRestrictionValidator timeRestrictionValidator = new TimeRestrictionValidator(dateTimeComparator, rejections);
+        final SamlAssertionsSignatureValidator signatureValidator = signatureValidatorFactory.getSignatureValidator(
+                signatureTrustEngine,
+                matchingTimers.getAssertionSignatureValidation());
         final AssertionValidator assertionValidator = new AssertionValidator(
-                new InstantValidator(dateTimeComparator),
-                new SubjectValidator(timeRestrictionValidator),
-                new ConditionsValidator(timeRestrictionValidator, new AudienceRestrictionValidator()));
+                createInstantValidator(dateTimeComparator),
+                new SubjectValidator(timeRestrictionValidator, rejections),
+                new ConditionsValidator(timeRestrictionValidator, new AudienceRestrictionValidator(), rejections));
 
         return new MatchingAssertionTranslator(
                 assertionValidator,
@@ -123,27 +183,52 @@ public class ResponseFactory {
     }
 
     public VerifyAssertionTranslator createVerifyIdpAssertionTranslator(
-            SamlAssertionsSignatureValidator hubSignatureValidator,
+            ExplicitKeySignatureTrustEngine hubSignatureTrustEngine,
+            SignatureValidatorFactory signatureValidatorFactory,
             DateTimeComparator dateTimeComparator,
             String hashingEntityId) {
-        final TimeRestrictionValidator timeRestrictionValidator = new TimeRestrictionValidator(dateTimeComparator);
+        return createVerifyIdpAssertionTranslator(
+                hubSignatureTrustEngine,
+                signatureValidatorFactory,
+                dateTimeComparator,
+                hashingEntityId,
+                MoreExecutors.directExecutor());
+    }
+
+    public VerifyAssertionTranslator createVerifyIdpAssertionTranslator(
+            ExplicitKeySignatureTrustEngine hubSignatureTrustEngine,
+            SignatureValidatorFactory signatureValidatorFactory,
+            DateTimeComparator dateTimeComparator,
+            String hashingEntityId,
+            Executor assertionValidationExecutor) {
+        final TimeRestrictionValidator timeRestrictionValidator = new TimeRestrictionValidator(dateTimeComparator, rejections);
+        final SamlAssertionsSignatureValidator hubSignatureValidator = signatureValidatorFactory.getSignatureValidator(
+                hubSignatureTrustEngine,
+                nonMatchingTimers.getAssertionSignatureValidation());
 
         return new VerifyAssertionTranslator(
                 hubSignatureValidator,
-                new SubjectValidator(timeRestrictionValidator),
+                new SubjectValidator(timeRestrictionValidator, rejections),
                 new AssertionAttributeStatementValidator(),
                 new VerifyMatchingDatasetUnmarshaller(new AddressFactory()),
                 new AssertionClassifier(),
                 new MatchingDatasetToNonMatchingAttributesMapper(),
                 new LevelOfAssuranceValidator(),
-                new UserIdHashFactory(hashingEntityId));
+                new UserIdHashFactory(hashingEntityId),
+                dateTimeComparator.getClock().propagatingTo(assertionValidationExecutor));
     }
 
-    private AssertionDecrypter createAssertionDecrypter() {
+    public AssertionDecrypter createAssertionDecrypter() {
         final List<Credential> decryptingCredentials = idaKeyStoreCredentialRetriever.getDecryptingCredentials();
-        return new AssertionDecrypter(
-                encryptionAlgorithmValidator,
-                decrypterFactory.createDecrypter(decryptingCredentials));
+        final KeyInfoIndexedDecrypter decrypter = new KeyInfoIndexedDecrypter(decryptingCredentials, metricRegistry);
+        if (decryptionExecutor != null) {
+            return new ParallelAssertionDecrypter(encryptionAlgorithmValidator, decrypter, decryptionExecutor);
+        }
+        return new AssertionDecrypter(encryptionAlgorithmValidator, decrypter);
+    }
+
+    private InstantValidator createInstantValidator(DateTimeComparator dateTimeComparator) {
+        return new InstantValidator(dateTimeComparator, dateTimeComparator.getClock(), rejections);
     }
 
     private MetadataBackedSignatureValidator createMetadataBackedSignatureValidator(ExplicitKeySignatureTrustEngine explicitKeySignatureTrustEngine) {
@@ -154,4 +239,75 @@ public class ResponseFactory {
         return new IdaKeyStore(null, encryptionKeyPairs);
     }
 
+    public static class Builder {
+        private final List<KeyPair> encryptionKeyPairs;
+        private MetricRegistry metricRegistry = new MetricRegistry();
+        private Executor decryptionExecutor;
+        private int maxSamlResponseLength = ResponseSizeValidator.DEFAULT_MAX_SAML_RESPONSE_LENGTH;
+        private ResponseStructureValidator responseStructureValidator = new ResponseStructureValidator();
+        private TranslationCache translationCache = TranslationCache.NONE;
+        private ReplayCache replayCache = ReplayCache.NONE;
+        private SamlValidationRejections rejections = SamlValidationRejections.WITH_STACK_TRACES;
+
+        private Builder(List<KeyPair> encryptionKeyPairs) {
+            this.encryptionKeyPairs = encryptionKeyPairs;
+        }
+
+        public Builder withMetricRegistry(MetricRegistry metricRegistry) {
+            this.metricRegistry = metricRegistry;
+            return this;
+        }
+
+        /**
+         * @param decryptionExecutor if not null, responses with more than one assertion have them decrypted in parallel on it
+         */
+        public Builder withDecryptionExecutor(Executor decryptionExecutor) {
+            this.decryptionExecutor = decryptionExecutor;
+            return this;
+        }
+
+        /**
+         * @param maxSamlResponseLength the longest base64 encoded SAML response that will be translated
+         */
+        public Builder withMaxSamlResponseLength(int maxSamlResponseLength) {
+            this.maxSamlResponseLength = maxSamlResponseLength;
+            return this;
+        }
+
+        /**
+         * @param responseStructureValidator limits the elements, nesting, attributes and EncryptedAssertions of a decoded response
+         */
+        public Builder withResponseStructureValidator(ResponseStructureValidator responseStructureValidator) {
+            this.responseStructureValidator = responseStructureValidator;
+            return this;
+        }
+
+        /**
+         * @param translationCache returns earlier translations of the same request, shared by every ResponseService created
+         */
+        public Builder withTranslationCache(TranslationCache translationCache) {
+            this.translationCache = translationCache;
+            return this;
+        }
+
+        /**
+         * @param replayCache the IDs of responses and assertions already translated, shared by every ResponseService created
+         */
+        public Builder withReplayCache(ReplayCache replayCache) {
+            this.replayCache = replayCache;
+            return this;
+        }
+
+        /**
+         * @param rejections creates the rejections thrown by every validator created, with or without stack traces
+         */
+        public Builder withValidationRejections(SamlValidationRejections rejections) {
+            this.rejections = rejections;
+            return this;
+        }
+
+        public ResponseFactory build() {
+            return new ResponseFactory(this);
+        }
+    }
 }
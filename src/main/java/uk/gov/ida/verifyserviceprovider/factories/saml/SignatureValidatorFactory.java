@@ -1,20 +1,29 @@
 package uk.gov.ida.verifyserviceprovider.factories.saml;
 
+import com.codahale.metrics.Timer;
 import org.opensaml.xmlsec.signature.support.impl.ExplicitKeySignatureTrustEngine;
 import uk.gov.ida.saml.security.MetadataBackedSignatureValidator;
 import uk.gov.ida.saml.security.SamlAssertionsSignatureValidator;
 import uk.gov.ida.saml.security.SamlMessageSignatureValidator;
+import uk.gov.ida.verifyserviceprovider.validators.TimedSamlAssertionsSignatureValidator;
 
 import javax.validation.constraints.NotNull;
 import java.util.Optional;
 
 public class SignatureValidatorFactory {
 
+    // Not registered anywhere, so nothing reads what it records
+    private static final Timer UNREPORTED_TIMER = new Timer();
+
     public SamlAssertionsSignatureValidator getSignatureValidator(@NotNull ExplicitKeySignatureTrustEngine trustEngine) {
+        return getSignatureValidator(trustEngine, UNREPORTED_TIMER);
+    }
+
+    public SamlAssertionsSignatureValidator getSignatureValidator(@NotNull ExplicitKeySignatureTrustEngine trustEngine, Timer timer) {
         return Optional.of(trustEngine)
             .map(MetadataBackedSignatureValidator::withoutCertificateChainValidation)
             .map(SamlMessageSignatureValidator::new)
-            .map(SamlAssertionsSignatureValidator::new)
+            .map(samlMessageSignatureValidator -> new TimedSamlAssertionsSignatureValidator(samlMessageSignatureValidator, timer))
             .get();
     }
 }
@@ -0,0 +1,116 @@
+package uk.gov.ida.verifyserviceprovider.factories.saml;
+
+import net.shibboleth.utilities.java.support.xml.ParserPool;
+import net.shibboleth.utilities.java.support.xml.XMLParserException;
+import org.opensaml.core.xml.XMLObject;
+import org.opensaml.core.xml.io.UnmarshallingException;
+import org.opensaml.core.xml.util.XMLObjectSupport;
+import org.opensaml.saml.saml2.core.Response;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.event.Level;
+import uk.gov.ida.saml.core.validation.SamlTransformationErrorException;
+import uk.gov.ida.saml.deserializers.OpenSamlXMLObjectUnmarshaller;
+import uk.gov.ida.saml.deserializers.StringToOpenSamlObjectTransformer;
+import uk.gov.ida.saml.deserializers.validators.Base64StringDecoder;
+import uk.gov.ida.saml.deserializers.validators.NotNullSamlStringValidator;
+import uk.gov.ida.verifyserviceprovider.validators.ResponseSizeValidator;
+import uk.gov.ida.verifyserviceprovider.validators.ResponseStructureValidator;
+
+import javax.xml.stream.XMLStreamException;
+import java.io.ByteArrayInputStream;
+import java.util.Base64;
+
+/**
+ * Unmarshals a base64 encoded SAML response by decoding it straight into bytes for the XML parser, rather than
+ * building the decoded response as a String and then encoding it again for the parser.
+ *
+ * The response goes through the same null and size checks as StringToOpenSamlObjectTransformer first. Anything
+ * that isn't plainly base64 is handed to StringToOpenSamlObjectTransformer, so Base64StringDecoder rejects it with
+ * exactly the same error as before. Everything else is parsed once: a response that can't be read as XML, or
+ * isn't a Response, is rejected straight away rather than being decoded and parsed a second time.
+ *
+ * Before a DOM is built, the decoded bytes are checked by a ResponseStructureValidator. The same bytes are then
+ * parsed, so the response is only decoded once.
+ */
+public class StreamingStringToResponseTransformer extends StringToOpenSamlObjectTransformer<Response> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(StreamingStringToResponseTransformer.class);
+
+    private final NotNullSamlStringValidator notNullSamlStringValidator;
+    private final ResponseSizeValidator responseSizeValidator;
+    private final ResponseStructureValidator responseStructureValidator;
+    private final ParserPool parserPool;
+
+    public StreamingStringToResponseTransformer(
+            NotNullSamlStringValidator notNullSamlStringValidator,
+            Base64StringDecoder base64StringDecoder,
+            ResponseSizeValidator responseSizeValidator,
+            ResponseStructureValidator responseStructureValidator,
+            OpenSamlXMLObjectUnmarshaller<Response> responseUnmarshaller,
+            ParserPool parserPool) {
+        super(notNullSamlStringValidator, base64StringDecoder, responseSizeValidator, responseUnmarshaller);
+        this.notNullSamlStringValidator = notNullSamlStringValidator;
+        this.responseSizeValidator = responseSizeValidator;
+        this.responseStructureValidator = responseStructureValidator;
+        this.parserPool = parserPool;
+    }
+
+    @Override
+    public Response apply(String base64EncodedSamlResponse) {
+        notNullSamlStringValidator.validate(base64EncodedSamlResponse);
+        responseSizeValidator.validate(base64EncodedSamlResponse);
+        byte[] decodedSamlResponse = isBase64(base64EncodedSamlResponse) ? decode(base64EncodedSamlResponse) : null;
+        if (decodedSamlResponse == null) {
+            return super.apply(base64EncodedSamlResponse);
+        }
+
+        validateStructure(decodedSamlResponse);
+        XMLObject xmlObject;
+        try {
+            xmlObject = XMLObjectSupport.unmarshallFromInputStream(parserPool, new ByteArrayInputStream(decodedSamlResponse));
+        } catch (XMLParserException | UnmarshallingException e) {
+            LOG.debug("Could not unmarshal SAML response", e);
+            throw new SamlTransformationErrorException("SAML Response could not be read as XML.", Level.ERROR);
+        }
+        if (!(xmlObject instanceof Response)) {
+            throw new SamlTransformationErrorException("SAML message is not a Response.", Level.ERROR);
+        }
+        return (Response) xmlObject;
+    }
+
+    private void validateStructure(byte[] decodedSamlResponse) {
+        try {
+            responseStructureValidator.validate(new ByteArrayInputStream(decodedSamlResponse));
+        } catch (XMLStreamException e) {
+            LOG.debug("Could not check the structure of SAML response", e);
+            throw new SamlTransformationErrorException("SAML Response could not be read as XML.", Level.ERROR);
+        }
+    }
+
+    // Only the base64 alphabet, padding and the line breaks and spaces the MIME decoder skips, so that anything
+    // Base64StringDecoder might treat differently is left to it
+    private static boolean isBase64(String base64EncodedSamlResponse) {
+        for (int i = 0; i < base64EncodedSamlResponse.length(); i++) {
+            char character = base64EncodedSamlResponse.charAt(i);
+            boolean valid = (character >= 'A' && character <= 'Z')
+                    || (character >= 'a' && character <= 'z')
+                    || (character >= '0' && character <= '9')
+                    || character == '+' || character == '/' || character == '='
+                    || character == '\r' || character == '\n' || character == ' ' || character == '\t';
+            if (!valid) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Padding the MIME decoder won't accept is left to Base64StringDecoder as well
+    private static byte[] decode(String base64EncodedSamlResponse) {
+        try {
+            return Base64.getMimeDecoder().decode(base64EncodedSamlResponse);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package uk.gov.ida.verifyserviceprovider.factories.saml;
+
+import net.shibboleth.utilities.java.support.xml.LoggingErrorHandler;
+import net.shibboleth.utilities.java.support.xml.ParserPool;
+import net.shibboleth.utilities.java.support.xml.XMLParserException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.w3c.dom.Document;
+import org.xml.sax.EntityResolver;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+
+/**
+ * A ParserPool that keeps one DocumentBuilder for each thread, configured the same way as OpenSAML's
+ * BasicParserPool, so that a thread parsing one response after another reuses its builder without taking a lock
+ * or creating and securing a new one. Builders are reset when they are returned.
+ *
+ * It's meant for the fixed pools of threads that translate responses. A thread that asks for a builder while it
+ * already has one out gets a new one.
+ */
+public class ThreadLocalParserPool implements ParserPool {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ThreadLocalParserPool.class);
+    private static final LoggingErrorHandler ERROR_HANDLER = new LoggingErrorHandler(LOG);
+    private static final EntityResolver NO_ENTITIES = (publicId, systemId) -> {
+        throw new SAXException("External entities are not allowed");
+    };
+
+    private final DocumentBuilderFactory documentBuilderFactory = createDocumentBuilderFactory();
+    private final ThreadLocal<DocumentBuilder> idleBuilders = new ThreadLocal<>();
+
+    @Override
+    public DocumentBuilder getBuilder() throws XMLParserException {
+        DocumentBuilder builder = idleBuilders.get();
+        if (builder != null) {
+            idleBuilders.set(null);
+            return builder;
+        }
+        try {
+            return configure(documentBuilderFactory.newDocumentBuilder());
+        } catch (ParserConfigurationException e) {
+            throw new XMLParserException("Unable to create a DocumentBuilder", e);
+        }
+    }
+
+    @Override
+    public void returnBuilder(DocumentBuilder builder) {
+        if (builder == null) {
+            return;
+        }
+        // reset() also clears the error handler and entity resolver, so they have to be set again
+        builder.reset();
+        idleBuilders.set(configure(builder));
+    }
+
+    @Override
+    public Document newDocument() throws XMLParserException {
+        DocumentBuilder builder = getBuilder();
+        try {
+            return builder.newDocument();
+        } finally {
+            returnBuilder(builder);
+        }
+    }
+
+    @Override
+    public Document parse(InputStream input) throws XMLParserException {
+        return parse(new InputSource(input));
+    }
+
+    @Override
+    public Document parse(Reader input) throws XMLParserException {
+        return parse(new InputSource(input));
+    }
+
+    private Document parse(InputSource inputSource) throws XMLParserException {
+        DocumentBuilder builder = getBuilder();
+        try {
+            return builder.parse(inputSource);
+        } catch (SAXException | IOException e) {
+            throw new XMLParserException("Unable to parse XML", e);
+        } finally {
+            returnBuilder(builder);
+        }
+    }
+
+    private static DocumentBuilder configure(DocumentBuilder builder) {
+        builder.setErrorHandler(ERROR_HANDLER);
+        builder.setEntityResolver(NO_ENTITIES);
+        return builder;
+    }
+
+    private static DocumentBuilderFactory createDocumentBuilderFactory() {
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setNamespaceAware(true);
+        factory.setCoalescing(true);
+        factory.setIgnoringComments(true);
+        factory.setIgnoringElementContentWhitespace(true);
+        factory.setExpandEntityReferences(false);
+        factory.setXIncludeAware(false);
+        factory.setValidating(false);
+        try {
+            factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+            factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+            factory.setFeature("http://xml.org/sax/features/external-general-entities", false);
+            factory.setFeature("http://xml.org/sax/features/external-parameter-entities", false);
+        } catch (ParserConfigurationException e) {
+            throw new IllegalStateException("Unable to configure a secure DocumentBuilderFactory", e);
+        }
+        return factory;
+    }
+}
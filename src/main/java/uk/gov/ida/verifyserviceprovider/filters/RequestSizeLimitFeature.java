@@ -0,0 +1,31 @@
+package uk.gov.ida.verifyserviceprovider.filters;
+
+import javax.ws.rs.container.DynamicFeature;
+import javax.ws.rs.container.ResourceInfo;
+import javax.ws.rs.core.FeatureContext;
+
+/**
+ * Registers a RequestSizeLimitFilter for each resource method marked with RequestSizeLimited, limited to the batch
+ * size for resources that take a batch of requests and to the single request size for the others.
+ */
+public class RequestSizeLimitFeature implements DynamicFeature {
+
+    private final long maxRequestBodySize;
+    private final long maxBatchRequestBodySize;
+
+    public RequestSizeLimitFeature(long maxRequestBodySize, long maxBatchRequestBodySize) {
+        this.maxRequestBodySize = maxRequestBodySize;
+        this.maxBatchRequestBodySize = maxBatchRequestBodySize;
+    }
+
+    @Override
+    public void configure(ResourceInfo resourceInfo, FeatureContext context) {
+        RequestSizeLimited requestSizeLimited = resourceInfo.getResourceMethod().getAnnotation(RequestSizeLimited.class);
+        if (requestSizeLimited == null) {
+            requestSizeLimited = resourceInfo.getResourceClass().getAnnotation(RequestSizeLimited.class);
+        }
+        if (requestSizeLimited != null) {
+            context.register(new RequestSizeLimitFilter(requestSizeLimited.batch() ? maxBatchRequestBodySize : maxRequestBodySize));
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package uk.gov.ida.verifyserviceprovider.filters;
+
+import io.dropwizard.jersey.errors.ErrorMessage;
+import org.apache.http.HttpStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Priority;
+import javax.ws.rs.Priorities;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Rejects request bodies larger than the configured size with a 413, before they are read into memory.
+ *
+ * A request with a Content-Length over the limit is rejected without reading its body. Otherwise the body is read
+ * through a stream that fails as soon as more than the limit has been read from it, so that a chunked request can't
+ * be used to get around the limit.
+ */
+@Priority(Priorities.ENTITY_CODER)
+public class RequestSizeLimitFilter implements ContainerRequestFilter {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RequestSizeLimitFilter.class);
+
+    private final long maxRequestBodySize;
+
+    public RequestSizeLimitFilter(long maxRequestBodySize) {
+        this.maxRequestBodySize = maxRequestBodySize;
+    }
+
+    @Override
+    public void filter(ContainerRequestContext requestContext) {
+        if (requestContext.getLength() > maxRequestBodySize) {
+            LOG.warn(String.format("Rejecting request with a Content-Length of %d bytes", requestContext.getLength()));
+            requestContext.abortWith(requestEntityTooLarge());
+            return;
+        }
+        requestContext.setEntityStream(new SizeLimitedInputStream(requestContext.getEntityStream(), maxRequestBodySize));
+    }
+
+    private static Response requestEntityTooLarge() {
+        return Response
+            .status(HttpStatus.SC_REQUEST_TOO_LONG)
+            .type(MediaType.APPLICATION_JSON_TYPE)
+            .entity(new ErrorMessage(HttpStatus.SC_REQUEST_TOO_LONG, "Request body is too large."))
+            .build();
+    }
+
+    private static class SizeLimitedInputStream extends FilterInputStream {
+        private final long maxSize;
+        private long bytesRead;
+
+        private SizeLimitedInputStream(InputStream inputStream, long maxSize) {
+            super(inputStream);
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int read = super.read();
+            if (read != -1) {
+                countBytes(1);
+            }
+            return read;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read > 0) {
+                countBytes(read);
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long length) throws IOException {
+            long skipped = super.skip(length);
+            if (skipped > 0) {
+                countBytes(skipped);
+            }
+            return skipped;
+        }
+
+        private void countBytes(long count) {
+            bytesRead += count;
+            if (bytesRead > maxSize) {
+                LOG.warn(String.format("Rejecting request with a body of more than %d bytes", maxSize));
+                throw new WebApplicationException(requestEntityTooLarge());
+            }
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package uk.gov.ida.verifyserviceprovider.filters;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks the resources whose request bodies are limited by a RequestSizeLimitFilter, registered by RequestSizeLimitFeature.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE, ElementType.METHOD})
+public @interface RequestSizeLimited {
+
+    /**
+     * @return true if the request body is a batch of requests, and is limited by the larger batch limit
+     */
+    boolean batch() default false;
+}
@@ -0,0 +1,22 @@
+package uk.gov.ida.verifyserviceprovider.metrics;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import uk.gov.ida.verifyserviceprovider.services.ResponseService;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+import static com.codahale.metrics.MetricRegistry.name;
+
+/**
+ * Gauges for the executor that translations run on, registered under
+ * uk.gov.ida.verifyserviceprovider.services.ResponseService.executor.{gauge}.
+ */
+public class TranslationExecutorGauges {
+
+    public static void register(MetricRegistry metricRegistry, ThreadPoolExecutor executor) {
+        metricRegistry.register(name(ResponseService.class, "executor", "queue-depth"), (Gauge<Integer>) () -> executor.getQueue().size());
+        metricRegistry.register(name(ResponseService.class, "executor", "active-threads"), (Gauge<Integer>) executor::getActiveCount);
+        metricRegistry.register(name(ResponseService.class, "executor", "pool-size"), (Gauge<Integer>) executor::getPoolSize);
+    }
+}
@@ -0,0 +1,58 @@
+package uk.gov.ida.verifyserviceprovider.metrics;
+
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import uk.gov.ida.verifyserviceprovider.services.ResponseService;
+
+import static com.codahale.metrics.MetricRegistry.name;
+
+/**
+ * Timers for each stage of translating a SAML response, registered under
+ * uk.gov.ida.verifyserviceprovider.services.ResponseService.{mode}.{stage}.
+ * The assertion-translation timer includes the time spent in assertion-signature-validation.
+ */
+public class TranslationTimers {
+
+    public static final String MATCHING = "matching";
+    public static final String NON_MATCHING = "non-matching";
+
+    private final Timer unmarshal;
+    private final Timer responseSignatureValidation;
+    private final Timer responseValidation;
+    private final Timer decryption;
+    private final Timer assertionSignatureValidation;
+    private final Timer assertionTranslation;
+
+    public TranslationTimers(MetricRegistry metricRegistry, String mode) {
+        this.unmarshal = metricRegistry.timer(name(ResponseService.class, mode, "unmarshal"));
+        this.responseSignatureValidation = metricRegistry.timer(name(ResponseService.class, mode, "response-signature-validation"));
+        this.responseValidation = metricRegistry.timer(name(ResponseService.class, mode, "response-validation"));
+        this.decryption = metricRegistry.timer(name(ResponseService.class, mode, "decryption"));
+        this.assertionSignatureValidation = metricRegistry.timer(name(ResponseService.class, mode, "assertion-signature-validation"));
+        this.assertionTranslation = metricRegistry.timer(name(ResponseService.class, mode, "assertion-translation"));
+    }
+
+    public Timer getUnmarshal() {
+        return unmarshal;
+    }
+
+    public Timer getResponseSignatureValidation() {
+        return responseSignatureValidation;
+    }
+
+    public Timer getResponseValidation() {
+        return responseValidation;
+    }
+
+    public Timer getDecryption() {
+        return decryption;
+    }
+
+    public Timer getAssertionSignatureValidation() {
+        return assertionSignatureValidation;
+    }
+
+    public Timer getAssertionTranslation() {
+        return assertionTranslation;
+    }
+}
@@ -5,7 +5,8 @@ import org.slf4j.LoggerFactory;
 import uk.gov.ida.saml.serializers.XmlObjectToBase64EncodedStringTransformer;
 import uk.gov.ida.verifyserviceprovider.dto.RequestGenerationBody;
 import uk.gov.ida.verifyserviceprovider.dto.RequestResponseBody;
-import uk.gov.ida.verifyserviceprovider.factories.saml.AuthnRequestFactory;
+import uk.gov.ida.verifyserviceprovider.factories.saml.AuthnRequestProvider;
+import uk.gov.ida.verifyserviceprovider.filters.RequestSizeLimited;
 import uk.gov.ida.verifyserviceprovider.logging.AuthnRequestAttributesHelper;
 import uk.gov.ida.verifyserviceprovider.services.EntityIdService;
 
@@ -20,17 +21,18 @@ import javax.ws.rs.core.Response;
 import java.net.URI;
 
 @Path("/generate-request")
+@RequestSizeLimited
 @Produces(MediaType.APPLICATION_JSON)
 @Consumes(MediaType.APPLICATION_JSON)
 public class GenerateAuthnRequestResource {
 
     private final URI ssoLocation;
-    private final AuthnRequestFactory authnRequestFactory;
+    private final AuthnRequestProvider authnRequestProvider;
     private final EntityIdService entityIdService;
     private static final org.slf4j.Logger LOG = LoggerFactory.getLogger(GenerateAuthnRequestResource.class);
 
-    public GenerateAuthnRequestResource(AuthnRequestFactory authnRequestFactory, URI ssoLocation, EntityIdService entityIdService) {
-        this.authnRequestFactory = authnRequestFactory;
+    public GenerateAuthnRequestResource(AuthnRequestProvider authnRequestProvider, URI ssoLocation, EntityIdService entityIdService) {
+        this.authnRequestProvider = authnRequestProvider;
         this.ssoLocation = ssoLocation;
         this.entityIdService = entityIdService;
     }
@@ -38,7 +40,7 @@ public class GenerateAuthnRequestResource {
     @POST
     public Response generateAuthnRequest(@Valid @Nullable RequestGenerationBody requestGenerationBody) {
         String entityId = entityIdService.getEntityId(requestGenerationBody);
-        AuthnRequest authnRequest = this.authnRequestFactory.build(entityId);
+        AuthnRequest authnRequest = this.authnRequestProvider.build(entityId);
         XmlObjectToBase64EncodedStringTransformer xmlToBase64Transformer = new XmlObjectToBase64EncodedStringTransformer();
         String samlRequest = xmlToBase64Transformer.apply(authnRequest);
 
@@ -1,11 +1,13 @@
 package uk.gov.ida.verifyserviceprovider.resources;
 
 import io.dropwizard.jersey.errors.ErrorMessage;
+import org.joda.time.Duration;
 import org.slf4j.LoggerFactory;
 import uk.gov.ida.saml.core.validation.SamlResponseValidationException;
 import uk.gov.ida.saml.core.validation.SamlTransformationErrorException;
 import uk.gov.ida.verifyserviceprovider.dto.TranslateSamlResponseBody;
 import uk.gov.ida.verifyserviceprovider.dto.TranslatedResponseBody;
+import uk.gov.ida.verifyserviceprovider.filters.RequestSizeLimited;
 import uk.gov.ida.verifyserviceprovider.services.EntityIdService;
 import uk.gov.ida.verifyserviceprovider.services.ResponseService;
 
@@ -15,13 +17,21 @@ import javax.ws.rs.Consumes;
 import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.Produces;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.container.Suspended;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
-import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 
 import static javax.ws.rs.core.Response.Status.BAD_REQUEST;
+import static javax.ws.rs.core.Response.Status.SERVICE_UNAVAILABLE;
 
 @Path("/translate-response")
+@RequestSizeLimited
 @Produces(MediaType.APPLICATION_JSON)
 @Consumes(MediaType.APPLICATION_JSON)
 public class TranslateSamlResponseResource {
@@ -29,16 +39,50 @@ public class TranslateSamlResponseResource {
     private final ResponseService responseService;
     private static final org.slf4j.Logger LOG = LoggerFactory.getLogger(TranslateSamlResponseResource.class);
     private final EntityIdService entityIdService;
+    private final ExecutorService executorService;
+    private final Duration timeout;
 
 
-    public TranslateSamlResponseResource(ResponseService responseService, EntityIdService entityIdService) {
+    public TranslateSamlResponseResource(ResponseService responseService, EntityIdService entityIdService, ExecutorService executorService, Duration timeout) {
         this.responseService = responseService;
         this.entityIdService = entityIdService;
+        this.executorService = executorService;
+        this.timeout = timeout;
     }
 
     @POST
-    public Response translateResponse(@NotNull @Valid TranslateSamlResponseBody translateSamlResponseBody) throws IOException {
+    public void translateResponse(@NotNull @Valid TranslateSamlResponseBody translateSamlResponseBody, @Suspended AsyncResponse asyncResponse) {
         String entityId = entityIdService.getEntityId(translateSamlResponseBody);
+        asyncResponse.setTimeout(timeout.getMillis(), TimeUnit.MILLISECONDS);
+        asyncResponse.setTimeoutHandler(timedOut -> {
+            LOG.warn(String.format("Timed out translating saml response for entityId: %s, requestId: %s", entityId, translateSamlResponseBody.getRequestId()));
+            timedOut.resume(serviceUnavailable("Timed out translating the response."));
+        });
+
+        try {
+            CompletableFuture.supplyAsync(() -> translateResponse(translateSamlResponseBody, entityId), executorService)
+                .whenComplete((response, throwable) -> {
+                    if (throwable == null) {
+                        asyncResponse.resume(response);
+                    } else {
+                        asyncResponse.resume(throwable instanceof CompletionException ? throwable.getCause() : throwable);
+                    }
+                });
+        } catch (RejectedExecutionException e) {
+            LOG.warn(String.format("Could not start translating saml response for entityId: %s, requestId: %s", entityId, translateSamlResponseBody.getRequestId()));
+            asyncResponse.resume(serviceUnavailable("The service is too busy to translate the response."));
+        }
+    }
+
+    private static Response serviceUnavailable(String message) {
+        return Response
+            .status(SERVICE_UNAVAILABLE)
+            .type(MediaType.APPLICATION_JSON_TYPE)
+            .entity(new ErrorMessage(SERVICE_UNAVAILABLE.getStatusCode(), message))
+            .build();
+    }
+
+    private Response translateResponse(TranslateSamlResponseBody translateSamlResponseBody, String entityId) {
         try {
             TranslatedResponseBody translatedResponseBody = responseService.convertTranslatedResponseBody(
                 translateSamlResponseBody.getSamlResponse(),
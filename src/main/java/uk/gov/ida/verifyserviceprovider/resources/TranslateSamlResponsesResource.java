@@ -0,0 +1,142 @@
+package uk.gov.ida.verifyserviceprovider.resources;
+
+import io.dropwizard.jersey.errors.ErrorMessage;
+import org.apache.http.HttpStatus;
+import org.slf4j.LoggerFactory;
+import uk.gov.ida.saml.core.validation.SamlResponseValidationException;
+import uk.gov.ida.saml.core.validation.SamlTransformationErrorException;
+import uk.gov.ida.verifyserviceprovider.dto.TranslateSamlResponseBody;
+import uk.gov.ida.verifyserviceprovider.dto.TranslatedResponseBody;
+import uk.gov.ida.verifyserviceprovider.dto.TranslationResult;
+import uk.gov.ida.verifyserviceprovider.exceptions.InvalidEntityIdException;
+import uk.gov.ida.verifyserviceprovider.filters.RequestSizeLimited;
+import uk.gov.ida.verifyserviceprovider.services.EntityIdService;
+import uk.gov.ida.verifyserviceprovider.services.ResponseService;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+import javax.ws.rs.Consumes;
+import javax.ws.rs.POST;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.container.Suspended;
+import javax.ws.rs.core.GenericEntity;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static javax.ws.rs.core.Response.Status.SERVICE_UNAVAILABLE;
+import static uk.gov.ida.verifyserviceprovider.configuration.RequestLimitsConfiguration.MAX_BATCH_SIZE;
+
+@Path("/translate-responses")
+@RequestSizeLimited(batch = true)
+@Produces(MediaType.APPLICATION_JSON)
+@Consumes(MediaType.APPLICATION_JSON)
+public class TranslateSamlResponsesResource {
+
+    private static final org.slf4j.Logger LOG = LoggerFactory.getLogger(TranslateSamlResponsesResource.class);
+    private final ResponseService responseService;
+    private final EntityIdService entityIdService;
+    private final ExecutorService executorService;
+    private final int batchConcurrency;
+
+    /**
+     * @param batchConcurrency the most responses of one batch that are translated at the same time, so that a batch
+     *                         can't take every thread of the executor from other requests
+     */
+    public TranslateSamlResponsesResource(ResponseService responseService, EntityIdService entityIdService, ExecutorService executorService, int batchConcurrency) {
+        this.responseService = responseService;
+        this.entityIdService = entityIdService;
+        this.executorService = executorService;
+        this.batchConcurrency = batchConcurrency;
+    }
+
+    /**
+     * Hands the batch to at most batchConcurrency tasks on the executor, each of which translates the responses no
+     * other task has taken yet. The batch only fails with a 503 if the executor rejects all of them.
+     */
+    @POST
+    public void translateResponses(
+            @NotNull @Size(min = 1, max = MAX_BATCH_SIZE) List<@NotNull @Valid TranslateSamlResponseBody> translateSamlResponseBodies,
+            @Suspended AsyncResponse asyncResponse
+    ) {
+        Batch batch = new Batch(translateSamlResponseBodies, asyncResponse);
+        int tasks = Math.min(batchConcurrency, translateSamlResponseBodies.size());
+        for (int i = 0; i < tasks; i++) {
+            try {
+                executorService.execute(batch::translateRemaining);
+            } catch (RejectedExecutionException e) {
+                if (i == 0) {
+                    LOG.warn(String.format("Could not start translating a batch of %d saml responses", translateSamlResponseBodies.size()));
+                    asyncResponse.resume(Response
+                        .status(SERVICE_UNAVAILABLE)
+                        .type(MediaType.APPLICATION_JSON_TYPE)
+                        .entity(new ErrorMessage(SERVICE_UNAVAILABLE.getStatusCode(), "The service is too busy to translate the responses."))
+                        .build());
+                }
+                break;
+            }
+        }
+    }
+
+    private TranslationResult translate(TranslateSamlResponseBody translateSamlResponseBody) {
+        String requestId = translateSamlResponseBody.getRequestId();
+        try {
+            String entityId = entityIdService.getEntityId(translateSamlResponseBody);
+            TranslatedResponseBody translatedResponseBody = responseService.convertTranslatedResponseBody(
+                translateSamlResponseBody.getSamlResponse(),
+                requestId,
+                translateSamlResponseBody.getLevelOfAssurance(),
+                entityId
+            );
+
+            LOG.info(String.format("Translated response for entityId: %s, requestId: %s, got Scenario: %s",
+                    entityId,
+                    requestId,
+                    translatedResponseBody.getScenario()));
+
+            return TranslationResult.success(requestId, translatedResponseBody);
+        } catch (SamlResponseValidationException | SamlTransformationErrorException | InvalidEntityIdException e) {
+            LOG.warn(String.format("Error translating saml response for requestId: %s, got Message: %s", requestId, e.getMessage()));
+            return TranslationResult.error(requestId, HttpStatus.SC_BAD_REQUEST, e.getMessage());
+        } catch (RuntimeException e) {
+            LOG.error(String.format("Unexpected error translating saml response for requestId: %s", requestId), e);
+            return TranslationResult.error(requestId, HttpStatus.SC_INTERNAL_SERVER_ERROR, "There was an error processing your request.");
+        }
+    }
+
+    private class Batch {
+        private final List<TranslateSamlResponseBody> translateSamlResponseBodies;
+        private final AsyncResponse asyncResponse;
+        private final TranslationResult[] results;
+        private final AtomicInteger next = new AtomicInteger();
+        private final AtomicInteger remaining;
+
+        private Batch(List<TranslateSamlResponseBody> translateSamlResponseBodies, AsyncResponse asyncResponse) {
+            this.translateSamlResponseBodies = translateSamlResponseBodies;
+            this.asyncResponse = asyncResponse;
+            this.results = new TranslationResult[translateSamlResponseBodies.size()];
+            this.remaining = new AtomicInteger(results.length);
+        }
+
+        private void translateRemaining() {
+            try {
+                int index;
+                while ((index = next.getAndIncrement()) < results.length) {
+                    results[index] = translate(translateSamlResponseBodies.get(index));
+                    if (remaining.decrementAndGet() == 0) {
+                        asyncResponse.resume(new GenericEntity<List<TranslationResult>>(Arrays.asList(results)) {});
+                    }
+                }
+            } catch (Throwable e) {
+                asyncResponse.resume(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package uk.gov.ida.verifyserviceprovider.security;
+
+import org.joda.time.Duration;
+import org.opensaml.saml.metadata.resolver.MetadataResolver;
+import org.opensaml.security.credential.Credential;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import uk.gov.ida.saml.security.EncryptionCredentialResolver;
+import uk.gov.ida.verifyserviceprovider.utils.TranslationClock;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Caches the encryption credential resolved for each entity ID until the metadata resolver reports that its
+ * metadata has been updated, at which point every cached credential is dropped and resolved again on next use.
+ *
+ * A metadata resolver that isn't a RefreshableMetadataResolver can't report updates, so its credentials are instead
+ * dropped once they have been cached for the time to live.
+ */
+public class CachingEncryptionCredentialResolver implements EncryptionCredentialResolver {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CachingEncryptionCredentialResolver.class);
+
+    private final EncryptionCredentialResolver encryptionCredentialResolver;
+    private final MetadataCacheExpiry metadataCacheExpiry;
+    private volatile CachedCredentials cachedCredentials;
+
+    public CachingEncryptionCredentialResolver(EncryptionCredentialResolver encryptionCredentialResolver, MetadataResolver metadataResolver) {
+        this(encryptionCredentialResolver, metadataResolver, MetadataCacheExpiry.DEFAULT_TIME_TO_LIVE, TranslationClock.systemUTC());
+    }
+
+    /**
+     * @param timeToLive how long credentials are cached for when the metadata resolver isn't refreshable
+     */
+    public CachingEncryptionCredentialResolver(
+            EncryptionCredentialResolver encryptionCredentialResolver,
+            MetadataResolver metadataResolver,
+            Duration timeToLive,
+            TranslationClock clock
+    ) {
+        this.encryptionCredentialResolver = encryptionCredentialResolver;
+        this.metadataCacheExpiry = new MetadataCacheExpiry(metadataResolver, timeToLive, clock);
+        this.cachedCredentials = new CachedCredentials(metadataCacheExpiry.stamp());
+
+        if (!metadataCacheExpiry.isRefreshable()) {
+            LOG.info(String.format("Metadata resolver %s is not refreshable, so encryption credentials will be cached for %s",
+                    metadataResolver.getClass().getName(), timeToLive));
+        } else {
+            LOG.info("Encryption credentials will be cached until the metadata is refreshed");
+        }
+    }
+
+    @Override
+    public Credential getEncryptingCredential(String receiverId) {
+        return getCurrentCredentials().credentials.computeIfAbsent(receiverId, encryptionCredentialResolver::getEncryptingCredential);
+    }
+
+    private CachedCredentials getCurrentCredentials() {
+        CachedCredentials current = cachedCredentials;
+        if (metadataCacheExpiry.isExpired(current.stamp)) {
+            current = new CachedCredentials(metadataCacheExpiry.stamp());
+            cachedCredentials = current;
+        }
+        return current;
+    }
+
+    private static class CachedCredentials {
+        private final MetadataCacheExpiry.Stamp stamp;
+        private final ConcurrentMap<String, Credential> credentials = new ConcurrentHashMap<>();
+
+        private CachedCredentials(MetadataCacheExpiry.Stamp stamp) {
+            this.stamp = stamp;
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package uk.gov.ida.verifyserviceprovider.security;
+
+import com.google.common.base.Strings;
+import net.shibboleth.utilities.java.support.resolver.CriteriaSet;
+import net.shibboleth.utilities.java.support.resolver.ResolverException;
+import org.joda.time.Duration;
+import org.opensaml.core.criterion.EntityIdCriterion;
+import org.opensaml.saml.criterion.EntityRoleCriterion;
+import org.opensaml.saml.metadata.resolver.MetadataResolver;
+import org.opensaml.security.SecurityException;
+import org.opensaml.security.credential.Credential;
+import org.opensaml.security.credential.UsageType;
+import org.opensaml.security.criteria.KeyAlgorithmCriterion;
+import org.opensaml.security.criteria.UsageCriterion;
+import org.opensaml.xmlsec.algorithm.AlgorithmSupport;
+import org.opensaml.xmlsec.keyinfo.KeyInfoSupport;
+import org.opensaml.xmlsec.signature.KeyInfo;
+import org.opensaml.xmlsec.signature.KeyValue;
+import org.opensaml.xmlsec.signature.Signature;
+import org.opensaml.xmlsec.signature.support.impl.ExplicitKeySignatureTrustEngine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import uk.gov.ida.verifyserviceprovider.utils.TranslationClock;
+
+import java.nio.ByteBuffer;
+import java.security.KeyException;
+import java.security.PublicKey;
+import java.security.cert.CertificateException;
+import java.security.cert.X509Certificate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * An ExplicitKeySignatureTrustEngine that indexes the trusted signing credentials for each entity by public key,
+ * so that a signature is verified with the credential named in its KeyInfo, or failing that the credential that
+ * last verified a signature from the same entity, before any of the others are tried.
+ *
+ * The index is dropped and built again whenever the metadata resolver reports that its metadata has been updated, or
+ * for a resolver that can't report updates, once it is older than the time to live, so that a signing key removed
+ * from metadata stops being trusted. Only credentials resolved from metadata are ever used to verify a signature.
+ */
+public class IndexedSignatureTrustEngine extends ExplicitKeySignatureTrustEngine {
+
+    private static final Logger LOG = LoggerFactory.getLogger(IndexedSignatureTrustEngine.class);
+
+    private final MetadataCacheExpiry metadataCacheExpiry;
+    private volatile CredentialIndex credentialIndex;
+
+    /**
+     * @param timeToLive how long the index is kept for when the metadata resolver isn't refreshable
+     */
+    public IndexedSignatureTrustEngine(
+            ExplicitKeySignatureTrustEngine trustEngine,
+            MetadataResolver metadataResolver,
+            Duration timeToLive,
+            TranslationClock clock
+    ) {
+        super(trustEngine.getCredentialResolver(), trustEngine.getKeyInfoResolver());
+        this.metadataCacheExpiry = new MetadataCacheExpiry(metadataResolver, timeToLive, clock);
+        this.credentialIndex = new CredentialIndex(metadataCacheExpiry.stamp());
+
+        if (!metadataCacheExpiry.isRefreshable()) {
+            LOG.info(String.format("Metadata resolver %s is not refreshable, so trusted signing credentials will be indexed for %s",
+                    metadataResolver.getClass().getName(), timeToLive));
+        }
+    }
+
+    @Override
+    protected boolean doValidate(Signature signature, CriteriaSet trustBasisCriteria) throws SecurityException {
+        CriteriaSet criteriaSet = new CriteriaSet();
+        if (trustBasisCriteria != null) {
+            criteriaSet.addAll(trustBasisCriteria);
+        }
+        if (!criteriaSet.contains(UsageCriterion.class)) {
+            criteriaSet.add(new UsageCriterion(UsageType.SIGNING));
+        }
+        String jcaAlgorithm = AlgorithmSupport.getKeyAlgorithm(signature.getSignatureAlgorithm());
+        if (!Strings.isNullOrEmpty(jcaAlgorithm)) {
+            criteriaSet.add(new KeyAlgorithmCriterion(jcaAlgorithm), true);
+        }
+
+        EntityIdCriterion entityIdCriterion = criteriaSet.get(EntityIdCriterion.class);
+        if (entityIdCriterion == null) {
+            return super.doValidate(signature, trustBasisCriteria);
+        }
+
+        IndexedCredentials trustedCredentials = getTrustedCredentials(indexKey(entityIdCriterion, criteriaSet, jcaAlgorithm), criteriaSet);
+        for (Credential credential : trustedCredentials.inPreferredOrder(getPublicKeyHints(signature))) {
+            if (verifySignature(signature, credential)) {
+                trustedCredentials.lastVerified = credential;
+                return true;
+            }
+        }
+        LOG.debug("Signature could not be verified with any trusted credential for {}", entityIdCriterion.getEntityId());
+        return false;
+    }
+
+    private IndexedCredentials getTrustedCredentials(String indexKey, CriteriaSet criteriaSet) throws SecurityException {
+        ConcurrentMap<String, IndexedCredentials> credentials = getCurrentIndex().credentials;
+        IndexedCredentials trustedCredentials = credentials.get(indexKey);
+        if (trustedCredentials == null) {
+            try {
+                trustedCredentials = new IndexedCredentials(getCredentialResolver().resolve(criteriaSet));
+            } catch (ResolverException e) {
+                throw new SecurityException("Error resolving trusted credentials", e);
+            }
+            credentials.putIfAbsent(indexKey, trustedCredentials);
+        }
+        return trustedCredentials;
+    }
+
+    private CredentialIndex getCurrentIndex() {
+        CredentialIndex current = credentialIndex;
+        if (metadataCacheExpiry.isExpired(current.stamp)) {
+            current = new CredentialIndex(metadataCacheExpiry.stamp());
+            credentialIndex = current;
+        }
+        return current;
+    }
+
+    private static String indexKey(EntityIdCriterion entityIdCriterion, CriteriaSet criteriaSet, String jcaAlgorithm) {
+        EntityRoleCriterion entityRoleCriterion = criteriaSet.get(EntityRoleCriterion.class);
+        return String.join("|",
+                entityIdCriterion.getEntityId(),
+                entityRoleCriterion == null ? "" : entityRoleCriterion.getRole().toString(),
+                criteriaSet.get(UsageCriterion.class).getUsage().name(),
+                Strings.nullToEmpty(jcaAlgorithm));
+    }
+
+    private static List<PublicKey> getPublicKeyHints(Signature signature) {
+        List<PublicKey> publicKeys = new ArrayList<>();
+        KeyInfo keyInfo = signature.getKeyInfo();
+        if (keyInfo == null) {
+            return publicKeys;
+        }
+
+        try {
+            for (X509Certificate certificate : KeyInfoSupport.getCertificates(keyInfo)) {
+                publicKeys.add(certificate.getPublicKey());
+            }
+            for (KeyValue keyValue : keyInfo.getKeyValues()) {
+                if (keyValue.getRSAKeyValue() != null) {
+                    publicKeys.add(KeyInfoSupport.getRSAKey(keyValue.getRSAKeyValue()));
+                }
+            }
+        } catch (CertificateException | KeyException e) {
+            LOG.debug("Ignoring unreadable KeyInfo on Signature", e);
+        }
+        return publicKeys;
+    }
+
+    private static ByteBuffer publicKeyIndex(PublicKey publicKey) {
+        return ByteBuffer.wrap(publicKey.getEncoded());
+    }
+
+    private static class CredentialIndex {
+        private final MetadataCacheExpiry.Stamp stamp;
+        private final ConcurrentMap<String, IndexedCredentials> credentials = new ConcurrentHashMap<>();
+
+        private CredentialIndex(MetadataCacheExpiry.Stamp stamp) {
+            this.stamp = stamp;
+        }
+    }
+
+    private static class IndexedCredentials {
+        private final List<Credential> credentials = new ArrayList<>();
+        private final Map<ByteBuffer, Credential> credentialsByPublicKey = new HashMap<>();
+        private volatile Credential lastVerified;
+
+        private IndexedCredentials(Iterable<Credential> trustedCredentials) {
+            for (Credential credential : trustedCredentials) {
+                credentials.add(credential);
+                if (credential.getPublicKey() != null) {
+                    credentialsByPublicKey.putIfAbsent(publicKeyIndex(credential.getPublicKey()), credential);
+                }
+            }
+        }
+
+        private Set<Credential> inPreferredOrder(List<PublicKey> publicKeyHints) {
+            Set<Credential> orderedCredentials = new LinkedHashSet<>();
+            for (PublicKey publicKey : publicKeyHints) {
+                Credential hinted = credentialsByPublicKey.get(publicKeyIndex(publicKey));
+                if (hinted != null) {
+                    orderedCredentials.add(hinted);
+                }
+            }
+            Credential last = lastVerified;
+            if (last != null) {
+                orderedCredentials.add(last);
+            }
+            orderedCredentials.addAll(credentials);
+            return orderedCredentials;
+        }
+    }
+}
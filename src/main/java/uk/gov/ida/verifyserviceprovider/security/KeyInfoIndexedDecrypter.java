@@ -0,0 +1,130 @@
+package uk.gov.ida.verifyserviceprovider.security;
+
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import org.opensaml.saml.saml2.encryption.Decrypter;
+import org.opensaml.saml.saml2.encryption.EncryptedElementTypeEncryptedKeyResolver;
+import org.opensaml.security.credential.Credential;
+import org.opensaml.xmlsec.encryption.EncryptedKey;
+import org.opensaml.xmlsec.encryption.support.ChainingEncryptedKeyResolver;
+import org.opensaml.xmlsec.encryption.support.DecryptionException;
+import org.opensaml.xmlsec.encryption.support.InlineEncryptedKeyResolver;
+import org.opensaml.xmlsec.encryption.support.SimpleRetrievalMethodEncryptedKeyResolver;
+import org.opensaml.xmlsec.keyinfo.KeyInfoSupport;
+import org.opensaml.xmlsec.keyinfo.impl.StaticKeyInfoCredentialResolver;
+import org.opensaml.xmlsec.signature.KeyInfo;
+import org.opensaml.xmlsec.signature.KeyValue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import uk.gov.ida.verifyserviceprovider.services.ResponseService;
+
+import java.nio.ByteBuffer;
+import java.security.Key;
+import java.security.KeyException;
+import java.security.PublicKey;
+import java.security.cert.CertificateException;
+import java.security.cert.X509Certificate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static java.util.Arrays.asList;
+
+/**
+ * Decrypts assertions with the configured decryption keys, using the certificate or public key in each
+ * EncryptedKey's KeyInfo to pick the key to unwrap it with rather than trying every key in turn.
+ * EncryptedKeys without a usable hint fall back to trying the keys in the order they were configured.
+ *
+ * Records which key unwrapped each EncryptedKey, so that an old key can be removed once it is no longer used.
+ */
+public class KeyInfoIndexedDecrypter extends Decrypter {
+
+    private static final Logger LOG = LoggerFactory.getLogger(KeyInfoIndexedDecrypter.class);
+    private static final List<String> KEY_NAMES = asList("primary", "secondary");
+
+    private final List<Credential> decryptingCredentials;
+    private final Map<ByteBuffer, Integer> keyIndexByPublicKey = new HashMap<>();
+    private final List<Meter> keyUsage = new ArrayList<>();
+    private final Meter unhinted;
+
+    public KeyInfoIndexedDecrypter(List<Credential> decryptingCredentials, MetricRegistry metricRegistry) {
+        super(
+                null,
+                new StaticKeyInfoCredentialResolver(decryptingCredentials),
+                new ChainingEncryptedKeyResolver(asList(
+                        new InlineEncryptedKeyResolver(),
+                        new EncryptedElementTypeEncryptedKeyResolver(),
+                        new SimpleRetrievalMethodEncryptedKeyResolver()))
+        );
+        setRootInNewDocument(true);
+
+        this.decryptingCredentials = decryptingCredentials;
+        for (int i = 0; i < decryptingCredentials.size(); i++) {
+            keyIndexByPublicKey.putIfAbsent(publicKeyIndex(decryptingCredentials.get(i).getPublicKey()), i);
+            keyUsage.add(metricRegistry.meter(MetricRegistry.name(ResponseService.class, "decryption-key", keyName(i))));
+        }
+        this.unhinted = metricRegistry.meter(MetricRegistry.name(ResponseService.class, "decryption-key", "unhinted"));
+    }
+
+    @Override
+    public Key decryptKey(EncryptedKey encryptedKey, String algorithm) throws DecryptionException {
+        Set<Integer> candidates = new LinkedHashSet<>(findHintedKeys(encryptedKey));
+        if (candidates.isEmpty()) {
+            unhinted.mark();
+        }
+        for (int i = 0; i < decryptingCredentials.size(); i++) {
+            candidates.add(i);
+        }
+
+        for (int candidate : candidates) {
+            try {
+                Key key = decryptKey(encryptedKey, algorithm, decryptingCredentials.get(candidate).getPrivateKey());
+                keyUsage.get(candidate).mark();
+                return key;
+            } catch (DecryptionException e) {
+                LOG.debug("Could not decrypt EncryptedKey with the {} decryption key", keyName(candidate), e);
+            }
+        }
+        throw new DecryptionException("None of the configured decryption keys could decrypt the EncryptedKey");
+    }
+
+    private List<Integer> findHintedKeys(EncryptedKey encryptedKey) {
+        List<Integer> hintedKeys = new ArrayList<>();
+        KeyInfo keyInfo = encryptedKey.getKeyInfo();
+        if (keyInfo == null) {
+            return hintedKeys;
+        }
+
+        try {
+            for (X509Certificate certificate : KeyInfoSupport.getCertificates(keyInfo)) {
+                addIfKnown(hintedKeys, certificate.getPublicKey());
+            }
+            for (KeyValue keyValue : keyInfo.getKeyValues()) {
+                if (keyValue.getRSAKeyValue() != null) {
+                    addIfKnown(hintedKeys, KeyInfoSupport.getRSAKey(keyValue.getRSAKeyValue()));
+                }
+            }
+        } catch (CertificateException | KeyException e) {
+            LOG.debug("Ignoring unreadable KeyInfo on EncryptedKey", e);
+        }
+        return hintedKeys;
+    }
+
+    private void addIfKnown(List<Integer> hintedKeys, PublicKey publicKey) {
+        Integer index = keyIndexByPublicKey.get(publicKeyIndex(publicKey));
+        if (index != null) {
+            hintedKeys.add(index);
+        }
+    }
+
+    private static ByteBuffer publicKeyIndex(PublicKey publicKey) {
+        return ByteBuffer.wrap(publicKey.getEncoded());
+    }
+
+    private static String keyName(int index) {
+        return index < KEY_NAMES.size() ? KEY_NAMES.get(index) : "key-" + index;
+    }
+}
@@ -0,0 +1,64 @@
+package uk.gov.ida.verifyserviceprovider.security;
+
+import org.joda.time.DateTime;
+import org.joda.time.Duration;
+import org.opensaml.saml.metadata.resolver.MetadataResolver;
+import org.opensaml.saml.metadata.resolver.RefreshableMetadataResolver;
+import uk.gov.ida.verifyserviceprovider.utils.TranslationClock;
+
+import java.util.Objects;
+
+/**
+ * Decides when something cached from metadata is out of date. A RefreshableMetadataResolver reports when its metadata
+ * was last updated, and the cache is out of date as soon as that changes. Any other MetadataResolver can't report
+ * updates, so the cache is out of date once it is older than the time to live.
+ */
+public class MetadataCacheExpiry {
+
+    public static final Duration DEFAULT_TIME_TO_LIVE = Duration.standardMinutes(5);
+
+    private final RefreshableMetadataResolver refreshableMetadataResolver;
+    private final Duration timeToLive;
+    private final TranslationClock clock;
+
+    public MetadataCacheExpiry(MetadataResolver metadataResolver, Duration timeToLive, TranslationClock clock) {
+        this.refreshableMetadataResolver = metadataResolver instanceof RefreshableMetadataResolver ? (RefreshableMetadataResolver) metadataResolver : null;
+        this.timeToLive = timeToLive;
+        this.clock = clock;
+    }
+
+    public boolean isRefreshable() {
+        return refreshableMetadataResolver != null;
+    }
+
+    public Duration getTimeToLive() {
+        return timeToLive;
+    }
+
+    /**
+     * @return the stamp for a cache built from the metadata as it is now
+     */
+    public Stamp stamp() {
+        if (isRefreshable()) {
+            return new Stamp(refreshableMetadataResolver.getLastUpdate(), Long.MAX_VALUE);
+        }
+        return new Stamp(null, clock.nowMillis() + timeToLive.getMillis());
+    }
+
+    public boolean isExpired(Stamp stamp) {
+        if (isRefreshable()) {
+            return !Objects.equals(stamp.metadataLastUpdate, refreshableMetadataResolver.getLastUpdate());
+        }
+        return clock.nowMillis() >= stamp.expiresAtMillis;
+    }
+
+    public static final class Stamp {
+        private final DateTime metadataLastUpdate;
+        private final long expiresAtMillis;
+
+        private Stamp(DateTime metadataLastUpdate, long expiresAtMillis) {
+            this.metadataLastUpdate = metadataLastUpdate;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package uk.gov.ida.verifyserviceprovider.security;
+
+import com.google.common.collect.ImmutableList;
+import org.opensaml.core.xml.io.MarshallingException;
+import org.opensaml.core.xml.io.UnmarshallingException;
+import org.opensaml.core.xml.util.XMLObjectSupport;
+import org.opensaml.saml.saml2.core.Assertion;
+import org.opensaml.saml.saml2.core.EncryptedAssertion;
+import org.opensaml.saml.saml2.encryption.Decrypter;
+import uk.gov.ida.saml.security.AssertionDecrypter;
+import uk.gov.ida.saml.security.validators.ValidatedEncryptedAssertionContainer;
+import uk.gov.ida.saml.security.validators.encryptedelementtype.EncryptionAlgorithmValidator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+import static java.util.Collections.singletonList;
+
+/**
+ * Decrypts the assertions of a response that carries more than one of them at the same time, the first on the
+ * calling thread and the rest on the given executor. Each assertion is decrypted exactly as AssertionDecrypter
+ * would, the assertions are returned in their original order, and if any of them fail the exception thrown is
+ * the one for the first assertion that failed.
+ *
+ * A DOM can't be read safely from more than one thread, so every assertion handed to the executor is first copied
+ * into a document of its own.
+ */
+public class ParallelAssertionDecrypter extends AssertionDecrypter {
+
+    private final Executor executor;
+
+    public ParallelAssertionDecrypter(EncryptionAlgorithmValidator encryptionAlgorithmValidator, Decrypter decrypter, Executor executor) {
+        super(encryptionAlgorithmValidator, decrypter);
+        this.executor = executor;
+    }
+
+    @Override
+    public List<Assertion> decryptAssertions(ValidatedEncryptedAssertionContainer container) {
+        List<EncryptedAssertion> encryptedAssertions = container.getEncryptedAssertions();
+        if (encryptedAssertions.size() < 2) {
+            return super.decryptAssertions(container);
+        }
+
+        List<CompletableFuture<List<Assertion>>> decryptions = new ArrayList<>();
+        for (EncryptedAssertion encryptedAssertion : encryptedAssertions.subList(1, encryptedAssertions.size())) {
+            EncryptedAssertion copy = copyIntoNewDocument(encryptedAssertion);
+            decryptions.add(CompletableFuture.supplyAsync(() -> decrypt(copy), executor));
+        }
+
+        ImmutableList.Builder<Assertion> assertions = ImmutableList.builder();
+        assertions.addAll(decrypt(encryptedAssertions.get(0)));
+        for (CompletableFuture<List<Assertion>> decryption : decryptions) {
+            assertions.addAll(await(decryption));
+        }
+        return assertions.build();
+    }
+
+    private List<Assertion> decrypt(EncryptedAssertion encryptedAssertion) {
+        return super.decryptAssertions(() -> singletonList(encryptedAssertion));
+    }
+
+    private static EncryptedAssertion copyIntoNewDocument(EncryptedAssertion encryptedAssertion) {
+        try {
+            return XMLObjectSupport.cloneXMLObject(encryptedAssertion, XMLObjectSupport.CloneOutputOption.RootDOMInNewDocument);
+        } catch (MarshallingException | UnmarshallingException e) {
+            throw new IllegalStateException("Could not copy EncryptedAssertion for decryption", e);
+        }
+    }
+
+    private static List<Assertion> await(CompletableFuture<List<Assertion>> decryption) {
+        try {
+            return decryption.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+}
@@ -2,6 +2,8 @@ package uk.gov.ida.verifyserviceprovider.services;
 
 import org.opensaml.saml.saml2.core.Assertion;
 
+import java.util.Collection;
+
 public class AssertionClassifier {
 
     public enum AssertionType {AUTHN_ASSERTION, MDS_ASSERTION}
@@ -13,4 +15,12 @@ public class AssertionClassifier {
         return AssertionType.MDS_ASSERTION;
     }
 
+    public ClassifiedAssertions classifyAssertions(Collection<Assertion> assertions) {
+        ClassifiedAssertions classifiedAssertions = new ClassifiedAssertions();
+        for (Assertion assertion : assertions) {
+            classifiedAssertions.add(classifyAssertion(assertion), assertion);
+        }
+        return classifiedAssertions;
+    }
+
 }
\ No newline at end of file
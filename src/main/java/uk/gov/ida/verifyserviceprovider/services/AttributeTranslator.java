@@ -1,5 +1,6 @@
 package uk.gov.ida.verifyserviceprovider.services;
 
+import org.opensaml.core.xml.XMLObject;
 import org.opensaml.saml.saml2.core.Attribute;
 import org.opensaml.saml.saml2.core.AttributeStatement;
 import uk.gov.ida.saml.core.extensions.StringValueSamlObject;
@@ -13,72 +14,89 @@ import uk.gov.ida.verifyserviceprovider.dto.VerifiableAttribute;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 import static java.util.stream.Collectors.toList;
 
 public class AttributeTranslator {
 
     public static Attributes translateAttributes(AttributeStatement attributeStatement) {
-        List<Attribute> statementAttributes = attributeStatement.getAttributes();
+        Map<String, Attribute> statementAttributes = indexByName(attributeStatement.getAttributes());
 
         VerifiableAttribute<String> verifiableFirstName = getVerifiableStringAttribute(statementAttributes, "firstname", "firstname_verified");
         VerifiableAttribute<String> verifiableMiddleName = getVerifiableStringAttribute(statementAttributes, "middlename", "middlename_verified");
         VerifiableAttribute<String> verifiableSurname = getVerifiableStringAttribute(statementAttributes, "surname", "surname_verified");
         VerifiableAttribute<LocalDate> verifiableDob = getVerifiableDateAttribute(statementAttributes, "dateofbirth", "dateofbirth_verified");
         VerifiableAttribute<Address> verifiableAddress = getVerifiableAddressAttribute(statementAttributes, "currentaddress", "currentaddress_verified");
-        Optional<List<VerifiableAttribute<Address>>> addressHistory = getVerifiableAddressListAttribute(statementAttributes, "addresshistory");
+        List<VerifiableAttribute<Address>> addressHistory = getVerifiableAddressListAttribute(statementAttributes, "addresshistory");
         Optional<String> cycle3 = getStringAttributeValue(statementAttributes, "cycle_3");
-        return new Attributes(verifiableFirstName, verifiableMiddleName, verifiableSurname, verifiableDob, verifiableAddress, addressHistory.orElse(null), cycle3.orElse(null));
+        return new Attributes(verifiableFirstName, verifiableMiddleName, verifiableSurname, verifiableDob, verifiableAddress, addressHistory, cycle3.orElse(null));
     }
 
-    private static VerifiableAttribute<String> getVerifiableStringAttribute(List<Attribute> statementAttributes, String attributeName, String attributeVerifiedName) {
+    /**
+     * Indexes the attributes by name in one pass. Where more than one attribute has the same name the first is used.
+     */
+    private static Map<String, Attribute> indexByName(List<Attribute> attributes) {
+        Map<String, Attribute> attributesByName = new HashMap<>();
+        for (Attribute attribute : attributes) {
+            attributesByName.putIfAbsent(attribute.getName(), attribute);
+        }
+        return attributesByName;
+    }
+
+    private static VerifiableAttribute<String> getVerifiableStringAttribute(Map<String, Attribute> statementAttributes, String attributeName, String attributeVerifiedName) {
         final Optional<String> attributeValue = getStringAttributeValue(statementAttributes, attributeName);
         final Optional<Boolean> attributeVerified = getBooleanAttributeValue(statementAttributes, attributeVerifiedName);
         return VerifiableAttribute.fromOptionals(attributeValue, attributeVerified);
     }
 
-    private static VerifiableAttribute<LocalDate> getVerifiableDateAttribute(List<Attribute> statementAttributes, String attributeName, String attributeVerifiedName) {
+    private static VerifiableAttribute<LocalDate> getVerifiableDateAttribute(Map<String, Attribute> statementAttributes, String attributeName, String attributeVerifiedName) {
         final Optional<LocalDate> attributeValue = getDateAttributeValue(statementAttributes, attributeName);
         final Optional<Boolean> attributeVerified = getBooleanAttributeValue(statementAttributes, attributeVerifiedName);
         return VerifiableAttribute.fromOptionals(attributeValue, attributeVerified);
     }
 
-    private static VerifiableAttribute<Address> getVerifiableAddressAttribute(List<Attribute> statementAttributes, String attributeName, String attributeVerifiedName) {
+    private static VerifiableAttribute<Address> getVerifiableAddressAttribute(Map<String, Attribute> statementAttributes, String attributeName, String attributeVerifiedName) {
         final Optional<Address> attributeValue = getAddressAttributeValue(statementAttributes, attributeName);
         final Optional<Boolean> attributeVerified = getBooleanAttributeValue(statementAttributes, attributeVerifiedName);
         return VerifiableAttribute.fromOptionals(attributeValue, attributeVerified);
     }
 
-    private static Optional<List<VerifiableAttribute<Address>>> getVerifiableAddressListAttribute(List<Attribute> statementAttributes, String attributeName) {
-        final Optional<Attribute> attribute = getAttribute(statementAttributes, attributeName);
-        return attribute.map(
-            attr -> attr.getAttributeValues().stream().map(
-                val -> toVerifiableAddress((AddressImpl) val)
-            ).collect(Collectors.toList())
-        );
-    }
-
-    private static Optional<Attribute> getAttribute(List<Attribute> attributes, String name) {
-        return attributes.stream().filter(a -> a.getName().equals(name)).findFirst();
+    private static List<VerifiableAttribute<Address>> getVerifiableAddressListAttribute(Map<String, Attribute> statementAttributes, String attributeName) {
+        final Attribute attribute = statementAttributes.get(attributeName);
+        if (attribute == null) {
+            return null;
+        }
+        final List<XMLObject> attributeValues = attribute.getAttributeValues();
+        final List<VerifiableAttribute<Address>> addresses = new ArrayList<>(attributeValues.size());
+        for (XMLObject attributeValue : attributeValues) {
+            addresses.add(toVerifiableAddress((AddressImpl) attributeValue));
+        }
+        return addresses;
     }
 
-    private static Optional<String> getStringAttributeValue(List<Attribute> attributes, String attributeName) {
-        final Optional<Attribute> attribute = getAttribute(attributes, attributeName);
-        return attribute.map(attr -> {
-            StringValueSamlObject attributeValue = ((StringValueSamlObject) attr.getAttributeValues().get(0));
-            return Optional.ofNullable(attributeValue.getValue()).orElse("");
-        });
+    private static Optional<String> getStringAttributeValue(Map<String, Attribute> attributes, String attributeName) {
+        final Attribute attribute = attributes.get(attributeName);
+        if (attribute == null) {
+            return Optional.empty();
+        }
+        final String attributeValue = ((StringValueSamlObject) attribute.getAttributeValues().get(0)).getValue();
+        return Optional.of(attributeValue == null ? "" : attributeValue);
     }
 
-    private static Optional<Boolean> getBooleanAttributeValue(List<Attribute> attributes, String attributeName) {
-        final Optional<Attribute> attribute = getAttribute(attributes, attributeName);
-        return attribute.map(attr -> ((Verified) attr.getAttributeValues().get(0)).getValue());
+    private static Optional<Boolean> getBooleanAttributeValue(Map<String, Attribute> attributes, String attributeName) {
+        final Attribute attribute = attributes.get(attributeName);
+        if (attribute == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(((Verified) attribute.getAttributeValues().get(0)).getValue());
     }
 
-    private static Optional<LocalDate> getDateAttributeValue(List<Attribute> attributes, String attributeName) {
+    private static Optional<LocalDate> getDateAttributeValue(Map<String, Attribute> attributes, String attributeName) {
         return getStringAttributeValue(attributes, attributeName).map(x -> {
             try {
                 return LocalDate.parse(x, DateTimeFormatter.ISO_DATE);
@@ -92,9 +110,12 @@ public class AttributeTranslator {
         });
     }
 
-    private static Optional<Address> getAddressAttributeValue(List<Attribute> attributes, String attributeName) {
-        final Optional<Attribute> attribute = getAttribute(attributes, attributeName);
-        return attribute.map(attr -> toAddress((AddressImpl) attr.getAttributeValues().get(0)));
+    private static Optional<Address> getAddressAttributeValue(Map<String, Attribute> attributes, String attributeName) {
+        final Attribute attribute = attributes.get(attributeName);
+        if (attribute == null) {
+            return Optional.empty();
+        }
+        return Optional.of(toAddress((AddressImpl) attribute.getAttributeValues().get(0)));
     }
 
     private static Address toAddress(AddressImpl address) {
@@ -0,0 +1,49 @@
+package uk.gov.ida.verifyserviceprovider.services;
+
+import org.opensaml.saml.saml2.core.Assertion;
+import uk.gov.ida.saml.core.validation.SamlResponseValidationException;
+import uk.gov.ida.verifyserviceprovider.services.AssertionClassifier.AssertionType;
+
+/**
+ * The assertions of a response sorted by AssertionClassifier in a single pass. Only the first assertion of each
+ * type is kept, along with how many there were, which is all that's needed to insist on exactly one of each.
+ */
+public class ClassifiedAssertions {
+
+    private Assertion authnAssertion;
+    private int authnAssertionCount;
+    private Assertion matchingDatasetAssertion;
+    private int matchingDatasetAssertionCount;
+
+    void add(AssertionType assertionType, Assertion assertion) {
+        switch (assertionType) {
+            case AUTHN_ASSERTION:
+                if (authnAssertionCount++ == 0) {
+                    authnAssertion = assertion;
+                }
+                break;
+            case MDS_ASSERTION:
+                if (matchingDatasetAssertionCount++ == 0) {
+                    matchingDatasetAssertion = assertion;
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown assertion type " + assertionType);
+        }
+    }
+
+    public Assertion getAuthnAssertion() {
+        return exactlyOne(authnAssertion, authnAssertionCount, "Exactly one authn statement is expected.");
+    }
+
+    public Assertion getMatchingDatasetAssertion() {
+        return exactlyOne(matchingDatasetAssertion, matchingDatasetAssertionCount, "Exactly one matching dataset assertion is expected.");
+    }
+
+    private static Assertion exactlyOne(Assertion assertion, int count, String message) {
+        if (count != 1) {
+            throw new SamlResponseValidationException(message);
+        }
+        return assertion;
+    }
+}
@@ -0,0 +1,157 @@
+package uk.gov.ida.verifyserviceprovider.services;
+
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.common.util.concurrent.ExecutionError;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import org.joda.time.Duration;
+import uk.gov.ida.verifyserviceprovider.dto.LevelOfAssurance;
+import uk.gov.ida.verifyserviceprovider.dto.TranslatedResponseBody;
+
+import javax.crypto.Cipher;
+import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Keeps the bodies of recent translations in memory for a fixed time, keyed by a SHA-256 of the SAML response,
+ * request ID, level of assurance and entity ID they were translated with. A retry that arrives while the first
+ * translation is still running waits for it rather than starting another.
+ *
+ * Each body is held as JSON encrypted with AES-GCM under a key generated when the cache is created, which is never
+ * written anywhere, so nothing in the cache can be read once the VSP has stopped. Failed translations are not cached.
+ */
+public class EncryptedTranslationCache implements TranslationCache {
+
+    private static final String CIPHER = "AES/GCM/NoPadding";
+    private static final int KEY_SIZE = 256;
+    private static final int IV_LENGTH = 12;
+    private static final int TAG_LENGTH = 128;
+
+    private final Cache<HashCode, EncryptedTranslation> translations;
+    private final ObjectMapper objectMapper;
+    private final SecretKey key;
+    private final SecureRandom secureRandom = new SecureRandom();
+    private final Meter hits;
+    private final Meter misses;
+
+    public EncryptedTranslationCache(int maxEntries, Duration timeToLive, ObjectMapper objectMapper, MetricRegistry metricRegistry) {
+        this.translations = CacheBuilder.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(timeToLive.getMillis(), TimeUnit.MILLISECONDS)
+                .build();
+        this.objectMapper = objectMapper;
+        this.key = generateKey();
+        this.hits = metricRegistry.meter(MetricRegistry.name(TranslationCache.class, "hits"));
+        this.misses = metricRegistry.meter(MetricRegistry.name(TranslationCache.class, "misses"));
+    }
+
+    @Override
+    public TranslatedResponseBody get(
+            String samlResponse,
+            String expectedInResponseTo,
+            LevelOfAssurance expectedLevelOfAssurance,
+            String entityId,
+            Supplier<TranslatedResponseBody> translation) {
+        HashCode cacheKey = cacheKey(samlResponse, expectedInResponseTo, expectedLevelOfAssurance, entityId);
+        TranslatedResponseBody[] translated = new TranslatedResponseBody[1];
+
+        EncryptedTranslation encryptedTranslation;
+        try {
+            encryptedTranslation = translations.get(cacheKey, () -> {
+                translated[0] = translation.get();
+                return encrypt(cacheKey, translated[0]);
+            });
+        } catch (ExecutionException | UncheckedExecutionException | ExecutionError e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw new IllegalStateException("Could not cache translation", e.getCause());
+        }
+
+        if (translated[0] != null) {
+            misses.mark();
+            return translated[0];
+        }
+        hits.mark();
+        return decrypt(cacheKey, encryptedTranslation);
+    }
+
+    private static HashCode cacheKey(String samlResponse, String expectedInResponseTo, LevelOfAssurance expectedLevelOfAssurance, String entityId) {
+        Hasher hasher = Hashing.sha256().newHasher();
+        putField(hasher, samlResponse);
+        putField(hasher, expectedInResponseTo);
+        putField(hasher, expectedLevelOfAssurance == null ? null : expectedLevelOfAssurance.name());
+        putField(hasher, entityId);
+        return hasher.hash();
+    }
+
+    // Each field is prefixed with its length so that no two different requests hash the same input
+    private static void putField(Hasher hasher, String field) {
+        if (field == null) {
+            hasher.putInt(-1);
+        } else {
+            hasher.putInt(field.length()).putString(field, UTF_8);
+        }
+    }
+
+    private EncryptedTranslation encrypt(HashCode cacheKey, TranslatedResponseBody body) throws IOException, GeneralSecurityException {
+        byte[] iv = new byte[IV_LENGTH];
+        secureRandom.nextBytes(iv);
+        Cipher cipher = Cipher.getInstance(CIPHER);
+        cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(TAG_LENGTH, iv));
+        cipher.updateAAD(cacheKey.asBytes());
+        return new EncryptedTranslation(body.getClass(), iv, cipher.doFinal(objectMapper.writeValueAsBytes(body)));
+    }
+
+    private TranslatedResponseBody decrypt(HashCode cacheKey, EncryptedTranslation encryptedTranslation) {
+        try {
+            Cipher cipher = Cipher.getInstance(CIPHER);
+            cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(TAG_LENGTH, encryptedTranslation.iv));
+            cipher.updateAAD(cacheKey.asBytes());
+            return objectMapper.readValue(cipher.doFinal(encryptedTranslation.ciphertext), encryptedTranslation.type);
+        } catch (IOException | GeneralSecurityException e) {
+            throw new IllegalStateException("Could not read cached translation", e);
+        }
+    }
+
+    private static SecretKey generateKey() {
+        try {
+            KeyGenerator keyGenerator = KeyGenerator.getInstance("AES");
+            keyGenerator.init(KEY_SIZE);
+            return keyGenerator.generateKey();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Could not generate translation cache key", e);
+        }
+    }
+
+    private static class EncryptedTranslation {
+        private final Class<? extends TranslatedResponseBody> type;
+        private final byte[] iv;
+        private final byte[] ciphertext;
+
+        private EncryptedTranslation(Class<? extends TranslatedResponseBody> type, byte[] iv, byte[] ciphertext) {
+            this.type = type;
+            this.iv = iv;
+            this.ciphertext = ciphertext;
+        }
+    }
+}
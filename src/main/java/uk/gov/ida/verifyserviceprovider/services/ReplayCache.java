@@ -0,0 +1,34 @@
+package uk.gov.ida.verifyserviceprovider.services;
+
+import org.joda.time.DateTime;
+
+/**
+ * Remembers the IDs of responses and assertions that have already been translated, until they would be rejected
+ * as too old anyway, so that ResponseService can reject a replay of one before doing any expensive work on it.
+ */
+public interface ReplayCache {
+
+    ReplayCache NONE = new ReplayCache() {
+        @Override
+        public boolean contains(String id) {
+            return false;
+        }
+
+        @Override
+        public boolean add(String id, DateTime notOnOrAfter) {
+            return true;
+        }
+    };
+
+    /**
+     * @return true if the ID has been added and hasn't expired yet
+     */
+    boolean contains(String id);
+
+    /**
+     * Adds an ID that was taken from a verified response, to be kept until notOnOrAfter.
+     *
+     * @return false if the ID had already been added and hasn't expired yet
+     */
+    boolean add(String id, DateTime notOnOrAfter);
+}
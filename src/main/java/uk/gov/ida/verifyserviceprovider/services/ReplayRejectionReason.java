@@ -0,0 +1,22 @@
+package uk.gov.ida.verifyserviceprovider.services;
+
+import uk.gov.ida.verifyserviceprovider.validators.RejectionReason;
+
+/**
+ * The reasons ResponseService rejects a response whose ID, or one of whose assertions' IDs, is in the ReplayCache.
+ */
+public enum ReplayRejectionReason implements RejectionReason {
+    RESPONSE_REPLAYED("Response with ID %s has already been translated."),
+    ASSERTION_REPLAYED("Assertion with ID %s has already been translated.");
+
+    private final String messageFormat;
+
+    ReplayRejectionReason(String messageFormat) {
+        this.messageFormat = messageFormat;
+    }
+
+    @Override
+    public String getMessageFormat() {
+        return messageFormat;
+    }
+}
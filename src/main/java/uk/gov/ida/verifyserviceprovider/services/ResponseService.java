@@ -1,8 +1,11 @@
 package uk.gov.ida.verifyserviceprovider.services;
 
+import org.joda.time.DateTime;
 import org.opensaml.saml.saml2.core.Assertion;
 import org.opensaml.saml.saml2.core.Response;
 import org.opensaml.saml.saml2.core.StatusCode;
+import org.opensaml.saml.saml2.core.SubjectConfirmation;
+import org.opensaml.saml.saml2.core.SubjectConfirmationData;
 import org.opensaml.saml.saml2.metadata.SPSSODescriptor;
 import uk.gov.ida.saml.core.validation.SamlResponseValidationException;
 import uk.gov.ida.saml.deserializers.StringToOpenSamlObjectTransformer;
@@ -11,33 +14,56 @@ import uk.gov.ida.saml.security.validators.ValidatedResponse;
 import uk.gov.ida.saml.security.validators.signature.SamlResponseSignatureValidator;
 import uk.gov.ida.verifyserviceprovider.dto.LevelOfAssurance;
 import uk.gov.ida.verifyserviceprovider.dto.TranslatedResponseBody;
+import uk.gov.ida.verifyserviceprovider.metrics.TranslationTimers;
+import uk.gov.ida.verifyserviceprovider.utils.TranslationClock;
 import uk.gov.ida.verifyserviceprovider.validators.InstantValidator;
+import uk.gov.ida.verifyserviceprovider.validators.ResponsePreValidator;
+import uk.gov.ida.verifyserviceprovider.validators.SamlValidationRejections;
 
 import java.util.List;
 
+import static java.util.Collections.emptyList;
+import static uk.gov.ida.verifyserviceprovider.services.ReplayRejectionReason.ASSERTION_REPLAYED;
+import static uk.gov.ida.verifyserviceprovider.services.ReplayRejectionReason.RESPONSE_REPLAYED;
+
 public class ResponseService {
 
     private final StringToOpenSamlObjectTransformer<Response> samlObjectTransformer;
     private final AssertionDecrypter assertionDecrypter;
     private final AssertionTranslator assertionTranslator;
     private final SamlResponseSignatureValidator responseSignatureValidator;
-    private final InstantValidator instantValidator;
+    private final ResponsePreValidator responsePreValidator;
     private final ResponderCodeTranslator responderCodeTranslator;
+    private final TranslationTimers timers;
+    private final TranslationClock clock;
+    private final TranslationCache translationCache;
+    private final ReplayCache replayCache;
+    private final SamlValidationRejections rejections;
 
     public ResponseService(
             StringToOpenSamlObjectTransformer<Response> samlObjectTransformer,
             AssertionDecrypter assertionDecrypter,
             AssertionTranslator assertionTranslator,
             SamlResponseSignatureValidator responseSignatureValidator,
-            InstantValidator instantValidator,
-            ResponderCodeTranslator responderCodeTranslator
+            ResponsePreValidator responsePreValidator,
+            ResponderCodeTranslator responderCodeTranslator,
+            TranslationTimers timers,
+            TranslationClock clock,
+            TranslationCache translationCache,
+            ReplayCache replayCache,
+            SamlValidationRejections rejections
     ) {
         this.samlObjectTransformer = samlObjectTransformer;
         this.assertionDecrypter = assertionDecrypter;
         this.assertionTranslator = assertionTranslator;
         this.responseSignatureValidator = responseSignatureValidator;
-        this.instantValidator = instantValidator;
+        this.responsePreValidator = responsePreValidator;
         this.responderCodeTranslator = responderCodeTranslator;
+        this.timers = timers;
+        this.clock = clock;
+        this.translationCache = translationCache;
+        this.replayCache = replayCache;
+        this.rejections = rejections;
     }
 
     public TranslatedResponseBody convertTranslatedResponseBody(
@@ -46,28 +72,89 @@ public class ResponseService {
         LevelOfAssurance expectedLevelOfAssurance,
         String entityId
     ) {
-        Response response = samlObjectTransformer.apply(decodedSamlResponse);
-        ValidatedResponse validatedResponse = responseSignatureValidator.validate(response, SPSSODescriptor.DEFAULT_ELEMENT_NAME);
+        return translationCache.get(decodedSamlResponse, expectedInResponseTo, expectedLevelOfAssurance, entityId,
+            // Every time in the response is validated against the instant the translation started
+            () -> clock.atSnapshot(() -> translate(decodedSamlResponse, expectedInResponseTo, expectedLevelOfAssurance, entityId)));
+    }
 
-        if (!expectedInResponseTo.equals(validatedResponse.getInResponseTo())) {
-            throw new SamlResponseValidationException(
-                String.format("Expected InResponseTo to be %s, but was %s", expectedInResponseTo, response.getInResponseTo())
-            );
-        }
+    private TranslatedResponseBody translate(
+        String decodedSamlResponse,
+        String expectedInResponseTo,
+        LevelOfAssurance expectedLevelOfAssurance,
+        String entityId
+    ) {
+        Response response = timers.getUnmarshal().timeSupplier(() -> samlObjectTransformer.apply(decodedSamlResponse));
+
+        // Rejects stale, mismatched and malformed responses before the signature is checked. Everything it looked at
+        // is covered by the signature, so nothing below is read from the response until that has been validated.
+        timers.getResponseValidation().time(() -> responsePreValidator.validate(response, expectedInResponseTo));
 
-        instantValidator.validate(validatedResponse.getIssueInstant(), "Response IssueInstant");
+        rejectIfReplayed(response.getID(), RESPONSE_REPLAYED);
 
+        ValidatedResponse validatedResponse = timers.getResponseSignatureValidation().timeSupplier(
+            () -> responseSignatureValidator.validate(response, SPSSODescriptor.DEFAULT_ELEMENT_NAME)
+        );
+
+        DateTime responseNotOnOrAfter = response.getIssueInstant().plus(InstantValidator.MAXIMUM_INSTANT_AGE_MILLIS);
         StatusCode statusCode = validatedResponse.getStatus().getStatusCode();
 
         switch (statusCode.getValue()) {
             case StatusCode.RESPONDER:
-                return responderCodeTranslator.translateResponderCode(statusCode);
+                TranslatedResponseBody responderResponseBody = responderCodeTranslator.translateResponderCode(statusCode);
+                recordTranslated(response.getID(), responseNotOnOrAfter, emptyList());
+                return responderResponseBody;
             case StatusCode.SUCCESS:
-                List<Assertion> assertions = assertionDecrypter.decryptAssertions(validatedResponse);
-                return assertionTranslator.translateSuccessResponse(assertions, expectedInResponseTo, expectedLevelOfAssurance, entityId);
+                List<Assertion> assertions = timers.getDecryption().timeSupplier(() -> assertionDecrypter.decryptAssertions(validatedResponse));
+                for (Assertion assertion : assertions) {
+                    rejectIfReplayed(assertion.getID(), ASSERTION_REPLAYED);
+                }
+                TranslatedResponseBody translatedResponseBody = timers.getAssertionTranslation().timeSupplier(
+                    () -> assertionTranslator.translateSuccessResponse(assertions, expectedInResponseTo, expectedLevelOfAssurance, entityId)
+                );
+                recordTranslated(response.getID(), responseNotOnOrAfter, assertions);
+                return translatedResponseBody;
             default:
                 throw new SamlResponseValidationException(String.format("Unknown SAML status: %s", statusCode.getValue()));
         }
     }
 
+    private void rejectIfReplayed(String id, ReplayRejectionReason reason) {
+        if (id != null && replayCache.contains(id)) {
+            throw rejections.reject(reason, id);
+        }
+    }
+
+    // IDs are only added once the response has been verified and translated, so that neither a forged response nor
+    // a genuine one that failed part way through can have a later translation rejected. Adding is the atomic check,
+    // so when two copies of a response are translated at once only one of them is returned.
+    private void recordTranslated(String responseId, DateTime responseNotOnOrAfter, List<Assertion> assertions) {
+        addOrRejectIfReplayed(responseId, responseNotOnOrAfter, RESPONSE_REPLAYED);
+        for (Assertion assertion : assertions) {
+            addOrRejectIfReplayed(assertion.getID(), getNotOnOrAfter(assertion, responseNotOnOrAfter), ASSERTION_REPLAYED);
+        }
+    }
+
+    private void addOrRejectIfReplayed(String id, DateTime notOnOrAfter, ReplayRejectionReason reason) {
+        if (id != null && !replayCache.add(id, notOnOrAfter)) {
+            throw rejections.reject(reason, id);
+        }
+    }
+
+    // An assertion is kept for as long as any of its subject confirmations would be accepted, and no less time than
+    // the response it came in
+    private static DateTime getNotOnOrAfter(Assertion assertion, DateTime responseNotOnOrAfter) {
+        DateTime notOnOrAfter = responseNotOnOrAfter;
+        if (assertion.getSubject() == null) {
+            return notOnOrAfter;
+        }
+        for (SubjectConfirmation subjectConfirmation : assertion.getSubject().getSubjectConfirmations()) {
+            SubjectConfirmationData subjectConfirmationData = subjectConfirmation.getSubjectConfirmationData();
+            if (subjectConfirmationData != null && subjectConfirmationData.getNotOnOrAfter() != null
+                    && subjectConfirmationData.getNotOnOrAfter().isAfter(notOnOrAfter)) {
+                notOnOrAfter = subjectConfirmationData.getNotOnOrAfter();
+            }
+        }
+        return notOnOrAfter;
+    }
+
 }
@@ -0,0 +1,95 @@
+package uk.gov.ida.verifyserviceprovider.services;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import org.joda.time.DateTime;
+import org.joda.time.Duration;
+import uk.gov.ida.verifyserviceprovider.utils.TranslationClock;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+
+import static com.codahale.metrics.MetricRegistry.name;
+
+/**
+ * A ReplayCache that holds each ID until its NotOnOrAfter, plus the clock skew the validators allow. IDs are also
+ * indexed by the ten second bucket they expire in, and whenever the cache is used every bucket that has completely
+ * expired is dropped, so there's no background thread and nothing is ever scanned that isn't due to go.
+ *
+ * Everything is held in concurrent maps rather than behind a lock. Adding an ID is a single putIfAbsent, so when
+ * two copies of the same response are translated at once only one of them can add its IDs.
+ */
+public class TimeBucketedReplayCache implements ReplayCache {
+
+    private static final long BUCKET_MILLIS = TimeUnit.SECONDS.toMillis(10);
+
+    private final ConcurrentMap<String, Long> expiries = new ConcurrentHashMap<>();
+    private final ConcurrentNavigableMap<Long, Set<String>> buckets = new ConcurrentSkipListMap<>();
+    private final long clockSkewMillis;
+    private final TranslationClock clock;
+    private final Meter hits;
+    private final Meter misses;
+
+    public TimeBucketedReplayCache(Duration clockSkew, TranslationClock clock, MetricRegistry metricRegistry) {
+        this.clockSkewMillis = clockSkew.getMillis();
+        this.clock = clock;
+        this.hits = metricRegistry.meter(name(ReplayCache.class, "hits"));
+        this.misses = metricRegistry.meter(name(ReplayCache.class, "misses"));
+        metricRegistry.register(name(ReplayCache.class, "size"), (Gauge<Integer>) expiries::size);
+    }
+
+    @Override
+    public boolean contains(String id) {
+        long now = clock.nowMillis();
+        evictExpiredBuckets(now);
+        Long expiry = expiries.get(id);
+        if (expiry != null && expiry > now) {
+            hits.mark();
+            return true;
+        }
+        misses.mark();
+        return false;
+    }
+
+    @Override
+    public boolean add(String id, DateTime notOnOrAfter) {
+        long now = clock.nowMillis();
+        long expiry = notOnOrAfter.getMillis() + clockSkewMillis;
+        evictExpiredBuckets(now);
+
+        Long existing;
+        while ((existing = expiries.putIfAbsent(id, expiry)) != null) {
+            if (existing > now) {
+                hits.mark();
+                return false;
+            }
+            if (expiries.replace(id, existing, expiry)) {
+                break;
+            }
+        }
+        buckets.computeIfAbsent(bucket(expiry), bucket -> ConcurrentHashMap.newKeySet()).add(id);
+        return true;
+    }
+
+    private void evictExpiredBuckets(long now) {
+        Map.Entry<Long, Set<String>> oldest;
+        while ((oldest = buckets.firstEntry()) != null && oldest.getKey() + BUCKET_MILLIS <= now) {
+            if (buckets.remove(oldest.getKey(), oldest.getValue())) {
+                for (String id : oldest.getValue()) {
+                    // The ID may have been added again since, with a later expiry
+                    expiries.computeIfPresent(id, (key, expiry) -> expiry <= now ? null : expiry);
+                }
+            }
+        }
+    }
+
+    private static long bucket(long expiry) {
+        return expiry - Math.floorMod(expiry, BUCKET_MILLIS);
+    }
+}
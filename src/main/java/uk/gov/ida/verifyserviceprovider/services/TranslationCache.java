@@ -0,0 +1,22 @@
+package uk.gov.ida.verifyserviceprovider.services;
+
+import uk.gov.ida.verifyserviceprovider.dto.LevelOfAssurance;
+import uk.gov.ida.verifyserviceprovider.dto.TranslatedResponseBody;
+
+import java.util.function.Supplier;
+
+/**
+ * Gives ResponseService the result of an earlier translation of exactly the same request, so that a client retrying
+ * a translation doesn't have the response parsed, verified and decrypted again.
+ */
+public interface TranslationCache {
+
+    TranslationCache NONE = (samlResponse, expectedInResponseTo, expectedLevelOfAssurance, entityId, translation) -> translation.get();
+
+    TranslatedResponseBody get(
+            String samlResponse,
+            String expectedInResponseTo,
+            LevelOfAssurance expectedLevelOfAssurance,
+            String entityId,
+            Supplier<TranslatedResponseBody> translation);
+}
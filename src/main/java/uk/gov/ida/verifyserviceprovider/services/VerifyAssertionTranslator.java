@@ -1,5 +1,6 @@
 package uk.gov.ida.verifyserviceprovider.services;
 
+import com.google.common.util.concurrent.MoreExecutors;
 import org.opensaml.saml.common.SAMLVersion;
 import org.opensaml.saml.saml2.core.Assertion;
 import org.opensaml.saml.saml2.metadata.IDPSSODescriptor;
@@ -11,16 +12,17 @@ import uk.gov.ida.saml.hub.factories.UserIdHashFactory;
 import uk.gov.ida.saml.security.SamlAssertionsSignatureValidator;
 import uk.gov.ida.verifyserviceprovider.dto.LevelOfAssurance;
 import uk.gov.ida.verifyserviceprovider.dto.TranslatedNonMatchingResponseBody;
-import uk.gov.ida.verifyserviceprovider.services.AssertionClassifier.AssertionType;
 import uk.gov.ida.verifyserviceprovider.validators.LevelOfAssuranceValidator;
 import uk.gov.ida.verifyserviceprovider.validators.SubjectValidator;
 
 import javax.xml.namespace.QName;
 import java.util.Arrays;
-import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 import java.util.stream.Collectors;
 
 import static java.util.Collections.singletonList;
@@ -29,10 +31,14 @@ import static uk.gov.ida.saml.core.validation.errors.GenericHubProfileValidation
 
 public class VerifyAssertionTranslator extends IdentityAssertionTranslator {
 
+    private static final Map<String, uk.gov.ida.saml.core.domain.AuthnContext> AUTHN_CONTEXTS_BY_URI = Arrays.stream(uk.gov.ida.saml.core.domain.AuthnContext.values())
+            .collect(Collectors.toMap(uk.gov.ida.saml.core.domain.AuthnContext::getUri, ctx -> ctx, (first, second) -> first));
+
     private final SamlAssertionsSignatureValidator assertionsSignatureValidator;
     private final AssertionAttributeStatementValidator attributeStatementValidator;
     private final AssertionClassifier assertionClassifierService;
     private final LevelOfAssuranceValidator levelOfAssuranceValidator;
+    private final Executor assertionValidationExecutor;
 
     public VerifyAssertionTranslator(
             SamlAssertionsSignatureValidator assertionsSignatureValidator,
@@ -43,17 +49,45 @@ public class VerifyAssertionTranslator extends IdentityAssertionTranslator {
             MatchingDatasetToNonMatchingAttributesMapper mdsMapper,
             LevelOfAssuranceValidator levelOfAssuranceValidator,
             UserIdHashFactory userIdHashFactory) {
+        this(
+                assertionsSignatureValidator,
+                subjectValidator,
+                attributeStatementValidator,
+                matchingDatasetUnmarshaller,
+                assertionClassifierService,
+                mdsMapper,
+                levelOfAssuranceValidator,
+                userIdHashFactory,
+                MoreExecutors.directExecutor());
+    }
+
+    /**
+     * @param assertionValidationExecutor runs the validation of the matching dataset assertion, including its
+     *                                    signature, while the authn assertion is validated on the calling thread
+     */
+    public VerifyAssertionTranslator(
+            SamlAssertionsSignatureValidator assertionsSignatureValidator,
+            SubjectValidator subjectValidator,
+            AssertionAttributeStatementValidator attributeStatementValidator,
+            MatchingDatasetUnmarshaller matchingDatasetUnmarshaller,
+            AssertionClassifier assertionClassifierService,
+            MatchingDatasetToNonMatchingAttributesMapper mdsMapper,
+            LevelOfAssuranceValidator levelOfAssuranceValidator,
+            UserIdHashFactory userIdHashFactory,
+            Executor assertionValidationExecutor) {
         super(userIdHashFactory, subjectValidator, matchingDatasetUnmarshaller, mdsMapper);
         this.assertionsSignatureValidator = assertionsSignatureValidator;
         this.attributeStatementValidator = attributeStatementValidator;
         this.assertionClassifierService = assertionClassifierService;
         this.levelOfAssuranceValidator = levelOfAssuranceValidator;
+        this.assertionValidationExecutor = assertionValidationExecutor;
     }
 
     @Override
     public TranslatedNonMatchingResponseBody translateSuccessResponse(List<Assertion> assertions, String expectedInResponseTo, LevelOfAssurance expectedLevelOfAssurance, String entityId) {
-        final Assertion authnAssertion = getAuthnAssertion(assertions);
-        final Assertion mdsAssertion = getMatchingDatasetAssertion(assertions);
+        final ClassifiedAssertions classifiedAssertions = assertionClassifierService.classifyAssertions(assertions);
+        final Assertion authnAssertion = classifiedAssertions.getAuthnAssertion();
+        final Assertion mdsAssertion = classifiedAssertions.getMatchingDatasetAssertion();
         final LevelOfAssurance levelOfAssurance = extractLevelOfAssuranceFrom(authnAssertion);
 
         validate(authnAssertion, mdsAssertion, expectedInResponseTo, expectedLevelOfAssurance, levelOfAssurance);
@@ -63,8 +97,11 @@ public class VerifyAssertionTranslator extends IdentityAssertionTranslator {
 
     public void validate(Assertion authnAssertion, Assertion mdsAssertion, String requestId, LevelOfAssurance expectedLevelOfAssurance, LevelOfAssurance levelOfAssurance) {
 
+        CompletableFuture<Void> mdsAssertionValidation = CompletableFuture.runAsync(
+                () -> validateIdpAssertion(mdsAssertion, requestId, IDPSSODescriptor.DEFAULT_ELEMENT_NAME),
+                assertionValidationExecutor);
         validateIdpAssertion(authnAssertion, requestId, IDPSSODescriptor.DEFAULT_ELEMENT_NAME);
-        validateIdpAssertion(mdsAssertion, requestId, IDPSSODescriptor.DEFAULT_ELEMENT_NAME);
+        awaitValidation(mdsAssertionValidation);
 
         levelOfAssuranceValidator.validate(levelOfAssurance, expectedLevelOfAssurance);
 
@@ -77,6 +114,17 @@ public class VerifyAssertionTranslator extends IdentityAssertionTranslator {
         }
     }
 
+    private static void awaitValidation(CompletableFuture<Void> validation) {
+        try {
+            validation.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
     public void validateIdpAssertion(Assertion assertion, String expectedInResponseTo, QName role) {
 
         if (assertion.getIssueInstant() == null) {
@@ -104,34 +152,8 @@ public class VerifyAssertionTranslator extends IdentityAssertionTranslator {
         attributeStatementValidator.validate(assertion);
     }
 
-    private Assertion getAuthnAssertion(Collection<Assertion> assertions) {
-        Map<AssertionType, List<Assertion>> assertionMap = assertions.stream()
-                .collect(Collectors.groupingBy(assertionClassifierService::classifyAssertion));
-
-        List<Assertion> authnAssertions = assertionMap.get(AssertionType.AUTHN_ASSERTION);
-        if (authnAssertions == null || authnAssertions.size() != 1) {
-            throw new SamlResponseValidationException("Exactly one authn statement is expected.");
-        }
-
-        return authnAssertions.get(0);
-    }
-
-    private Assertion getMatchingDatasetAssertion(Collection<Assertion> assertions) {
-        Map<AssertionType, List<Assertion>> assertionMap = assertions.stream()
-                .collect(Collectors.groupingBy(assertionClassifierService::classifyAssertion));
-
-        List<Assertion> mdsAssertions = assertionMap.get(AssertionType.MDS_ASSERTION);
-        if (mdsAssertions == null || mdsAssertions.size() != 1) {
-            throw new SamlResponseValidationException("Exactly one matching dataset assertion is expected.");
-        }
-
-        return mdsAssertions.get(0);
-    }
-
     private Optional<uk.gov.ida.saml.core.domain.AuthnContext> getAuthnContext(String uri) {
-        return Arrays.stream(uk.gov.ida.saml.core.domain.AuthnContext.values())
-                .filter(ctx -> uri.equals(ctx.getUri()))
-                .findFirst();
+        return Optional.ofNullable(AUTHN_CONTEXTS_BY_URI.get(uri));
     }
 
     public LevelOfAssurance extractLevelOfAssuranceFrom(Assertion authnAssertion) {
@@ -6,24 +6,42 @@ import org.joda.time.Duration;
 public class DateTimeComparator {
 
     public DateTimeComparator(Duration clockSkew) {
-        this.clockSkew = clockSkew;
+        this(clockSkew, TranslationClock.systemUTC());
     }
 
-    private final Duration clockSkew;
+    public DateTimeComparator(Duration clockSkew, TranslationClock clock) {
+        this.clockSkewMillis = clockSkew.getMillis();
+        this.clock = clock;
+    }
+
+    private final long clockSkewMillis;
+    private final TranslationClock clock;
+
+    public TranslationClock getClock() {
+        return clock;
+    }
 
     public boolean isAfterFuzzy(DateTime source, DateTime target) {
-        return source.isAfter(target.minus(clockSkew));
+        return isAfterFuzzy(source.getMillis(), target.getMillis());
     }
 
     public boolean isBeforeFuzzy(DateTime source, DateTime target) {
-        return source.isBefore(target.plus(clockSkew));
+        return isBeforeFuzzy(source.getMillis(), target.getMillis());
     }
 
     public boolean isBeforeNow(DateTime dateTime) {
-        return !isBeforeFuzzy(DateTime.now(), dateTime);
+        return !isBeforeFuzzy(clock.nowMillis(), dateTime.getMillis());
     }
 
     public boolean isAfterNow(DateTime dateTime) {
-        return !isAfterFuzzy(DateTime.now(), dateTime);
+        return !isAfterFuzzy(clock.nowMillis(), dateTime.getMillis());
+    }
+
+    private boolean isAfterFuzzy(long sourceMillis, long targetMillis) {
+        return sourceMillis > targetMillis - clockSkewMillis;
+    }
+
+    private boolean isBeforeFuzzy(long sourceMillis, long targetMillis) {
+        return sourceMillis < targetMillis + clockSkewMillis;
     }
 }
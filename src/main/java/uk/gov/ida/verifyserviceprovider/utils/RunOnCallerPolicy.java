@@ -0,0 +1,17 @@
+package uk.gov.ida.verifyserviceprovider.utils;
+
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Runs a task the executor can't take on the thread that submitted it. Unlike ThreadPoolExecutor.CallerRunsPolicy
+ * it does so after the executor has been shut down too, rather than dropping the task, so that a translation waiting
+ * on the task always finishes.
+ */
+public class RunOnCallerPolicy implements RejectedExecutionHandler {
+
+    @Override
+    public void rejectedExecution(Runnable task, ThreadPoolExecutor executor) {
+        task.run();
+    }
+}
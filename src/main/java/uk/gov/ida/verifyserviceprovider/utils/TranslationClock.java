@@ -0,0 +1,77 @@
+package uk.gov.ida.verifyserviceprovider.utils;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+/**
+ * The clock responses are validated against. While a translation is running, every call to now() on its thread
+ * returns the instant the translation started, so the clock is read once per translation and every time in the
+ * response is checked against the same instant. Passing in a fixed Clock replays responses at that instant.
+ */
+public class TranslationClock {
+
+    private final Clock clock;
+    private final ThreadLocal<Instant> snapshot = new ThreadLocal<>();
+
+    public TranslationClock(Clock clock) {
+        this.clock = clock;
+    }
+
+    public static TranslationClock systemUTC() {
+        return new TranslationClock(Clock.systemUTC());
+    }
+
+    public Instant now() {
+        Instant now = snapshot.get();
+        return now != null ? now : clock.instant();
+    }
+
+    public long nowMillis() {
+        Instant now = snapshot.get();
+        return now != null ? now.toEpochMilli() : clock.millis();
+    }
+
+    /**
+     * Runs a translation with now() fixed at the current instant. A translation started inside another one uses
+     * the same instant as the outer one.
+     */
+    public <T> T atSnapshot(Supplier<T> translation) {
+        if (snapshot.get() != null) {
+            return translation.get();
+        }
+        return atInstant(clock.instant(), translation);
+    }
+
+    /**
+     * Wraps an executor so that work handed to it during a translation sees the same now() as the translation.
+     */
+    public Executor propagatingTo(Executor executor) {
+        return command -> {
+            Instant now = snapshot.get();
+            if (now == null) {
+                executor.execute(command);
+            } else {
+                executor.execute(() -> atInstant(now, () -> {
+                    command.run();
+                    return null;
+                }));
+            }
+        };
+    }
+
+    private <T> T atInstant(Instant now, Supplier<T> work) {
+        Instant previous = snapshot.get();
+        snapshot.set(now);
+        try {
+            return work.get();
+        } finally {
+            if (previous == null) {
+                snapshot.remove();
+            } else {
+                snapshot.set(previous);
+            }
+        }
+    }
+}
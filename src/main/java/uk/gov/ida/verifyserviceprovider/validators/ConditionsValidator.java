@@ -2,33 +2,46 @@ package uk.gov.ida.verifyserviceprovider.validators;
 
 import org.joda.time.DateTime;
 import org.opensaml.saml.saml2.core.Conditions;
-import uk.gov.ida.saml.core.validation.SamlResponseValidationException;
 import uk.gov.ida.saml.core.validation.conditions.AudienceRestrictionValidator;
 
+import static uk.gov.ida.verifyserviceprovider.validators.ValidationRejectionReason.CONDITIONS_MISSING;
+import static uk.gov.ida.verifyserviceprovider.validators.ValidationRejectionReason.CONDITIONS_ONE_TIME_USE;
+import static uk.gov.ida.verifyserviceprovider.validators.ValidationRejectionReason.CONDITIONS_PROXY_RESTRICTION;
+
 public class ConditionsValidator {
 
     private final TimeRestrictionValidator timeRestrictionValidator;
     private final AudienceRestrictionValidator audienceRestrictionValidator;
+    private final SamlValidationRejections rejections;
 
     public ConditionsValidator(
         TimeRestrictionValidator timeRestrictionValidator,
         AudienceRestrictionValidator audienceRestrictionValidator
+    ) {
+        this(timeRestrictionValidator, audienceRestrictionValidator, SamlValidationRejections.WITH_STACK_TRACES);
+    }
+
+    public ConditionsValidator(
+        TimeRestrictionValidator timeRestrictionValidator,
+        AudienceRestrictionValidator audienceRestrictionValidator,
+        SamlValidationRejections rejections
     ) {
         this.timeRestrictionValidator = timeRestrictionValidator;
         this.audienceRestrictionValidator = audienceRestrictionValidator;
+        this.rejections = rejections;
     }
 
     public void validate(Conditions conditionsElement, String... acceptableEntityIds) {
         if (conditionsElement == null) {
-            throw new SamlResponseValidationException("Conditions is missing from the assertion.");
+            throw rejections.reject(CONDITIONS_MISSING);
         }
 
         if (conditionsElement.getProxyRestriction() != null) {
-            throw new SamlResponseValidationException("Conditions should not contain proxy restriction element.");
+            throw rejections.reject(CONDITIONS_PROXY_RESTRICTION);
         }
 
         if (conditionsElement.getOneTimeUse() != null) {
-            throw new SamlResponseValidationException("Conditions should not contain one time use element.");
+            throw rejections.reject(CONDITIONS_ONE_TIME_USE);
         }
 
         DateTime notOnOrAfter = conditionsElement.getNotOnOrAfter();
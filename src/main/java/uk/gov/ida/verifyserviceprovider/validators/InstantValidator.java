@@ -2,36 +2,44 @@ package uk.gov.ida.verifyserviceprovider.validators;
 
 import org.joda.time.DateTime;
 import org.joda.time.Duration;
-import org.joda.time.format.PeriodFormat;
-import uk.gov.ida.saml.core.validation.SamlResponseValidationException;
 import uk.gov.ida.verifyserviceprovider.utils.DateTimeComparator;
+import uk.gov.ida.verifyserviceprovider.utils.TranslationClock;
 
-import static org.joda.time.DateTimeZone.UTC;
-import static org.joda.time.format.ISODateTimeFormat.dateHourMinuteSecond;
+import java.util.concurrent.TimeUnit;
+
+import static uk.gov.ida.verifyserviceprovider.validators.ValidationRejectionReason.INSTANT_IN_FUTURE;
+import static uk.gov.ida.verifyserviceprovider.validators.ValidationRejectionReason.INSTANT_TOO_OLD;
 
 public class InstantValidator {
 
-    private static final Duration MAXIMUM_INSTANT_AGE = Duration.standardMinutes(5);
+    public static final long MAXIMUM_INSTANT_AGE_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
     private final DateTimeComparator dateTimeComparator;
+    private final TranslationClock clock;
+    private final SamlValidationRejections rejections;
 
     public InstantValidator(DateTimeComparator dateTimeComparator) {
+        this(dateTimeComparator, dateTimeComparator.getClock());
+    }
+
+    public InstantValidator(DateTimeComparator dateTimeComparator, TranslationClock clock) {
+        this(dateTimeComparator, clock, SamlValidationRejections.WITH_STACK_TRACES);
+    }
+
+    public InstantValidator(DateTimeComparator dateTimeComparator, TranslationClock clock, SamlValidationRejections rejections) {
         this.dateTimeComparator = dateTimeComparator;
+        this.clock = clock;
+        this.rejections = rejections;
     }
 
     public void validate(DateTime instant, String instantName) {
-        Duration age = new Duration(instant, DateTime.now());
-        if (age.isLongerThan(MAXIMUM_INSTANT_AGE)) {
-            throw new SamlResponseValidationException(String.format("%s is too far in the past %s",
-                instantName,
-                PeriodFormat.getDefault().print(age.toPeriod()))
-            );
+        long ageMillis = clock.nowMillis() - instant.getMillis();
+        if (ageMillis > MAXIMUM_INSTANT_AGE_MILLIS) {
+            throw rejections.reject(INSTANT_TOO_OLD, instantName, new Duration(ageMillis));
         }
 
         if (dateTimeComparator.isAfterNow(instant)) {
-            throw new SamlResponseValidationException(String.format("%s is in the future %s",
-                instantName,
-                instant.withZone(UTC).toString(dateHourMinuteSecond()))
-            );
+            throw rejections.reject(INSTANT_IN_FUTURE, instantName, instant);
         }
     }
 }
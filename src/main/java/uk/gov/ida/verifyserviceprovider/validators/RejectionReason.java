@@ -0,0 +1,14 @@
+package uk.gov.ida.verifyserviceprovider.validators;
+
+/**
+ * Why a SamlValidationRejection was thrown. Each group of related reasons is an enum implementing this.
+ */
+public interface RejectionReason {
+
+    String name();
+
+    /**
+     * @return the format of the rejection's message, filled in with String.format from its arguments
+     */
+    String getMessageFormat();
+}
@@ -0,0 +1,53 @@
+package uk.gov.ida.verifyserviceprovider.validators;
+
+import org.opensaml.saml.saml2.core.Response;
+import org.opensaml.saml.saml2.core.Status;
+import org.opensaml.saml.saml2.core.StatusCode;
+
+import static uk.gov.ida.verifyserviceprovider.validators.ValidationRejectionReason.RESPONSE_IN_RESPONSE_TO_MISMATCH;
+import static uk.gov.ida.verifyserviceprovider.validators.ValidationRejectionReason.RESPONSE_ISSUE_INSTANT_MISSING;
+import static uk.gov.ida.verifyserviceprovider.validators.ValidationRejectionReason.RESPONSE_STATUS_CODE_MISSING;
+import static uk.gov.ida.verifyserviceprovider.validators.ValidationRejectionReason.RESPONSE_STATUS_UNKNOWN;
+
+/**
+ * Cheap checks on a Response that hasn't had its signature validated yet, so that responses which would be rejected
+ * anyway fail before any cryptographic work is done. Passing these checks says nothing about whether the response
+ * can be trusted. The signature still has to be validated before anything is read from it.
+ */
+public class ResponsePreValidator {
+
+    private final InstantValidator instantValidator;
+    private final SamlValidationRejections rejections;
+
+    public ResponsePreValidator(InstantValidator instantValidator) {
+        this(instantValidator, SamlValidationRejections.WITH_STACK_TRACES);
+    }
+
+    public ResponsePreValidator(InstantValidator instantValidator, SamlValidationRejections rejections) {
+        this.instantValidator = instantValidator;
+        this.rejections = rejections;
+    }
+
+    public void validate(Response response, String expectedInResponseTo) {
+        if (!expectedInResponseTo.equals(response.getInResponseTo())) {
+            throw rejections.reject(RESPONSE_IN_RESPONSE_TO_MISMATCH, expectedInResponseTo, response.getInResponseTo());
+        }
+
+        if (response.getIssueInstant() == null) {
+            throw rejections.reject(RESPONSE_ISSUE_INSTANT_MISSING);
+        }
+        instantValidator.validate(response.getIssueInstant(), "Response IssueInstant");
+
+        String statusCode = getStatusCodeValue(response.getStatus());
+        if (!StatusCode.SUCCESS.equals(statusCode) && !StatusCode.RESPONDER.equals(statusCode)) {
+            throw rejections.reject(RESPONSE_STATUS_UNKNOWN, statusCode);
+        }
+    }
+
+    private String getStatusCodeValue(Status status) {
+        if (status == null || status.getStatusCode() == null || status.getStatusCode().getValue() == null) {
+            throw rejections.reject(RESPONSE_STATUS_CODE_MISSING);
+        }
+        return status.getStatusCode().getValue();
+    }
+}
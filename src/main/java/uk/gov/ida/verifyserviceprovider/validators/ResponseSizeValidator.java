@@ -5,11 +5,21 @@ import uk.gov.ida.saml.deserializers.validators.SizeValidator;
 
 public class ResponseSizeValidator implements SizeValidator {
 
-    private static final int MAX_SAML_RESPONSE_LENGTH = 50000;
+    public static final int DEFAULT_MAX_SAML_RESPONSE_LENGTH = 50000;
+
+    private final int maxSamlResponseLength;
+
+    public ResponseSizeValidator() {
+        this(DEFAULT_MAX_SAML_RESPONSE_LENGTH);
+    }
+
+    public ResponseSizeValidator(int maxSamlResponseLength) {
+        this.maxSamlResponseLength = maxSamlResponseLength;
+    }
 
     @Override
     public void validate(String input) {
-        if (input.length() > MAX_SAML_RESPONSE_LENGTH) {
+        if (input.length() > maxSamlResponseLength) {
             throw new SamlResponseValidationException("SAML Response is too long.");
         }
     }
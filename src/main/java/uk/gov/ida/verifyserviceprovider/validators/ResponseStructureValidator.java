@@ -0,0 +1,106 @@
+package uk.gov.ida.verifyserviceprovider.validators;
+
+import org.opensaml.saml.saml2.core.EncryptedAssertion;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.InputStream;
+
+import static uk.gov.ida.verifyserviceprovider.validators.ValidationRejectionReason.RESPONSE_DTD;
+import static uk.gov.ida.verifyserviceprovider.validators.ValidationRejectionReason.RESPONSE_NESTED_TOO_DEEPLY;
+import static uk.gov.ida.verifyserviceprovider.validators.ValidationRejectionReason.RESPONSE_TOO_MANY_ATTRIBUTES;
+import static uk.gov.ida.verifyserviceprovider.validators.ValidationRejectionReason.RESPONSE_TOO_MANY_ELEMENTS;
+import static uk.gov.ida.verifyserviceprovider.validators.ValidationRejectionReason.RESPONSE_TOO_MANY_ENCRYPTED_ASSERTIONS;
+
+/**
+ * Checks the shape of a decoded SAML response with a single streaming pass over it, so that a response with far
+ * more elements, nesting, attributes or EncryptedAssertions than the hub would ever send is rejected before a DOM
+ * is built for it.
+ */
+public class ResponseStructureValidator {
+
+    public static final int DEFAULT_MAX_ELEMENTS = 1000;
+    public static final int DEFAULT_MAX_DEPTH = 32;
+    public static final int DEFAULT_MAX_ATTRIBUTES_PER_ELEMENT = 32;
+    public static final int DEFAULT_MAX_ENCRYPTED_ASSERTIONS = 4;
+
+    private static final XMLInputFactory XML_INPUT_FACTORY = createXmlInputFactory();
+
+    private final int maxElements;
+    private final int maxDepth;
+    private final int maxAttributesPerElement;
+    private final int maxEncryptedAssertions;
+    private final SamlValidationRejections rejections;
+
+    public ResponseStructureValidator() {
+        this(DEFAULT_MAX_ELEMENTS, DEFAULT_MAX_DEPTH, DEFAULT_MAX_ATTRIBUTES_PER_ELEMENT, DEFAULT_MAX_ENCRYPTED_ASSERTIONS);
+    }
+
+    public ResponseStructureValidator(int maxElements, int maxDepth, int maxAttributesPerElement, int maxEncryptedAssertions) {
+        this(maxElements, maxDepth, maxAttributesPerElement, maxEncryptedAssertions, SamlValidationRejections.WITH_STACK_TRACES);
+    }
+
+    public ResponseStructureValidator(
+            int maxElements,
+            int maxDepth,
+            int maxAttributesPerElement,
+            int maxEncryptedAssertions,
+            SamlValidationRejections rejections
+    ) {
+        this.maxElements = maxElements;
+        this.maxDepth = maxDepth;
+        this.maxAttributesPerElement = maxAttributesPerElement;
+        this.maxEncryptedAssertions = maxEncryptedAssertions;
+        this.rejections = rejections;
+    }
+
+    /**
+     * @throws SamlValidationRejection if the response breaks one of the limits
+     * @throws XMLStreamException if the response can't be read as XML
+     */
+    public void validate(InputStream decodedSamlResponse) throws XMLStreamException {
+        XMLStreamReader reader = XML_INPUT_FACTORY.createXMLStreamReader(decodedSamlResponse);
+        try {
+            int elements = 0;
+            int depth = 0;
+            int encryptedAssertions = 0;
+            while (reader.hasNext()) {
+                switch (reader.next()) {
+                    case XMLStreamConstants.START_ELEMENT:
+                        if (++elements > maxElements) {
+                            throw rejections.reject(RESPONSE_TOO_MANY_ELEMENTS);
+                        }
+                        if (++depth > maxDepth) {
+                            throw rejections.reject(RESPONSE_NESTED_TOO_DEEPLY);
+                        }
+                        if (reader.getAttributeCount() + reader.getNamespaceCount() > maxAttributesPerElement) {
+                            throw rejections.reject(RESPONSE_TOO_MANY_ATTRIBUTES);
+                        }
+                        if (EncryptedAssertion.DEFAULT_ELEMENT_NAME.equals(reader.getName()) && ++encryptedAssertions > maxEncryptedAssertions) {
+                            throw rejections.reject(RESPONSE_TOO_MANY_ENCRYPTED_ASSERTIONS);
+                        }
+                        break;
+                    case XMLStreamConstants.END_ELEMENT:
+                        depth--;
+                        break;
+                    case XMLStreamConstants.DTD:
+                        throw rejections.reject(RESPONSE_DTD);
+                    default:
+                        break;
+                }
+            }
+        } finally {
+            reader.close();
+        }
+    }
+
+    private static XMLInputFactory createXmlInputFactory() {
+        XMLInputFactory xmlInputFactory = XMLInputFactory.newInstance();
+        xmlInputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        xmlInputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        xmlInputFactory.setProperty(XMLInputFactory.IS_REPLACING_ENTITY_REFERENCES, false);
+        return xmlInputFactory;
+    }
+}
@@ -0,0 +1,68 @@
+package uk.gov.ida.verifyserviceprovider.validators;
+
+import org.joda.time.DateTime;
+import org.joda.time.Duration;
+import org.joda.time.format.PeriodFormat;
+import uk.gov.ida.saml.core.validation.SamlResponseValidationException;
+
+import static org.joda.time.DateTimeZone.UTC;
+import static org.joda.time.format.ISODateTimeFormat.dateHourMinuteSecond;
+
+/**
+ * A SamlResponseValidationException for a response that fails validation in a way we expect some responses to,
+ * identified by a RejectionReason.
+ *
+ * DateTimes in the arguments are formatted as UTC to the second and Durations as a period in words, so the messages
+ * are the same as the ones the validators used to build themselves. It has a stack trace like any other exception
+ * unless it was created by SamlValidationRejections.STACKLESS, since it always comes from the same check.
+ */
+public class SamlValidationRejection extends SamlResponseValidationException {
+
+    private final RejectionReason reason;
+    private final boolean stackTrace;
+
+    public SamlValidationRejection(RejectionReason reason, Object... arguments) {
+        this(true, reason, arguments);
+    }
+
+    SamlValidationRejection(boolean stackTrace, RejectionReason reason, Object... arguments) {
+        super(formatMessage(reason, arguments));
+        this.reason = reason;
+        this.stackTrace = stackTrace;
+        // Throwable's constructor asks for the stack trace before stackTrace has been set, so it's filled in here
+        if (stackTrace) {
+            super.fillInStackTrace();
+        }
+    }
+
+    public RejectionReason getReason() {
+        return reason;
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return stackTrace ? super.fillInStackTrace() : this;
+    }
+
+    private static String formatMessage(RejectionReason reason, Object[] arguments) {
+        return arguments.length == 0 ? reason.getMessageFormat() : String.format(reason.getMessageFormat(), formatArguments(arguments));
+    }
+
+    private static Object[] formatArguments(Object[] arguments) {
+        Object[] formattedArguments = new Object[arguments.length];
+        for (int i = 0; i < arguments.length; i++) {
+            formattedArguments[i] = formatArgument(arguments[i]);
+        }
+        return formattedArguments;
+    }
+
+    private static Object formatArgument(Object argument) {
+        if (argument instanceof DateTime) {
+            return ((DateTime) argument).withZone(UTC).toString(dateHourMinuteSecond());
+        }
+        if (argument instanceof Duration) {
+            return PeriodFormat.getDefault().print(((Duration) argument).toPeriod());
+        }
+        return argument;
+    }
+}
@@ -0,0 +1,26 @@
+package uk.gov.ida.verifyserviceprovider.validators;
+
+/**
+ * Creates the SamlValidationRejections thrown when a response fails validation, either with stack traces like any
+ * other exception or without them. Rejections always come from the same checks, so their stack traces say nothing
+ * their reasons don't.
+ */
+public class SamlValidationRejections {
+
+    public static final SamlValidationRejections WITH_STACK_TRACES = new SamlValidationRejections(true);
+    public static final SamlValidationRejections STACKLESS = new SamlValidationRejections(false);
+
+    private final boolean stackTraces;
+
+    private SamlValidationRejections(boolean stackTraces) {
+        this.stackTraces = stackTraces;
+    }
+
+    public static SamlValidationRejections stackless(boolean stackless) {
+        return stackless ? STACKLESS : WITH_STACK_TRACES;
+    }
+
+    public SamlValidationRejection reject(RejectionReason reason, Object... arguments) {
+        return new SamlValidationRejection(stackTraces, reason, arguments);
+    }
+}
@@ -4,56 +4,69 @@ import org.joda.time.DateTime;
 import org.opensaml.saml.saml2.core.Subject;
 import org.opensaml.saml.saml2.core.SubjectConfirmation;
 import org.opensaml.saml.saml2.core.SubjectConfirmationData;
-import uk.gov.ida.saml.core.validation.SamlResponseValidationException;
 
 import static org.opensaml.saml.saml2.core.SubjectConfirmation.METHOD_BEARER;
+import static uk.gov.ida.verifyserviceprovider.validators.ValidationRejectionReason.NAME_ID_MISSING;
+import static uk.gov.ida.verifyserviceprovider.validators.ValidationRejectionReason.SUBJECT_CONFIRMATION_COUNT;
+import static uk.gov.ida.verifyserviceprovider.validators.ValidationRejectionReason.SUBJECT_CONFIRMATION_DATA_MISSING;
+import static uk.gov.ida.verifyserviceprovider.validators.ValidationRejectionReason.SUBJECT_CONFIRMATION_IN_RESPONSE_TO_MISMATCH;
+import static uk.gov.ida.verifyserviceprovider.validators.ValidationRejectionReason.SUBJECT_CONFIRMATION_IN_RESPONSE_TO_MISSING;
+import static uk.gov.ida.verifyserviceprovider.validators.ValidationRejectionReason.SUBJECT_CONFIRMATION_METHOD;
+import static uk.gov.ida.verifyserviceprovider.validators.ValidationRejectionReason.SUBJECT_CONFIRMATION_NOT_ON_OR_AFTER_MISSING;
+import static uk.gov.ida.verifyserviceprovider.validators.ValidationRejectionReason.SUBJECT_MISSING;
 
 public class SubjectValidator {
     private final TimeRestrictionValidator timeRestrictionValidator;
+    private final SamlValidationRejections rejections;
 
     public SubjectValidator(TimeRestrictionValidator timeRestrictionValidator) {
+        this(timeRestrictionValidator, SamlValidationRejections.WITH_STACK_TRACES);
+    }
+
+    public SubjectValidator(TimeRestrictionValidator timeRestrictionValidator, SamlValidationRejections rejections) {
         this.timeRestrictionValidator = timeRestrictionValidator;
+        this.rejections = rejections;
     }
 
     public void validate(Subject subject, String expectedInResponseTo) {
         if (subject == null) {
-            throw new SamlResponseValidationException("Subject is missing from the assertion.");
+            throw rejections.reject(SUBJECT_MISSING);
         }
 
         if (subject.getSubjectConfirmations().size() != 1) {
-            throw new SamlResponseValidationException("Exactly one subject confirmation is expected.");
+            throw rejections.reject(SUBJECT_CONFIRMATION_COUNT);
         }
 
         SubjectConfirmation subjectConfirmation = subject.getSubjectConfirmations().get(0);
         if (!METHOD_BEARER.equals(subjectConfirmation.getMethod())) {
-            throw new SamlResponseValidationException("Subject confirmation method must be 'bearer'.");
+            throw rejections.reject(SUBJECT_CONFIRMATION_METHOD);
         }
 
         SubjectConfirmationData subjectConfirmationData = subjectConfirmation.getSubjectConfirmationData();
         if (subjectConfirmationData == null) {
-            throw new SamlResponseValidationException("Subject confirmation data is missing from the assertion.");
+            throw rejections.reject(SUBJECT_CONFIRMATION_DATA_MISSING);
         }
 
         timeRestrictionValidator.validateNotBefore(subjectConfirmationData.getNotBefore());
 
         DateTime notOnOrAfter = subjectConfirmationData.getNotOnOrAfter();
         if (notOnOrAfter == null) {
-            throw new SamlResponseValidationException("Subject confirmation data must contain 'NotOnOrAfter'.");
+            throw rejections.reject(SUBJECT_CONFIRMATION_NOT_ON_OR_AFTER_MISSING);
         }
 
         timeRestrictionValidator.validateNotOnOrAfter(notOnOrAfter);
 
         String actualInResponseTo = subjectConfirmationData.getInResponseTo();
         if (actualInResponseTo == null) {
-            throw new SamlResponseValidationException("Subject confirmation data must contain 'InResponseTo'.");
+            throw rejections.reject(SUBJECT_CONFIRMATION_IN_RESPONSE_TO_MISSING);
         }
 
         if (!expectedInResponseTo.equals(actualInResponseTo)) {
-            throw new SamlResponseValidationException(String.format("'InResponseTo' must match requestId. Expected %s but was %s", expectedInResponseTo, actualInResponseTo));
+            throw rejections.reject(SUBJECT_CONFIRMATION_IN_RESPONSE_TO_MISMATCH, expectedInResponseTo, actualInResponseTo);
         }
 
         if (subject.getNameID() == null) {
-            throw new SamlResponseValidationException("NameID is missing from the subject of the assertion.");
+            throw rejections.reject(NAME_ID_MISSING);
         }
     }
 }
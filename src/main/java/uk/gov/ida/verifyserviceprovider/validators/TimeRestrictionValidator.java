@@ -1,35 +1,34 @@
 package uk.gov.ida.verifyserviceprovider.validators;
 
 import org.joda.time.DateTime;
-import uk.gov.ida.saml.core.validation.SamlResponseValidationException;
 import uk.gov.ida.verifyserviceprovider.utils.DateTimeComparator;
 
-import static org.joda.time.DateTimeZone.UTC;
-import static org.joda.time.format.ISODateTimeFormat.dateHourMinuteSecond;
+import static uk.gov.ida.verifyserviceprovider.validators.ValidationRejectionReason.NOT_BEFORE;
+import static uk.gov.ida.verifyserviceprovider.validators.ValidationRejectionReason.NOT_ON_OR_AFTER;
 
 public class TimeRestrictionValidator {
 
     private final DateTimeComparator dateTimeComparator;
+    private final SamlValidationRejections rejections;
 
     public TimeRestrictionValidator(DateTimeComparator dateTimeComparator) {
+        this(dateTimeComparator, SamlValidationRejections.WITH_STACK_TRACES);
+    }
+
+    public TimeRestrictionValidator(DateTimeComparator dateTimeComparator, SamlValidationRejections rejections) {
         this.dateTimeComparator = dateTimeComparator;
+        this.rejections = rejections;
     }
 
     public void validateNotOnOrAfter(DateTime notOnOrAfter) {
         if (dateTimeComparator.isBeforeNow(notOnOrAfter)) {
-            throw new SamlResponseValidationException(String.format(
-                "Assertion is not valid on or after %s",
-                notOnOrAfter.withZone(UTC).toString(dateHourMinuteSecond())
-            ));
+            throw rejections.reject(NOT_ON_OR_AFTER, notOnOrAfter);
         }
     }
 
     public void validateNotBefore(DateTime notBefore) {
         if (notBefore != null && dateTimeComparator.isAfterNow(notBefore)) {
-            throw new SamlResponseValidationException(String.format(
-                "Assertion is not valid before %s",
-                notBefore.withZone(UTC).toString(dateHourMinuteSecond())
-            ));
+            throw rejections.reject(NOT_BEFORE, notBefore);
         }
     }
 }
@@ -0,0 +1,25 @@
+package uk.gov.ida.verifyserviceprovider.validators;
+
+import com.codahale.metrics.Timer;
+import org.opensaml.saml.saml2.core.Assertion;
+import uk.gov.ida.saml.security.SamlAssertionsSignatureValidator;
+import uk.gov.ida.saml.security.SamlMessageSignatureValidator;
+import uk.gov.ida.saml.security.validators.ValidatedAssertions;
+
+import javax.xml.namespace.QName;
+import java.util.List;
+
+public class TimedSamlAssertionsSignatureValidator extends SamlAssertionsSignatureValidator {
+
+    private final Timer timer;
+
+    public TimedSamlAssertionsSignatureValidator(SamlMessageSignatureValidator samlMessageSignatureValidator, Timer timer) {
+        super(samlMessageSignatureValidator);
+        this.timer = timer;
+    }
+
+    @Override
+    public ValidatedAssertions validate(List<Assertion> assertions, QName role) {
+        return timer.timeSupplier(() -> super.validate(assertions, role));
+    }
+}
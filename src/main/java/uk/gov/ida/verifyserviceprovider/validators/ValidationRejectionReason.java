@@ -0,0 +1,42 @@
+package uk.gov.ida.verifyserviceprovider.validators;
+
+/**
+ * The reasons a response or assertion is expected to fail validation for, with the message format used for each.
+ */
+public enum ValidationRejectionReason implements RejectionReason {
+    RESPONSE_IN_RESPONSE_TO_MISMATCH("Expected InResponseTo to be %s, but was %s"),
+    RESPONSE_ISSUE_INSTANT_MISSING("Response IssueInstant is missing"),
+    RESPONSE_STATUS_CODE_MISSING("Response has no StatusCode"),
+    RESPONSE_STATUS_UNKNOWN("Unknown SAML status: %s"),
+    RESPONSE_TOO_MANY_ELEMENTS("SAML Response has too many elements."),
+    RESPONSE_NESTED_TOO_DEEPLY("SAML Response is nested too deeply."),
+    RESPONSE_TOO_MANY_ATTRIBUTES("SAML Response has an element with too many attributes."),
+    RESPONSE_TOO_MANY_ENCRYPTED_ASSERTIONS("SAML Response has too many EncryptedAssertions."),
+    RESPONSE_DTD("SAML Response must not contain a DTD."),
+    INSTANT_TOO_OLD("%s is too far in the past %s"),
+    INSTANT_IN_FUTURE("%s is in the future %s"),
+    NOT_ON_OR_AFTER("Assertion is not valid on or after %s"),
+    NOT_BEFORE("Assertion is not valid before %s"),
+    SUBJECT_MISSING("Subject is missing from the assertion."),
+    SUBJECT_CONFIRMATION_COUNT("Exactly one subject confirmation is expected."),
+    SUBJECT_CONFIRMATION_METHOD("Subject confirmation method must be 'bearer'."),
+    SUBJECT_CONFIRMATION_DATA_MISSING("Subject confirmation data is missing from the assertion."),
+    SUBJECT_CONFIRMATION_NOT_ON_OR_AFTER_MISSING("Subject confirmation data must contain 'NotOnOrAfter'."),
+    SUBJECT_CONFIRMATION_IN_RESPONSE_TO_MISSING("Subject confirmation data must contain 'InResponseTo'."),
+    SUBJECT_CONFIRMATION_IN_RESPONSE_TO_MISMATCH("'InResponseTo' must match requestId. Expected %s but was %s"),
+    NAME_ID_MISSING("NameID is missing from the subject of the assertion."),
+    CONDITIONS_MISSING("Conditions is missing from the assertion."),
+    CONDITIONS_PROXY_RESTRICTION("Conditions should not contain proxy restriction element."),
+    CONDITIONS_ONE_TIME_USE("Conditions should not contain one time use element.");
+
+    private final String messageFormat;
+
+    ValidationRejectionReason(String messageFormat) {
+        this.messageFormat = messageFormat;
+    }
+
+    @Override
+    public String getMessageFormat() {
+        return messageFormat;
+    }
+}
@@ -127,7 +127,14 @@ public class VerifyServiceProviderConfigurationTest {
                 mock(PrivateKey.class),
                 mock(PrivateKey.class),
                 Optional.empty(),
-                new Duration(1000L)
+                new Duration(1000L),
+                null,
+                null,
+                null,
+                null,
+                null,
+                null,
+                null
         );
     }
 
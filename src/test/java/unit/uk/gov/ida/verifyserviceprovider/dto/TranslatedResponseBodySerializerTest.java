@@ -0,0 +1,68 @@
+package unit.uk.gov.ida.verifyserviceprovider.dto;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import org.junit.Test;
+import uk.gov.ida.verifyserviceprovider.dto.Address;
+import uk.gov.ida.verifyserviceprovider.dto.Attributes;
+import uk.gov.ida.verifyserviceprovider.dto.TranslatedMatchingResponseBody;
+import uk.gov.ida.verifyserviceprovider.dto.TranslatedNonMatchingResponseBody;
+import uk.gov.ida.verifyserviceprovider.dto.VerifiableAttribute;
+
+import java.time.LocalDate;
+
+import static io.dropwizard.jackson.Jackson.newObjectMapper;
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static uk.gov.ida.verifyserviceprovider.dto.LevelOfAssurance.LEVEL_2;
+import static uk.gov.ida.verifyserviceprovider.dto.MatchingScenario.ACCOUNT_CREATION;
+import static uk.gov.ida.verifyserviceprovider.dto.MatchingScenario.SUCCESS_MATCH;
+import static uk.gov.ida.verifyserviceprovider.dto.NonMatchingScenario.IDENTITY_VERIFIED;
+import static uk.gov.ida.verifyserviceprovider.dto.NonMatchingScenario.REQUEST_ERROR;
+
+public class TranslatedResponseBodySerializerTest {
+
+    private final ObjectMapper objectMapper = newObjectMapper();
+    private final ObjectMapper beanSerializingObjectMapper = newObjectMapper()
+            .addMixIn(TranslatedMatchingResponseBody.class, BeanSerialization.class)
+            .addMixIn(TranslatedNonMatchingResponseBody.class, BeanSerialization.class)
+            .addMixIn(Attributes.class, BeanSerialization.class);
+
+    @Test
+    public void shouldWriteAMatchingResponseWithAttributesAsTheBeanSerializerDid() throws Exception {
+        Address address = new Address(asList("10 Whitechapel High St", "London"), "E1 8DX", null, "7D68E096-5510-B3844C0BA3FD", LocalDate.of(2017, 7, 3), null);
+        Attributes attributes = new Attributes(
+                new VerifiableAttribute<>("Joe", true),
+                null,
+                new VerifiableAttribute<>("Bloggs", false),
+                new VerifiableAttribute<>(LocalDate.of(1977, 7, 21), true),
+                new VerifiableAttribute<>(address, true),
+                singletonList(new VerifiableAttribute<>(address, false)),
+                "123456");
+
+        assertSameJson(new TranslatedMatchingResponseBody(ACCOUNT_CREATION, "some-pid", LEVEL_2, attributes));
+    }
+
+    @Test
+    public void shouldWriteAMatchingResponseWithoutAttributesAsTheBeanSerializerDid() throws Exception {
+        assertSameJson(new TranslatedMatchingResponseBody(SUCCESS_MATCH, "some-pid", LEVEL_2, null));
+        assertSameJson(new TranslatedMatchingResponseBody(SUCCESS_MATCH, null, null, null));
+    }
+
+    @Test
+    public void shouldWriteANonMatchingResponseAsTheBeanSerializerDid() throws Exception {
+        assertSameJson(new TranslatedNonMatchingResponseBody(IDENTITY_VERIFIED, "some-pid", LEVEL_2, null));
+        assertSameJson(new TranslatedNonMatchingResponseBody(REQUEST_ERROR, null, null, null));
+    }
+
+    private void assertSameJson(Object body) throws Exception {
+        String json = objectMapper.writeValueAsString(body);
+
+        assertThat(json).isEqualTo(beanSerializingObjectMapper.writeValueAsString(body));
+    }
+
+    @JsonSerialize
+    private abstract static class BeanSerialization {
+    }
+}
@@ -129,6 +129,23 @@ public class AuthnRequestFactoryTest {
         verify(manifestReader, times(1)).getAttributeValueFor(VerifyServiceProviderApplication.class, "Version");
     }
 
+    @Test
+    public void shouldOnlyReadVersionNumberFromManifestOnce() throws IOException {
+        factory.build(SERVICE_ENTITY_ID);
+        factory.build(SERVICE_ENTITY_ID);
+
+        verify(manifestReader, times(1)).getAttributeValueFor(VerifyServiceProviderApplication.class, "Version");
+    }
+
+    @Test
+    public void shouldSignEachRequestWithItsOwnSignature() {
+        AuthnRequest first = factory.build(SERVICE_ENTITY_ID);
+        AuthnRequest second = factory.build(SERVICE_ENTITY_ID);
+
+        assertThat(first.getSignature()).isNotSameAs(second.getSignature());
+        assertThat(second.getSignatureReferenceID()).isEqualTo(second.getID());
+    }
+
     private BasicCredential createBasicCredential() {
         final PublicKey publicKey = new PublicKeyFactory(new X509CertificateFactory()).createPublicKey(HUB_TEST_PUBLIC_ENCRYPTION_CERT);
         PrivateKey privateKey = new PrivateKeyFactory().createPrivateKey(Base64.decodeBase64(HUB_TEST_PRIVATE_ENCRYPTION_KEY));
@@ -0,0 +1,164 @@
+package unit.uk.gov.ida.verifyserviceprovider.factories.saml;
+
+import com.codahale.metrics.MetricRegistry;
+import org.joda.time.DateTime;
+import org.joda.time.Duration;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.opensaml.saml.saml2.core.AuthnRequest;
+import org.opensaml.saml.saml2.core.impl.AuthnRequestBuilder;
+import uk.gov.ida.saml.core.IdaSamlBootstrap;
+import uk.gov.ida.shared.utils.datetime.DateTimeFreezer;
+import uk.gov.ida.verifyserviceprovider.factories.saml.AuthnRequestFactory;
+import uk.gov.ida.verifyserviceprovider.factories.saml.AuthnRequestPool;
+import uk.gov.ida.verifyserviceprovider.utils.TranslationClock;
+
+import java.time.Clock;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+public class AuthnRequestPoolTest {
+
+    private static final String SERVICE_ENTITY_ID = "http://entity-id";
+    private static final String OTHER_SERVICE_ENTITY_ID = "http://other-entity-id";
+    private static final int POOL_SIZE = 2;
+
+    private final AuthnRequestFactory authnRequestFactory = mock(AuthnRequestFactory.class);
+    private final MetricRegistry metricRegistry = new MetricRegistry();
+    private final ScheduledExecutorService scheduledExecutorService = mock(ScheduledExecutorService.class);
+    private AuthnRequestPool pool;
+
+    @Before
+    public void setUp() {
+        IdaSamlBootstrap.bootstrap();
+        DateTimeFreezer.freezeTime();
+        when(authnRequestFactory.build(anyString())).thenAnswer(invocation -> anAuthnRequest());
+        Clock clock = mock(Clock.class);
+        when(clock.millis()).thenAnswer(invocation -> DateTime.now().getMillis());
+        pool = new AuthnRequestPool(
+                authnRequestFactory,
+                asList(SERVICE_ENTITY_ID, OTHER_SERVICE_ENTITY_ID),
+                POOL_SIZE,
+                Duration.standardMinutes(1),
+                Duration.standardSeconds(5),
+                scheduledExecutorService,
+                new TranslationClock(clock),
+                metricRegistry
+        );
+    }
+
+    @After
+    public void tearDown() {
+        DateTimeFreezer.unfreezeTime();
+    }
+
+    @Test
+    public void shouldFillThePoolForEachServiceEntityId() {
+        pool.refill();
+
+        verify(authnRequestFactory, times(POOL_SIZE)).build(SERVICE_ENTITY_ID);
+        verify(authnRequestFactory, times(POOL_SIZE)).build(OTHER_SERVICE_ENTITY_ID);
+    }
+
+    @Test
+    public void shouldTakeRequestsFromThePoolWithoutBuildingNewOnes() {
+        pool.refill();
+
+        AuthnRequest first = pool.build(SERVICE_ENTITY_ID);
+        AuthnRequest second = pool.build(SERVICE_ENTITY_ID);
+
+        assertThat(first).isNotSameAs(second);
+        verify(authnRequestFactory, times(POOL_SIZE)).build(SERVICE_ENTITY_ID);
+        assertThat(metricRegistry.meter(MetricRegistry.name(AuthnRequestPool.class, "hits")).getCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void shouldBuildARequestWhenThePoolIsEmpty() {
+        AuthnRequest authnRequest = pool.build(SERVICE_ENTITY_ID);
+
+        assertThat(authnRequest).isNotNull();
+        verify(authnRequestFactory).build(SERVICE_ENTITY_ID);
+        assertThat(metricRegistry.meter(MetricRegistry.name(AuthnRequestPool.class, "misses")).getCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldBuildARequestForAnEntityIdWithoutAPool() {
+        pool.build("http://unknown-entity-id");
+
+        verify(authnRequestFactory).build("http://unknown-entity-id");
+        verifyNoMoreInteractions(authnRequestFactory);
+    }
+
+    @Test
+    public void shouldNotHandOutRequestsThatAreTooOld() {
+        pool.refill();
+        DateTimeFreezer.freezeTime(DateTime.now().plusMinutes(2));
+
+        AuthnRequest authnRequest = pool.build(SERVICE_ENTITY_ID);
+
+        assertThat(authnRequest.getIssueInstant()).isEqualTo(DateTime.now());
+        verify(authnRequestFactory, times(POOL_SIZE + 1)).build(SERVICE_ENTITY_ID);
+    }
+
+    @Test
+    public void shouldReplaceRequestsThatAreTooOldWhenRefilling() {
+        pool.refill();
+        DateTimeFreezer.freezeTime(DateTime.now().plusMinutes(2));
+
+        pool.refill();
+
+        verify(authnRequestFactory, times(POOL_SIZE * 2)).build(SERVICE_ENTITY_ID);
+    }
+
+    @Test
+    public void shouldShutDownTheSchedulerWhenStopped() throws Exception {
+        when(scheduledExecutorService.awaitTermination(anyLong(), any(TimeUnit.class))).thenReturn(true);
+
+        pool.stop();
+
+        verify(scheduledExecutorService).shutdown();
+        verify(scheduledExecutorService).awaitTermination(anyLong(), any(TimeUnit.class));
+        verify(scheduledExecutorService, never()).shutdownNow();
+    }
+
+    @Test
+    public void shouldInterruptARefillThatDoesNotFinishWhenStopped() throws Exception {
+        when(scheduledExecutorService.awaitTermination(anyLong(), any(TimeUnit.class))).thenReturn(false);
+
+        pool.stop();
+
+        verify(scheduledExecutorService).shutdownNow();
+    }
+
+    @Test
+    public void shouldKeepRefillingAfterAFailedRefill() {
+        when(authnRequestFactory.build(SERVICE_ENTITY_ID))
+            .thenThrow(new IllegalStateException("Hub metadata is not available"))
+            .thenAnswer(invocation -> anAuthnRequest());
+
+        pool.refill();
+        pool.refill();
+
+        assertThat(pool.build(SERVICE_ENTITY_ID)).isNotNull();
+        assertThat(metricRegistry.meter(MetricRegistry.name(AuthnRequestPool.class, "hits")).getCount()).isEqualTo(1);
+    }
+
+    private AuthnRequest anAuthnRequest() {
+        AuthnRequest authnRequest = new AuthnRequestBuilder().buildObject();
+        authnRequest.setIssueInstant(DateTime.now());
+        return authnRequest;
+    }
+}
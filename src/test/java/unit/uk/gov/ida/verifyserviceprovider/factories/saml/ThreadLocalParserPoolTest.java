@@ -0,0 +1,72 @@
+package unit.uk.gov.ida.verifyserviceprovider.factories.saml;
+
+import net.shibboleth.utilities.java.support.xml.XMLParserException;
+import org.junit.Test;
+import org.w3c.dom.Document;
+import uk.gov.ida.verifyserviceprovider.factories.saml.ThreadLocalParserPool;
+
+import javax.xml.parsers.DocumentBuilder;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+public class ThreadLocalParserPoolTest {
+
+    private final ThreadLocalParserPool parserPool = new ThreadLocalParserPool();
+
+    @Test
+    public void shouldParseXmlWithNamespaces() throws Exception {
+        Document document = parserPool.parse(xml("<saml2p:Response xmlns:saml2p=\"urn:oasis:names:tc:SAML:2.0:protocol\"/>"));
+
+        assertThat(document.getDocumentElement().getNamespaceURI()).isEqualTo("urn:oasis:names:tc:SAML:2.0:protocol");
+        assertThat(document.getDocumentElement().getLocalName()).isEqualTo("Response");
+    }
+
+    @Test
+    public void shouldReuseTheSameBuilderOnTheSameThread() throws Exception {
+        DocumentBuilder builder = parserPool.getBuilder();
+        parserPool.returnBuilder(builder);
+
+        assertThat(parserPool.getBuilder()).isSameAs(builder);
+    }
+
+    @Test
+    public void shouldNotHandOutABuilderThatIsAlreadyInUse() throws Exception {
+        DocumentBuilder builder = parserPool.getBuilder();
+
+        assertThat(parserPool.getBuilder()).isNotSameAs(builder);
+    }
+
+    @Test
+    public void shouldNotShareBuildersBetweenThreads() throws Exception {
+        DocumentBuilder builder = parserPool.getBuilder();
+        parserPool.returnBuilder(builder);
+
+        DocumentBuilder otherThreadsBuilder = CompletableFuture.supplyAsync(() -> {
+            try {
+                return parserPool.getBuilder();
+            } catch (XMLParserException e) {
+                throw new RuntimeException(e);
+            }
+        }).get();
+
+        assertThat(otherThreadsBuilder).isNotSameAs(builder);
+    }
+
+    @Test
+    public void shouldRejectADoctypeEvenAfterTheBuilderHasBeenReset() throws Exception {
+        parserPool.parse(xml("<a/>"));
+
+        Throwable thrown = catchThrowable(() -> parserPool.parse(xml("<!DOCTYPE a [<!ENTITY b \"b\">]><a>&b;</a>")));
+
+        assertThat(thrown).isInstanceOf(XMLParserException.class);
+    }
+
+    private static InputStream xml(String xml) {
+        return new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8));
+    }
+}
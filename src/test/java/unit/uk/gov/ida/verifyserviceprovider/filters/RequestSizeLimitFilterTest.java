@@ -0,0 +1,69 @@
+package unit.uk.gov.ida.verifyserviceprovider.filters;
+
+import com.google.common.io.ByteStreams;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import uk.gov.ida.verifyserviceprovider.filters.RequestSizeLimitFilter;
+
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.core.Response;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class RequestSizeLimitFilterTest {
+
+    private static final int MAX_REQUEST_BODY_SIZE = 10;
+
+    private final RequestSizeLimitFilter filter = new RequestSizeLimitFilter(MAX_REQUEST_BODY_SIZE);
+    private final ContainerRequestContext requestContext = mock(ContainerRequestContext.class);
+
+    @Test
+    public void shouldRejectARequestWithAContentLengthOverTheLimitWithoutReadingIt() {
+        when(requestContext.getLength()).thenReturn(MAX_REQUEST_BODY_SIZE + 1);
+
+        filter.filter(requestContext);
+
+        ArgumentCaptor<Response> response = ArgumentCaptor.forClass(Response.class);
+        verify(requestContext).abortWith(response.capture());
+        assertThat(response.getValue().getStatus()).isEqualTo(413);
+        verify(requestContext, never()).getEntityStream();
+    }
+
+    @Test
+    public void shouldReadABodyUpToTheLimit() throws Exception {
+        InputStream entityStream = filterBodyOf(MAX_REQUEST_BODY_SIZE);
+
+        assertThat(ByteStreams.toByteArray(entityStream)).hasSize(MAX_REQUEST_BODY_SIZE);
+        verify(requestContext, never()).abortWith(any());
+    }
+
+    @Test
+    public void shouldRejectABodyOverTheLimitWhileItIsBeingRead() {
+        InputStream entityStream = filterBodyOf(MAX_REQUEST_BODY_SIZE + 1);
+
+        Throwable thrown = catchThrowable(() -> ByteStreams.toByteArray(entityStream));
+
+        assertThat(thrown).isInstanceOf(WebApplicationException.class);
+        assertThat(((WebApplicationException) thrown).getResponse().getStatus()).isEqualTo(413);
+    }
+
+    private InputStream filterBodyOf(int length) {
+        when(requestContext.getLength()).thenReturn(-1);
+        when(requestContext.getEntityStream()).thenReturn(new ByteArrayInputStream(new byte[length]));
+
+        filter.filter(requestContext);
+
+        ArgumentCaptor<InputStream> entityStream = ArgumentCaptor.forClass(InputStream.class);
+        verify(requestContext).setEntityStream(entityStream.capture());
+        return entityStream.getValue();
+    }
+}
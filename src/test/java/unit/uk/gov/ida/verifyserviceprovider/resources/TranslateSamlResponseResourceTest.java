@@ -1,11 +1,14 @@
 package unit.uk.gov.ida.verifyserviceprovider.resources;
 
 import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.Uninterruptibles;
 import io.dropwizard.jersey.errors.ErrorMessage;
 import io.dropwizard.testing.junit.ResourceTestRule;
 import org.apache.http.HttpStatus;
+import org.joda.time.Duration;
 import org.json.JSONObject;
 import org.junit.After;
+import org.junit.AfterClass;
 import org.junit.Before;
 import org.junit.ClassRule;
 import org.junit.Test;
@@ -27,14 +30,22 @@ import uk.gov.ida.verifyserviceprovider.services.ResponseService;
 import javax.ws.rs.core.Response;
 import java.util.Arrays;
 import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import static javax.ws.rs.client.Entity.json;
 import static javax.ws.rs.core.Response.Status.BAD_REQUEST;
+import static javax.ws.rs.core.Response.Status.SERVICE_UNAVAILABLE;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.reset;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -46,6 +57,10 @@ public class TranslateSamlResponseResourceTest {
 
     private static ResponseService responseService = mock(ResponseService.class);
     private static EntityIdService entityIdService = mock(EntityIdService.class);
+    private static ExecutorService executorService = Executors.newFixedThreadPool(2);
+    private static ExecutorService idleExecutorService = mock(ExecutorService.class);
+    private static ExecutorService busyExecutorService = aBoundedExecutor();
+    private static ExecutorService shutDownExecutorService = aBoundedExecutor();
     private static final String defaultEntityId = "http://default-entity-id";
 
     @ClassRule
@@ -53,7 +68,25 @@ public class TranslateSamlResponseResourceTest {
         .addProvider(JerseyViolationExceptionMapper.class)
         .addProvider(JsonProcessingExceptionMapper.class)
         .addProvider(InvalidEntityIdExceptionMapper.class)
-        .addResource(new TranslateSamlResponseResource(responseService, entityIdService))
+        .addResource(new TranslateSamlResponseResource(responseService, entityIdService, executorService, Duration.standardSeconds(30)))
+        .build();
+
+    @ClassRule
+    public static final ResourceTestRule idleResources = ResourceTestRule.builder()
+        .addProvider(JerseyViolationExceptionMapper.class)
+        .addProvider(JsonProcessingExceptionMapper.class)
+        .addProvider(InvalidEntityIdExceptionMapper.class)
+        .addResource(new TranslateSamlResponseResource(responseService, entityIdService, idleExecutorService, Duration.millis(100)))
+        .build();
+
+    @ClassRule
+    public static final ResourceTestRule busyResources = ResourceTestRule.builder()
+        .addResource(new TranslateSamlResponseResource(responseService, entityIdService, busyExecutorService, Duration.standardSeconds(30)))
+        .build();
+
+    @ClassRule
+    public static final ResourceTestRule shutDownResources = ResourceTestRule.builder()
+        .addResource(new TranslateSamlResponseResource(responseService, entityIdService, shutDownExecutorService, Duration.standardSeconds(30)))
         .build();
 
     @Before
@@ -63,7 +96,14 @@ public class TranslateSamlResponseResourceTest {
 
     @After
     public void setup() {
-        reset(responseService);
+        reset(responseService, idleExecutorService);
+    }
+
+    @AfterClass
+    public static void shutdownExecutorService() {
+        executorService.shutdown();
+        busyExecutorService.shutdown();
+        shutDownExecutorService.shutdown();
     }
 
     @Test
@@ -128,6 +168,62 @@ public class TranslateSamlResponseResourceTest {
         assertThat(actualError.getMessage()).isEqualTo("Some error.");
     }
 
+    @Test
+    public void shouldReturn500WhenTranslationFailsWithAnError() {
+        when(responseService.convertTranslatedResponseBody(any(), eq("some-request-id"), eq(LEVEL_2), eq(defaultEntityId)))
+            .thenThrow(new AssertionError("Something went wrong"));
+
+        Response response = resources.client()
+            .target("/translate-response")
+            .request()
+            .post(json(aTranslateResponseRequest().toString()));
+
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.SC_INTERNAL_SERVER_ERROR);
+    }
+
+    @Test
+    public void shouldReturn503WhenTheExecutorQueueIsFull() {
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            busyExecutorService.execute(() -> Uninterruptibles.awaitUninterruptibly(release));
+            busyExecutorService.execute(() -> Uninterruptibles.awaitUninterruptibly(release));
+
+            Response response = busyResources.client()
+                .target("/translate-response")
+                .request()
+                .post(json(aTranslateResponseRequest().toString()));
+
+            assertThat(response.getStatus()).isEqualTo(SERVICE_UNAVAILABLE.getStatusCode());
+            assertThat(response.readEntity(ErrorMessage.class).getCode()).isEqualTo(SERVICE_UNAVAILABLE.getStatusCode());
+            verify(responseService, never()).convertTranslatedResponseBody(any(), any(), any(), any());
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    public void shouldReturn503WhenTheExecutorHasBeenShutDown() {
+        shutDownExecutorService.shutdown();
+
+        Response response = shutDownResources.client()
+            .target("/translate-response")
+            .request()
+            .post(json(aTranslateResponseRequest().toString()));
+
+        assertThat(response.getStatus()).isEqualTo(SERVICE_UNAVAILABLE.getStatusCode());
+    }
+
+    @Test
+    public void shouldReturn503WhenTheTranslationTimesOut() {
+        Response response = idleResources.client()
+            .target("/translate-response")
+            .request()
+            .post(json(aTranslateResponseRequest().toString()));
+
+        assertThat(response.getStatus()).isEqualTo(SERVICE_UNAVAILABLE.getStatusCode());
+        assertThat(response.readEntity(ErrorMessage.class).getMessage()).isEqualTo("Timed out translating the response.");
+    }
+
     @Test
     public void shouldReturn400WhenCalledWithEmptyJson() {
         Response response = resources.client()
@@ -145,4 +241,13 @@ public class TranslateSamlResponseResourceTest {
         assertThat(actualErrors).isEqualTo(expectedErrors);
     }
 
+    private static ExecutorService aBoundedExecutor() {
+        return new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(1), new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    private JSONObject aTranslateResponseRequest() {
+        return new JSONObject().put("samlResponse", "some-saml-response")
+            .put("requestId", "some-request-id")
+            .put("levelOfAssurance", LEVEL_2.name());
+    }
 }
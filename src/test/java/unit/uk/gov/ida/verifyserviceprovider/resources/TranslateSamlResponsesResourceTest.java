@@ -0,0 +1,259 @@
+package unit.uk.gov.ida.verifyserviceprovider.resources;
+
+import com.google.common.util.concurrent.Uninterruptibles;
+import io.dropwizard.jersey.errors.ErrorMessage;
+import io.dropwizard.testing.junit.ResourceTestRule;
+import org.apache.http.HttpStatus;
+import org.glassfish.jersey.client.ClientProperties;
+import org.glassfish.jersey.client.RequestEntityProcessing;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.junit.MockitoJUnitRunner;
+import uk.gov.ida.saml.core.validation.SamlResponseValidationException;
+import uk.gov.ida.verifyserviceprovider.dto.MatchingScenario;
+import uk.gov.ida.verifyserviceprovider.dto.TranslateSamlResponseBody;
+import uk.gov.ida.verifyserviceprovider.dto.TranslatedMatchingResponseBody;
+import uk.gov.ida.verifyserviceprovider.exceptions.InvalidEntityIdExceptionMapper;
+import uk.gov.ida.verifyserviceprovider.exceptions.JerseyViolationExceptionMapper;
+import uk.gov.ida.verifyserviceprovider.exceptions.JsonProcessingExceptionMapper;
+import uk.gov.ida.verifyserviceprovider.filters.RequestSizeLimitFeature;
+import uk.gov.ida.verifyserviceprovider.resources.TranslateSamlResponsesResource;
+import uk.gov.ida.verifyserviceprovider.services.EntityIdService;
+import uk.gov.ida.verifyserviceprovider.services.ResponseService;
+
+import javax.ws.rs.client.Entity;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static javax.ws.rs.client.Entity.json;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+import static uk.gov.ida.verifyserviceprovider.configuration.RequestLimitsConfiguration.MAX_BATCH_SIZE;
+import static uk.gov.ida.verifyserviceprovider.dto.LevelOfAssurance.LEVEL_2;
+
+@RunWith(MockitoJUnitRunner.class)
+public class TranslateSamlResponsesResourceTest {
+
+    private static ResponseService responseService = mock(ResponseService.class);
+    private static EntityIdService entityIdService = mock(EntityIdService.class);
+    private static ExecutorService executorService = Executors.newFixedThreadPool(4);
+    private static ExecutorService busyExecutorService = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(1), new ThreadPoolExecutor.AbortPolicy());
+    private static final String defaultEntityId = "http://default-entity-id";
+    private static final int MAX_BATCH_REQUEST_BODY_SIZE = 64 * 1024;
+    private static final int BATCH_CONCURRENCY = 2;
+
+    @ClassRule
+    public static final ResourceTestRule resources = ResourceTestRule.builder()
+        .addProvider(JerseyViolationExceptionMapper.class)
+        .addProvider(JsonProcessingExceptionMapper.class)
+        .addProvider(InvalidEntityIdExceptionMapper.class)
+        .addProvider(new RequestSizeLimitFeature(1024, MAX_BATCH_REQUEST_BODY_SIZE))
+        .addResource(new TranslateSamlResponsesResource(responseService, entityIdService, executorService, BATCH_CONCURRENCY))
+        .build();
+
+    @ClassRule
+    public static final ResourceTestRule busyResources = ResourceTestRule.builder()
+        .addResource(new TranslateSamlResponsesResource(responseService, entityIdService, busyExecutorService, BATCH_CONCURRENCY))
+        .build();
+
+    @Before
+    public void mockEntityIdService() {
+        when(entityIdService.getEntityId(any(TranslateSamlResponseBody.class))).thenReturn(defaultEntityId);
+    }
+
+    @After
+    public void resetResponseService() {
+        reset(responseService);
+    }
+
+    @AfterClass
+    public static void shutdownExecutorService() {
+        executorService.shutdown();
+        busyExecutorService.shutdown();
+    }
+
+    @Test
+    public void shouldReturnAResultForEachResponseInOrder() {
+        when(responseService.convertTranslatedResponseBody(any(), eq("first-request-id"), eq(LEVEL_2), eq(defaultEntityId)))
+            .thenReturn(new TranslatedMatchingResponseBody(MatchingScenario.SUCCESS_MATCH, "some-pid", LEVEL_2, null));
+        when(responseService.convertTranslatedResponseBody(any(), eq("second-request-id"), eq(LEVEL_2), eq(defaultEntityId)))
+            .thenThrow(new SamlResponseValidationException("Some error."));
+
+        Response response = resources.client()
+            .target("/translate-responses")
+            .request()
+            .post(json(new JSONArray()
+                .put(aTranslateResponseRequest("first-request-id"))
+                .put(aTranslateResponseRequest("second-request-id"))
+                .toString()));
+
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.SC_OK);
+
+        JSONArray results = new JSONArray(response.readEntity(String.class));
+        assertThat(results.length()).isEqualTo(2);
+
+        JSONObject first = results.getJSONObject(0);
+        assertThat(first.getString("requestId")).isEqualTo("first-request-id");
+        assertThat(first.getInt("status")).isEqualTo(HttpStatus.SC_OK);
+        assertThat(first.getJSONObject("response").getString("scenario")).isEqualTo(MatchingScenario.SUCCESS_MATCH.name());
+        assertThat(first.has("error")).isFalse();
+
+        JSONObject second = results.getJSONObject(1);
+        assertThat(second.getString("requestId")).isEqualTo("second-request-id");
+        assertThat(second.getInt("status")).isEqualTo(HttpStatus.SC_BAD_REQUEST);
+        assertThat(second.getJSONObject("error").getString("message")).isEqualTo("Some error.");
+        assertThat(second.has("response")).isFalse();
+    }
+
+    @Test
+    public void shouldReturn500ForAResponseThatFailsUnexpectedly() {
+        when(responseService.convertTranslatedResponseBody(any(), eq("some-request-id"), eq(LEVEL_2), eq(defaultEntityId)))
+            .thenThrow(new IllegalStateException("Something went wrong"));
+
+        Response response = resources.client()
+            .target("/translate-responses")
+            .request()
+            .post(json(new JSONArray().put(aTranslateResponseRequest("some-request-id")).toString()));
+
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.SC_OK);
+
+        JSONObject result = new JSONArray(response.readEntity(String.class)).getJSONObject(0);
+        assertThat(result.getInt("status")).isEqualTo(HttpStatus.SC_INTERNAL_SERVER_ERROR);
+    }
+
+    @Test
+    public void shouldReturn503WhenTheExecutorQueueIsFull() {
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            busyExecutorService.execute(() -> Uninterruptibles.awaitUninterruptibly(release));
+            busyExecutorService.execute(() -> Uninterruptibles.awaitUninterruptibly(release));
+
+            Response response = busyResources.client()
+                .target("/translate-responses")
+                .request()
+                .post(json(new JSONArray().put(aTranslateResponseRequest("some-request-id")).toString()));
+
+            assertThat(response.getStatus()).isEqualTo(HttpStatus.SC_SERVICE_UNAVAILABLE);
+            assertThat(response.readEntity(ErrorMessage.class).getCode()).isEqualTo(HttpStatus.SC_SERVICE_UNAVAILABLE);
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    public void shouldTranslateNoMoreThanTheBatchConcurrencyAtOnce() {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        when(responseService.convertTranslatedResponseBody(any(), any(), eq(LEVEL_2), eq(defaultEntityId))).thenAnswer(invocation -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            Thread.sleep(20);
+            inFlight.decrementAndGet();
+            return new TranslatedMatchingResponseBody(MatchingScenario.SUCCESS_MATCH, "some-pid", LEVEL_2, null);
+        });
+
+        JSONArray batch = new JSONArray();
+        for (int i = 0; i < 10; i++) {
+            batch.put(aTranslateResponseRequest("request-id-" + i));
+        }
+
+        Response response = resources.client()
+            .target("/translate-responses")
+            .request()
+            .post(json(batch.toString()));
+
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.SC_OK);
+        assertThat(maxInFlight.get()).isLessThanOrEqualTo(BATCH_CONCURRENCY);
+    }
+
+    @Test
+    public void shouldReturn422WhenABatchIsTooLarge() {
+        JSONArray batch = new JSONArray();
+        for (int i = 0; i <= MAX_BATCH_SIZE; i++) {
+            batch.put(aTranslateResponseRequest("request-id-" + i));
+        }
+
+        Response response = resources.client()
+            .target("/translate-responses")
+            .request()
+            .post(json(batch.toString()));
+
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.SC_UNPROCESSABLE_ENTITY);
+    }
+
+    @Test
+    public void shouldReturn413WhenTheBatchBodyIsTooLarge() {
+        char[] samlResponse = new char[MAX_BATCH_REQUEST_BODY_SIZE];
+        Arrays.fill(samlResponse, 'a');
+
+        Response response = resources.client()
+            .target("/translate-responses")
+            .request()
+            .post(json(new JSONArray()
+                .put(aTranslateResponseRequest("some-request-id").put("samlResponse", new String(samlResponse)))
+                .toString()));
+
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.SC_REQUEST_TOO_LONG);
+    }
+
+    @Test
+    public void shouldReturn413WhenAChunkedBatchBodyIsTooLargeWhileItIsBeingRead() {
+        StreamingOutput body = outputStream -> {
+            outputStream.write("[{\"requestId\":\"some-request-id\",\"samlResponse\":\"".getBytes(StandardCharsets.UTF_8));
+            byte[] samlResponse = new byte[1024];
+            Arrays.fill(samlResponse, (byte) 'a');
+            for (int written = 0; written <= MAX_BATCH_REQUEST_BODY_SIZE; written += samlResponse.length) {
+                outputStream.write(samlResponse);
+            }
+            outputStream.write("\",\"levelOfAssurance\":\"LEVEL_2\"}]".getBytes(StandardCharsets.UTF_8));
+        };
+
+        Response response = resources.client()
+            .property(ClientProperties.REQUEST_ENTITY_PROCESSING, RequestEntityProcessing.CHUNKED)
+            .target("/translate-responses")
+            .request()
+            .post(Entity.entity(body, MediaType.APPLICATION_JSON_TYPE));
+
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.SC_REQUEST_TOO_LONG);
+        assertThat(response.readEntity(ErrorMessage.class).getCode()).isEqualTo(HttpStatus.SC_REQUEST_TOO_LONG);
+        verifyNoMoreInteractions(responseService);
+    }
+
+    @Test
+    public void shouldReturn422WhenAnItemInTheBatchIsInvalid() {
+        Response response = resources.client()
+            .target("/translate-responses")
+            .request()
+            .post(json(new JSONArray().put(aTranslateResponseRequest("some-request-id")).put(new JSONObject()).toString()));
+
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.SC_UNPROCESSABLE_ENTITY);
+        assertThat(response.readEntity(ErrorMessage.class).getMessage()).contains("samlResponse must not be null");
+    }
+
+    private JSONObject aTranslateResponseRequest(String requestId) {
+        return new JSONObject()
+            .put("samlResponse", "some-saml-response")
+            .put("requestId", requestId)
+            .put("levelOfAssurance", LEVEL_2.name());
+    }
+}
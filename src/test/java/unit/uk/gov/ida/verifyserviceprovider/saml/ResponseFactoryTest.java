@@ -1,17 +1,23 @@
 package unit.uk.gov.ida.verifyserviceprovider.saml;
 
+import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
+import org.opensaml.core.xml.XMLObject;
 import org.opensaml.saml.saml2.core.Response;
+import uk.gov.ida.saml.core.IdaSamlBootstrap;
 import uk.gov.ida.saml.core.validation.SamlResponseValidationException;
 import uk.gov.ida.saml.core.validation.SamlTransformationErrorException;
 import uk.gov.ida.saml.deserializers.StringToOpenSamlObjectTransformer;
+import uk.gov.ida.saml.serializers.XmlObjectToBase64EncodedStringTransformer;
 import uk.gov.ida.verifyserviceprovider.factories.saml.ResponseFactory;
 
 import java.util.Base64;
 import java.util.Collections;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static uk.gov.ida.saml.core.test.builders.ResponseBuilder.aResponse;
 
 public class ResponseFactoryTest {
 
@@ -19,6 +25,22 @@ public class ResponseFactoryTest {
     public ExpectedException expectedException = ExpectedException.none();
 
     private StringToOpenSamlObjectTransformer<Response> stringToResponseTransformer = ResponseFactory.createStringToResponseTransformer();
+    private XmlObjectToBase64EncodedStringTransformer<XMLObject> base64EncodedStringTransformer = new XmlObjectToBase64EncodedStringTransformer<>();
+
+    @Before
+    public void bootStrapOpenSaml() {
+        IdaSamlBootstrap.bootstrap();
+    }
+
+    @Test
+    public void createStringToResponseTransformerShouldUnmarshalBase64EncodedSamlResponse() throws Exception {
+        Response response = aResponse().withId("some-response-id").withoutSigning().build();
+
+        Response unmarshalledResponse = stringToResponseTransformer.apply(base64EncodedStringTransformer.apply(response));
+
+        assertThat(unmarshalledResponse.getID()).isEqualTo("some-response-id");
+        assertThat(unmarshalledResponse.getDOM()).isNotNull();
+    }
 
     @Test
     public void createStringToResponseTransformerShouldNotAllowNullSamlResponse() {
@@ -42,4 +64,34 @@ public class ResponseFactoryTest {
         expectedException.expectMessage("SAML Response is too long.");
         stringToResponseTransformer.apply(longBase64EncodedString);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void createStringToResponseTransformerShouldUseTheConfiguredMaximumLength() {
+        String base64EncodedString = Base64.getEncoder().encodeToString(String.join("", Collections.nCopies(100, "a")).getBytes());
+        expectedException.expect(SamlResponseValidationException.class);
+        expectedException.expectMessage("SAML Response is too long.");
+        ResponseFactory.createStringToResponseTransformer(base64EncodedString.length() - 1).apply(base64EncodedString);
+    }
+
+    @Test
+    public void createStringToResponseTransformerShouldRejectPathologicalXmlBeforeParsingIt() {
+        String deeplyNestedXml = String.join("", Collections.nCopies(100, "<a>")) + String.join("", Collections.nCopies(100, "</a>"));
+        expectedException.expect(SamlResponseValidationException.class);
+        expectedException.expectMessage("SAML Response is nested too deeply.");
+        stringToResponseTransformer.apply(Base64.getEncoder().encodeToString(deeplyNestedXml.getBytes()));
+    }
+
+    @Test
+    public void createStringToResponseTransformerShouldRejectMalformedXml() {
+        expectedException.expect(SamlTransformationErrorException.class);
+        expectedException.expectMessage("SAML Response could not be read as XML.");
+        stringToResponseTransformer.apply(Base64.getEncoder().encodeToString("<samlp:Response><unclosed>".getBytes()));
+    }
+
+    @Test
+    public void createStringToResponseTransformerShouldRejectXmlThatIsNotAResponse() {
+        expectedException.expect(SamlTransformationErrorException.class);
+        expectedException.expectMessage("SAML message is not a Response.");
+        stringToResponseTransformer.apply(Base64.getEncoder().encodeToString("<a/>".getBytes()));
+    }
+}
@@ -0,0 +1,100 @@
+package unit.uk.gov.ida.verifyserviceprovider.security;
+
+import org.joda.time.DateTime;
+import org.joda.time.Duration;
+import org.junit.Before;
+import org.junit.Test;
+import org.opensaml.saml.metadata.resolver.MetadataResolver;
+import org.opensaml.saml.metadata.resolver.RefreshableMetadataResolver;
+import org.opensaml.security.credential.Credential;
+import uk.gov.ida.saml.security.EncryptionCredentialResolver;
+import uk.gov.ida.verifyserviceprovider.security.CachingEncryptionCredentialResolver;
+import uk.gov.ida.verifyserviceprovider.utils.TranslationClock;
+
+import java.time.Clock;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class CachingEncryptionCredentialResolverTest {
+
+    private static final String HUB_ENTITY_ID = "http://hub-entity-id";
+    private static final String OTHER_ENTITY_ID = "http://other-entity-id";
+
+    private final EncryptionCredentialResolver encryptionCredentialResolver = mock(EncryptionCredentialResolver.class);
+    private final RefreshableMetadataResolver metadataResolver = mock(RefreshableMetadataResolver.class);
+    private final Credential credential = mock(Credential.class);
+    private final Credential rolledOverCredential = mock(Credential.class);
+    private final DateTime lastUpdate = DateTime.now();
+
+    @Before
+    public void setUp() {
+        when(metadataResolver.getLastUpdate()).thenReturn(lastUpdate);
+        when(encryptionCredentialResolver.getEncryptingCredential(HUB_ENTITY_ID)).thenReturn(credential, rolledOverCredential);
+    }
+
+    @Test
+    public void shouldOnlyResolveTheCredentialOnceWhileMetadataIsUnchanged() {
+        CachingEncryptionCredentialResolver resolver = new CachingEncryptionCredentialResolver(encryptionCredentialResolver, metadataResolver);
+
+        assertThat(resolver.getEncryptingCredential(HUB_ENTITY_ID)).isSameAs(credential);
+        assertThat(resolver.getEncryptingCredential(HUB_ENTITY_ID)).isSameAs(credential);
+
+        verify(encryptionCredentialResolver, times(1)).getEncryptingCredential(HUB_ENTITY_ID);
+    }
+
+    @Test
+    public void shouldCacheCredentialsForEachEntityIdSeparately() {
+        Credential otherCredential = mock(Credential.class);
+        when(encryptionCredentialResolver.getEncryptingCredential(OTHER_ENTITY_ID)).thenReturn(otherCredential);
+        CachingEncryptionCredentialResolver resolver = new CachingEncryptionCredentialResolver(encryptionCredentialResolver, metadataResolver);
+
+        assertThat(resolver.getEncryptingCredential(HUB_ENTITY_ID)).isSameAs(credential);
+        assertThat(resolver.getEncryptingCredential(OTHER_ENTITY_ID)).isSameAs(otherCredential);
+    }
+
+    @Test
+    public void shouldResolveTheCredentialAgainWhenMetadataIsUpdated() {
+        CachingEncryptionCredentialResolver resolver = new CachingEncryptionCredentialResolver(encryptionCredentialResolver, metadataResolver);
+        resolver.getEncryptingCredential(HUB_ENTITY_ID);
+
+        when(metadataResolver.getLastUpdate()).thenReturn(lastUpdate.plusHours(1));
+
+        assertThat(resolver.getEncryptingCredential(HUB_ENTITY_ID)).isSameAs(rolledOverCredential);
+        verify(encryptionCredentialResolver, times(2)).getEncryptingCredential(HUB_ENTITY_ID);
+    }
+
+    @Test
+    public void shouldCacheTheCredentialWhenTheMetadataResolverIsNotRefreshable() {
+        CachingEncryptionCredentialResolver resolver = new CachingEncryptionCredentialResolver(encryptionCredentialResolver, mock(MetadataResolver.class));
+
+        resolver.getEncryptingCredential(HUB_ENTITY_ID);
+        resolver.getEncryptingCredential(HUB_ENTITY_ID);
+
+        verify(encryptionCredentialResolver, times(1)).getEncryptingCredential(HUB_ENTITY_ID);
+    }
+
+    @Test
+    public void shouldResolveTheCredentialAgainAfterTheTimeToLiveWhenTheMetadataResolverIsNotRefreshable() {
+        Clock clock = mock(Clock.class);
+        when(clock.millis()).thenReturn(0L);
+        CachingEncryptionCredentialResolver resolver = new CachingEncryptionCredentialResolver(
+                encryptionCredentialResolver,
+                mock(MetadataResolver.class),
+                Duration.standardMinutes(5),
+                new TranslationClock(clock)
+        );
+
+        assertThat(resolver.getEncryptingCredential(HUB_ENTITY_ID)).isSameAs(credential);
+
+        when(clock.millis()).thenReturn(Duration.standardMinutes(5).getMillis() - 1);
+        assertThat(resolver.getEncryptingCredential(HUB_ENTITY_ID)).isSameAs(credential);
+
+        when(clock.millis()).thenReturn(Duration.standardMinutes(5).getMillis());
+        assertThat(resolver.getEncryptingCredential(HUB_ENTITY_ID)).isSameAs(rolledOverCredential);
+        verify(encryptionCredentialResolver, times(2)).getEncryptingCredential(HUB_ENTITY_ID);
+    }
+}
@@ -0,0 +1,144 @@
+package unit.uk.gov.ida.verifyserviceprovider.security;
+
+import net.shibboleth.utilities.java.support.resolver.CriteriaSet;
+import org.joda.time.DateTime;
+import org.joda.time.Duration;
+import org.junit.Before;
+import org.junit.Test;
+import org.opensaml.core.criterion.EntityIdCriterion;
+import org.opensaml.saml.metadata.resolver.MetadataResolver;
+import org.opensaml.saml.metadata.resolver.RefreshableMetadataResolver;
+import org.opensaml.security.credential.Credential;
+import org.opensaml.security.credential.CredentialResolver;
+import org.opensaml.xmlsec.config.impl.DefaultSecurityConfigurationBootstrap;
+import org.opensaml.xmlsec.signature.Signature;
+import org.opensaml.xmlsec.signature.support.impl.ExplicitKeySignatureTrustEngine;
+import uk.gov.ida.saml.core.IdaSamlBootstrap;
+import uk.gov.ida.saml.core.test.TestCredentialFactory;
+import uk.gov.ida.saml.core.test.builders.SignatureBuilder;
+import uk.gov.ida.verifyserviceprovider.security.IndexedSignatureTrustEngine;
+import uk.gov.ida.verifyserviceprovider.utils.TranslationClock;
+
+import java.time.Clock;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static uk.gov.ida.saml.core.test.TestCertificateStrings.HUB_TEST_PRIVATE_SIGNING_KEY;
+import static uk.gov.ida.saml.core.test.TestCertificateStrings.HUB_TEST_PUBLIC_SIGNING_CERT;
+import static uk.gov.ida.saml.core.test.TestCertificateStrings.TEST_PRIVATE_KEY;
+import static uk.gov.ida.saml.core.test.TestCertificateStrings.TEST_PUBLIC_CERT;
+import static uk.gov.ida.saml.core.test.TestCertificateStrings.TEST_RP_PRIVATE_SIGNING_KEY;
+import static uk.gov.ida.saml.core.test.TestCertificateStrings.TEST_RP_PUBLIC_SIGNING_CERT;
+import static uk.gov.ida.saml.core.test.builders.AssertionBuilder.anAssertion;
+import static uk.gov.ida.saml.core.test.builders.SignatureBuilder.aSignature;
+
+public class IndexedSignatureTrustEngineTest {
+
+    private static final String HUB_ENTITY_ID = "http://hub-entity-id";
+    private static final Duration TIME_TO_LIVE = Duration.standardMinutes(5);
+
+    private final Credential firstCredential = new TestCredentialFactory(TEST_RP_PUBLIC_SIGNING_CERT, TEST_RP_PRIVATE_SIGNING_KEY).getSigningCredential();
+    private final Credential secondCredential = new TestCredentialFactory(HUB_TEST_PUBLIC_SIGNING_CERT, HUB_TEST_PRIVATE_SIGNING_KEY).getSigningCredential();
+    private final Credential untrustedCredential = new TestCredentialFactory(TEST_PUBLIC_CERT, TEST_PRIVATE_KEY).getSigningCredential();
+    private final CredentialResolver credentialResolver = mock(CredentialResolver.class);
+    private final RefreshableMetadataResolver metadataResolver = mock(RefreshableMetadataResolver.class);
+    private final AtomicInteger verificationAttempts = new AtomicInteger();
+    private final CriteriaSet criteriaSet = new CriteriaSet(new EntityIdCriterion(HUB_ENTITY_ID));
+    private final Clock clock = mock(Clock.class);
+    private ExplicitKeySignatureTrustEngine explicitKeySignatureTrustEngine;
+    private IndexedSignatureTrustEngine trustEngine;
+
+    @Before
+    public void setUp() throws Exception {
+        IdaSamlBootstrap.bootstrap();
+        when(metadataResolver.getLastUpdate()).thenReturn(DateTime.now());
+        when(credentialResolver.resolve(any())).thenReturn(asList(firstCredential, secondCredential));
+        when(clock.millis()).thenReturn(0L);
+
+        explicitKeySignatureTrustEngine = new ExplicitKeySignatureTrustEngine(
+                credentialResolver,
+                DefaultSecurityConfigurationBootstrap.buildBasicInlineKeyInfoCredentialResolver());
+        trustEngine = new IndexedSignatureTrustEngine(explicitKeySignatureTrustEngine, metadataResolver, TIME_TO_LIVE, new TranslationClock(clock)) {
+            @Override
+            protected boolean verifySignature(Signature signature, Credential credential) {
+                verificationAttempts.incrementAndGet();
+                return super.verifySignature(signature, credential);
+            }
+        };
+    }
+
+    @Test
+    public void shouldVerifyWithTheCredentialNamedInTheKeyInfoFirst() throws Exception {
+        Signature signature = aSignedObjectSignature(aSignature()
+                .withX509Data(HUB_TEST_PUBLIC_SIGNING_CERT)
+                .withSigningCredential(secondCredential));
+
+        assertThat(trustEngine.validate(signature, criteriaSet)).isTrue();
+        assertThat(verificationAttempts.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldVerifyWithTheLastSuccessfulCredentialFirstWhenThereIsNoKeyInfo() throws Exception {
+        assertThat(trustEngine.validate(aSignedObjectSignature(aSignature().withSigningCredential(secondCredential)), criteriaSet)).isTrue();
+        assertThat(verificationAttempts.getAndSet(0)).isEqualTo(2);
+
+        assertThat(trustEngine.validate(aSignedObjectSignature(aSignature().withSigningCredential(secondCredential)), criteriaSet)).isTrue();
+        assertThat(verificationAttempts.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldNotTrustACredentialThatIsOnlyInTheKeyInfo() throws Exception {
+        Signature signature = aSignedObjectSignature(aSignature()
+                .withX509Data(TEST_PUBLIC_CERT)
+                .withSigningCredential(untrustedCredential));
+
+        assertThat(trustEngine.validate(signature, criteriaSet)).isFalse();
+    }
+
+    @Test
+    public void shouldOnlyResolveTrustedCredentialsOnceWhileMetadataIsUnchanged() throws Exception {
+        trustEngine.validate(aSignedObjectSignature(aSignature().withSigningCredential(firstCredential)), criteriaSet);
+        trustEngine.validate(aSignedObjectSignature(aSignature().withSigningCredential(firstCredential)), criteriaSet);
+
+        verify(credentialResolver, times(1)).resolve(any());
+    }
+
+    @Test
+    public void shouldResolveTrustedCredentialsAgainWhenMetadataIsUpdated() throws Exception {
+        trustEngine.validate(aSignedObjectSignature(aSignature().withSigningCredential(firstCredential)), criteriaSet);
+        when(metadataResolver.getLastUpdate()).thenReturn(DateTime.now().plusMinutes(1));
+        when(credentialResolver.resolve(any())).thenReturn(asList(secondCredential));
+
+        assertThat(trustEngine.validate(aSignedObjectSignature(aSignature().withSigningCredential(firstCredential)), criteriaSet)).isFalse();
+        verify(credentialResolver, times(2)).resolve(any());
+    }
+
+    @Test
+    public void shouldStopTrustingARemovedCredentialAfterTheTimeToLiveWhenTheMetadataResolverIsNotRefreshable() throws Exception {
+        IndexedSignatureTrustEngine trustEngine = new IndexedSignatureTrustEngine(
+                explicitKeySignatureTrustEngine,
+                mock(MetadataResolver.class),
+                TIME_TO_LIVE,
+                new TranslationClock(clock)
+        );
+        assertThat(trustEngine.validate(aSignedObjectSignature(aSignature().withSigningCredential(firstCredential)), criteriaSet)).isTrue();
+
+        when(credentialResolver.resolve(any())).thenReturn(asList(secondCredential));
+        when(clock.millis()).thenReturn(TIME_TO_LIVE.getMillis() - 1);
+        assertThat(trustEngine.validate(aSignedObjectSignature(aSignature().withSigningCredential(firstCredential)), criteriaSet)).isTrue();
+
+        when(clock.millis()).thenReturn(TIME_TO_LIVE.getMillis());
+        assertThat(trustEngine.validate(aSignedObjectSignature(aSignature().withSigningCredential(firstCredential)), criteriaSet)).isFalse();
+        assertThat(trustEngine.validate(aSignedObjectSignature(aSignature().withSigningCredential(secondCredential)), criteriaSet)).isTrue();
+    }
+
+    private Signature aSignedObjectSignature(SignatureBuilder signatureBuilder) throws Exception {
+        return anAssertion().withSignature(signatureBuilder.build()).buildUnencrypted().getSignature();
+    }
+}
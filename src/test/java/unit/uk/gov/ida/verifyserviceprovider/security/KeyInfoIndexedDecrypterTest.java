@@ -0,0 +1,140 @@
+package unit.uk.gov.ida.verifyserviceprovider.security;
+
+import com.codahale.metrics.MetricRegistry;
+import org.apache.commons.codec.binary.Base64;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.opensaml.saml.saml2.core.Assertion;
+import org.opensaml.saml.saml2.core.EncryptedAssertion;
+import org.opensaml.saml.saml2.encryption.Encrypter;
+import org.opensaml.security.credential.BasicCredential;
+import org.opensaml.security.credential.Credential;
+import org.opensaml.xmlsec.encryption.EncryptedKey;
+import org.opensaml.xmlsec.encryption.support.DataEncryptionParameters;
+import org.opensaml.xmlsec.encryption.support.DecryptionException;
+import org.opensaml.xmlsec.encryption.support.EncryptionConstants;
+import org.opensaml.xmlsec.encryption.support.KeyEncryptionParameters;
+import org.opensaml.xmlsec.keyinfo.impl.BasicKeyInfoGeneratorFactory;
+import uk.gov.ida.common.shared.security.PrivateKeyFactory;
+import uk.gov.ida.common.shared.security.PublicKeyFactory;
+import uk.gov.ida.common.shared.security.X509CertificateFactory;
+import uk.gov.ida.saml.core.IdaSamlBootstrap;
+import uk.gov.ida.saml.security.EncrypterFactory;
+import uk.gov.ida.verifyserviceprovider.security.KeyInfoIndexedDecrypter;
+
+import java.security.Key;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static uk.gov.ida.saml.core.test.TestCertificateStrings.HUB_TEST_PRIVATE_ENCRYPTION_KEY;
+import static uk.gov.ida.saml.core.test.TestCertificateStrings.HUB_TEST_PUBLIC_ENCRYPTION_CERT;
+import static uk.gov.ida.saml.core.test.TestCertificateStrings.TEST_PRIVATE_KEY;
+import static uk.gov.ida.saml.core.test.TestCertificateStrings.TEST_PUBLIC_CERT;
+import static uk.gov.ida.saml.core.test.TestCertificateStrings.TEST_RP_PRIVATE_ENCRYPTION_KEY;
+import static uk.gov.ida.saml.core.test.TestCertificateStrings.TEST_RP_PUBLIC_ENCRYPTION_CERT;
+import static uk.gov.ida.saml.core.test.builders.AssertionBuilder.anAssertion;
+
+public class KeyInfoIndexedDecrypterTest {
+
+    private static final String DECRYPTION_KEY_METRIC = "uk.gov.ida.verifyserviceprovider.services.ResponseService.decryption-key.";
+
+    private final BasicCredential primaryCredential = createCredential(TEST_RP_PUBLIC_ENCRYPTION_CERT, TEST_RP_PRIVATE_ENCRYPTION_KEY);
+    private final BasicCredential secondaryCredential = createCredential(HUB_TEST_PUBLIC_ENCRYPTION_CERT, HUB_TEST_PRIVATE_ENCRYPTION_KEY);
+    private final MetricRegistry metricRegistry = new MetricRegistry();
+    private final AtomicInteger unwrapAttempts = new AtomicInteger();
+    private KeyInfoIndexedDecrypter decrypter;
+
+    @Rule
+    public ExpectedException expectedException = ExpectedException.none();
+
+    @Before
+    public void setUp() {
+        IdaSamlBootstrap.bootstrap();
+        List<Credential> decryptingCredentials = asList(primaryCredential, secondaryCredential);
+        decrypter = new KeyInfoIndexedDecrypter(decryptingCredentials, metricRegistry) {
+            @Override
+            public Key decryptKey(EncryptedKey encryptedKey, String algorithm, Key kek) throws DecryptionException {
+                unwrapAttempts.incrementAndGet();
+                return super.decryptKey(encryptedKey, algorithm, kek);
+            }
+        };
+    }
+
+    @Test
+    public void shouldOnlyTryTheKeyNamedInTheKeyInfo() throws Exception {
+        Assertion assertion = anAssertion().buildUnencrypted();
+
+        Assertion decryptedAssertion = decrypter.decrypt(encryptWithKeyInfo(assertion, secondaryCredential));
+
+        assertThat(decryptedAssertion.getID()).isEqualTo(assertion.getID());
+        assertThat(unwrapAttempts.get()).isEqualTo(1);
+        assertThat(meterCount("secondary")).isEqualTo(1);
+        assertThat(meterCount("primary")).isEqualTo(0);
+        assertThat(meterCount("unhinted")).isEqualTo(0);
+    }
+
+    @Test
+    public void shouldTryEachKeyInOrderWhenThereIsNoKeyInfo() throws Exception {
+        Assertion assertion = anAssertion().buildUnencrypted();
+
+        Assertion decryptedAssertion = decrypter.decrypt(encryptWithoutKeyInfo(assertion, secondaryCredential));
+
+        assertThat(decryptedAssertion.getID()).isEqualTo(assertion.getID());
+        assertThat(unwrapAttempts.get()).isEqualTo(2);
+        assertThat(meterCount("secondary")).isEqualTo(1);
+        assertThat(meterCount("unhinted")).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldRecordWhenThePrimaryKeyIsUsed() throws Exception {
+        decrypter.decrypt(encryptWithoutKeyInfo(anAssertion().buildUnencrypted(), primaryCredential));
+
+        assertThat(unwrapAttempts.get()).isEqualTo(1);
+        assertThat(meterCount("primary")).isEqualTo(1);
+        assertThat(meterCount("secondary")).isEqualTo(0);
+    }
+
+    @Test
+    public void shouldFailWhenNoConfiguredKeyCanDecrypt() throws Exception {
+        BasicCredential unknownCredential = createCredential(TEST_PUBLIC_CERT, TEST_PRIVATE_KEY);
+        EncryptedAssertion encryptedAssertion = encryptWithKeyInfo(anAssertion().buildUnencrypted(), unknownCredential);
+
+        expectedException.expect(DecryptionException.class);
+
+        decrypter.decrypt(encryptedAssertion);
+    }
+
+    private EncryptedAssertion encryptWithKeyInfo(Assertion assertion, Credential encryptionCredential) throws Exception {
+        DataEncryptionParameters dataEncryptionParameters = new DataEncryptionParameters();
+        dataEncryptionParameters.setAlgorithm(EncryptionConstants.ALGO_ID_BLOCKCIPHER_AES128);
+
+        BasicKeyInfoGeneratorFactory keyInfoGeneratorFactory = new BasicKeyInfoGeneratorFactory();
+        keyInfoGeneratorFactory.setEmitPublicKeyValue(true);
+        KeyEncryptionParameters keyEncryptionParameters = new KeyEncryptionParameters();
+        keyEncryptionParameters.setEncryptionCredential(encryptionCredential);
+        keyEncryptionParameters.setAlgorithm(EncryptionConstants.ALGO_ID_KEYTRANSPORT_RSAOAEP);
+        keyEncryptionParameters.setKeyInfoGenerator(keyInfoGeneratorFactory.newInstance());
+
+        Encrypter encrypter = new Encrypter(dataEncryptionParameters, keyEncryptionParameters);
+        encrypter.setKeyPlacement(Encrypter.KeyPlacement.PEER);
+        return encrypter.encrypt(assertion);
+    }
+
+    private EncryptedAssertion encryptWithoutKeyInfo(Assertion assertion, Credential encryptionCredential) throws Exception {
+        return new EncrypterFactory().createEncrypter(encryptionCredential).encrypt(assertion);
+    }
+
+    private long meterCount(String keyName) {
+        return metricRegistry.meter(DECRYPTION_KEY_METRIC + keyName).getCount();
+    }
+
+    private static BasicCredential createCredential(String publicCertificate, String privateKey) {
+        return new BasicCredential(
+                new PublicKeyFactory(new X509CertificateFactory()).createPublicKey(publicCertificate),
+                new PrivateKeyFactory().createPrivateKey(Base64.decodeBase64(privateKey)));
+    }
+}
@@ -0,0 +1,116 @@
+package unit.uk.gov.ida.verifyserviceprovider.security;
+
+import org.apache.commons.codec.binary.Base64;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.opensaml.saml.saml2.core.Assertion;
+import org.opensaml.saml.saml2.core.EncryptedAssertion;
+import org.opensaml.security.credential.BasicCredential;
+import uk.gov.ida.common.shared.security.PrivateKeyFactory;
+import uk.gov.ida.common.shared.security.PublicKeyFactory;
+import uk.gov.ida.common.shared.security.X509CertificateFactory;
+import uk.gov.ida.saml.core.IdaSamlBootstrap;
+import uk.gov.ida.saml.core.test.builders.ResponseBuilder;
+import uk.gov.ida.saml.security.AssertionDecrypter;
+import uk.gov.ida.saml.security.DecrypterFactory;
+import uk.gov.ida.saml.security.EncrypterFactory;
+import uk.gov.ida.saml.security.validators.ValidatedEncryptedAssertionContainer;
+import uk.gov.ida.saml.security.validators.encryptedelementtype.EncryptionAlgorithmValidator;
+import uk.gov.ida.verifyserviceprovider.security.ParallelAssertionDecrypter;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static uk.gov.ida.saml.core.test.TestCertificateStrings.HUB_TEST_PRIVATE_ENCRYPTION_KEY;
+import static uk.gov.ida.saml.core.test.TestCertificateStrings.HUB_TEST_PUBLIC_ENCRYPTION_CERT;
+import static uk.gov.ida.saml.core.test.TestCertificateStrings.TEST_RP_PRIVATE_ENCRYPTION_KEY;
+import static uk.gov.ida.saml.core.test.TestCertificateStrings.TEST_RP_PUBLIC_ENCRYPTION_CERT;
+import static uk.gov.ida.saml.core.test.builders.AssertionBuilder.anAssertion;
+import static uk.gov.ida.saml.core.test.builders.ResponseBuilder.aResponse;
+
+public class ParallelAssertionDecrypterTest {
+
+    private final BasicCredential credential = createCredential(TEST_RP_PUBLIC_ENCRYPTION_CERT, TEST_RP_PRIVATE_ENCRYPTION_KEY);
+    private final BasicCredential unknownCredential = createCredential(HUB_TEST_PUBLIC_ENCRYPTION_CERT, HUB_TEST_PRIVATE_ENCRYPTION_KEY);
+    private final EncryptionAlgorithmValidator encryptionAlgorithmValidator = new EncryptionAlgorithmValidator();
+    private ExecutorService executor;
+    private ParallelAssertionDecrypter parallelAssertionDecrypter;
+    private AssertionDecrypter assertionDecrypter;
+
+    @Before
+    public void setUp() {
+        IdaSamlBootstrap.bootstrap();
+        executor = Executors.newFixedThreadPool(2);
+        parallelAssertionDecrypter = new ParallelAssertionDecrypter(
+                encryptionAlgorithmValidator,
+                new DecrypterFactory().createDecrypter(singletonList(credential)),
+                executor);
+        assertionDecrypter = new AssertionDecrypter(
+                encryptionAlgorithmValidator,
+                new DecrypterFactory().createDecrypter(singletonList(credential)));
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    public void shouldDecryptAssertionsInTheirOriginalOrder() throws Exception {
+        ValidatedEncryptedAssertionContainer container = aResponseWith(
+                anEncryptedAssertion("first", credential),
+                anEncryptedAssertion("second", credential),
+                anEncryptedAssertion("third", credential));
+
+        List<Assertion> assertions = parallelAssertionDecrypter.decryptAssertions(container);
+
+        assertThat(assertions.stream().map(Assertion::getID).collect(Collectors.toList()))
+                .containsExactly("first", "second", "third");
+    }
+
+    @Test
+    public void shouldDecryptASingleAssertion() throws Exception {
+        ValidatedEncryptedAssertionContainer container = aResponseWith(anEncryptedAssertion("only", credential));
+
+        assertThat(parallelAssertionDecrypter.decryptAssertions(container)).extracting(Assertion::getID).containsExactly("only");
+    }
+
+    @Test
+    public void shouldFailTheSameWayAsSequentialDecryptionWhenAnAssertionCannotBeDecrypted() throws Exception {
+        ValidatedEncryptedAssertionContainer container = aResponseWith(
+                anEncryptedAssertion("first", credential),
+                anEncryptedAssertion("second", unknownCredential));
+
+        Throwable sequentialFailure = catchThrowable(() -> assertionDecrypter.decryptAssertions(container));
+        Throwable parallelFailure = catchThrowable(() -> parallelAssertionDecrypter.decryptAssertions(container));
+
+        assertThat(sequentialFailure).isNotNull();
+        assertThat(parallelFailure).isExactlyInstanceOf(sequentialFailure.getClass());
+    }
+
+    private ValidatedEncryptedAssertionContainer aResponseWith(EncryptedAssertion... encryptedAssertions) throws Exception {
+        ResponseBuilder responseBuilder = aResponse().withNoDefaultAssertion();
+        for (EncryptedAssertion encryptedAssertion : encryptedAssertions) {
+            responseBuilder.addEncryptedAssertion(encryptedAssertion);
+        }
+        List<EncryptedAssertion> responseAssertions = responseBuilder.withoutSigning().build().getEncryptedAssertions();
+        return () -> responseAssertions;
+    }
+
+    private EncryptedAssertion anEncryptedAssertion(String id, BasicCredential encryptionCredential) throws Exception {
+        Assertion assertion = anAssertion().withId(id).buildUnencrypted();
+        return new EncrypterFactory().createEncrypter(encryptionCredential).encrypt(assertion);
+    }
+
+    private static BasicCredential createCredential(String publicCertificate, String privateKey) {
+        return new BasicCredential(
+                new PublicKeyFactory(new X509CertificateFactory()).createPublicKey(publicCertificate),
+                new PrivateKeyFactory().createPrivateKey(Base64.decodeBase64(privateKey)));
+    }
+}
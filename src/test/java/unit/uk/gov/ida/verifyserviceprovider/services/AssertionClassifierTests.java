@@ -6,9 +6,14 @@ import org.opensaml.saml.saml2.core.Assertion;
 import uk.gov.ida.saml.core.IdaSamlBootstrap;
 import uk.gov.ida.saml.core.extensions.IdaAuthnContext;
 import uk.gov.ida.saml.core.test.builders.AssertionBuilder;
+import uk.gov.ida.saml.core.validation.SamlResponseValidationException;
 import uk.gov.ida.verifyserviceprovider.services.AssertionClassifier;
 import uk.gov.ida.verifyserviceprovider.services.AssertionClassifier.AssertionType;
+import uk.gov.ida.verifyserviceprovider.services.ClassifiedAssertions;
+
+import static java.util.Arrays.asList;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static uk.gov.ida.saml.core.test.TestEntityIds.STUB_IDP_ONE;
 import static uk.gov.ida.saml.core.test.builders.AssertionBuilder.anAssertion;
 import static uk.gov.ida.saml.core.test.builders.AttributeStatementBuilder.anAttributeStatement;
@@ -37,6 +42,32 @@ public class AssertionClassifierTests {
         assertThat(assertionClassifier.classifyAssertion(authnStatementAssertion)).isEqualTo(AssertionType.AUTHN_ASSERTION);
     }
 
+    @Test
+    public void shouldSortAssertionsByTypeInOnePass() {
+        Assertion mdsAssertion = aMatchingDatasetAssertion("requestId").buildUnencrypted();
+        Assertion authnStatementAssertion = anAuthnStatementAssertion(IdaAuthnContext.LEVEL_2_AUTHN_CTX, "requestId").buildUnencrypted();
+
+        ClassifiedAssertions classifiedAssertions = new AssertionClassifier().classifyAssertions(asList(mdsAssertion, authnStatementAssertion));
+
+        assertThat(classifiedAssertions.getAuthnAssertion()).isSameAs(authnStatementAssertion);
+        assertThat(classifiedAssertions.getMatchingDatasetAssertion()).isSameAs(mdsAssertion);
+    }
+
+    @Test
+    public void shouldRejectMoreThanOneAssertionOfAType() {
+        Assertion firstMdsAssertion = aMatchingDatasetAssertion("requestId").buildUnencrypted();
+        Assertion secondMdsAssertion = aMatchingDatasetAssertion("requestId").buildUnencrypted();
+
+        ClassifiedAssertions classifiedAssertions = new AssertionClassifier().classifyAssertions(asList(firstMdsAssertion, secondMdsAssertion));
+
+        assertThatThrownBy(classifiedAssertions::getMatchingDatasetAssertion)
+                .isInstanceOf(SamlResponseValidationException.class)
+                .hasMessage("Exactly one matching dataset assertion is expected.");
+        assertThatThrownBy(classifiedAssertions::getAuthnAssertion)
+                .isInstanceOf(SamlResponseValidationException.class)
+                .hasMessage("Exactly one authn statement is expected.");
+    }
+
     public static AssertionBuilder aMatchingDatasetAssertion(String requestId) {
         return anAssertion()
                 .withId("mds-assertion")
@@ -239,6 +239,27 @@ public class AttributeTranslatorTests {
         assertThat(result.getAddress().getValue().getToDate()).hasToString(to.toLocalDate().toString());
     }
 
+    @Test
+    public void shouldUseTheFirstAttributeWhenANameIsRepeated() {
+        AttributeStatement attributeStatement = anAttributeStatement()
+            .addAttribute(new SimpleStringAttributeBuilder()
+                .withName("firstname")
+                .withSimpleStringValue("Joe")
+                .build())
+            .addAttribute(createVerifiedAttribute("firstname_verified", true))
+            .addAttribute(new SimpleStringAttributeBuilder()
+                .withName("firstname")
+                .withSimpleStringValue("Bob")
+                .build())
+            .addAttribute(createVerifiedAttribute("firstname_verified", false))
+            .build();
+
+        Attributes result = AttributeTranslator.translateAttributes(attributeStatement);
+
+        assertThat(result.getFirstName().getValue()).isEqualTo("Joe");
+        assertThat(result.getFirstName().isVerified()).isTrue();
+    }
+
     @Test(expected = FailedToRequestVerifiedException.class)
     public void shouldThrowExceptionWhenVerifiedNotRequested() {
         AttributeStatement attributeStatement = anAttributeStatement()
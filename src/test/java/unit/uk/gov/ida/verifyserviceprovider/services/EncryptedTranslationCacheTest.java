@@ -0,0 +1,117 @@
+package unit.uk.gov.ida.verifyserviceprovider.services;
+
+import com.codahale.metrics.MetricRegistry;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.joda.time.Duration;
+import org.junit.Test;
+import uk.gov.ida.saml.core.domain.NonMatchingAttributes;
+import uk.gov.ida.saml.core.validation.SamlResponseValidationException;
+import uk.gov.ida.verifyserviceprovider.dto.Address;
+import uk.gov.ida.verifyserviceprovider.dto.Attributes;
+import uk.gov.ida.verifyserviceprovider.dto.TranslatedMatchingResponseBody;
+import uk.gov.ida.verifyserviceprovider.dto.TranslatedNonMatchingResponseBody;
+import uk.gov.ida.verifyserviceprovider.dto.TranslatedResponseBody;
+import uk.gov.ida.verifyserviceprovider.dto.VerifiableAttribute;
+import uk.gov.ida.verifyserviceprovider.services.EncryptedTranslationCache;
+import uk.gov.ida.verifyserviceprovider.services.TranslationCache;
+
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static io.dropwizard.jackson.Jackson.newObjectMapper;
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static uk.gov.ida.verifyserviceprovider.dto.LevelOfAssurance.LEVEL_1;
+import static uk.gov.ida.verifyserviceprovider.dto.LevelOfAssurance.LEVEL_2;
+import static uk.gov.ida.verifyserviceprovider.dto.MatchingScenario.ACCOUNT_CREATION;
+import static uk.gov.ida.verifyserviceprovider.dto.NonMatchingScenario.IDENTITY_VERIFIED;
+
+public class EncryptedTranslationCacheTest {
+
+    private static final String SAML_RESPONSE = "some-saml-response";
+    private static final String REQUEST_ID = "some-request-id";
+    private static final String ENTITY_ID = "http://service-entity-id";
+
+    private final MetricRegistry metricRegistry = new MetricRegistry();
+    private final ObjectMapper objectMapper = newObjectMapper();
+    private final EncryptedTranslationCache translationCache = new EncryptedTranslationCache(10, Duration.standardMinutes(1), objectMapper, metricRegistry);
+    private final AtomicInteger translations = new AtomicInteger();
+    private final TranslatedMatchingResponseBody translatedResponseBody = new TranslatedMatchingResponseBody(
+            ACCOUNT_CREATION,
+            "some-pid",
+            LEVEL_2,
+            new Attributes(
+                    new VerifiableAttribute<>("Joe", true),
+                    null,
+                    new VerifiableAttribute<>("Bloggs", false),
+                    new VerifiableAttribute<>(LocalDate.of(1977, 7, 21), true),
+                    null,
+                    singletonList(new VerifiableAttribute<>(new Address(singletonList("10 Whitechapel High St"), "E1 8DX", null, null, LocalDate.of(2017, 7, 3), null), true)),
+                    null));
+
+    @Test
+    public void shouldReturnAnEarlierTranslationOfTheSameRequestWithoutTranslatingAgain() {
+        TranslatedResponseBody first = translationCache.get(SAML_RESPONSE, REQUEST_ID, LEVEL_2, ENTITY_ID, this::translate);
+        TranslatedResponseBody retry = translationCache.get(SAML_RESPONSE, REQUEST_ID, LEVEL_2, ENTITY_ID, this::translate);
+
+        assertThat(first).isSameAs(translatedResponseBody);
+        assertThat(retry).isEqualTo(translatedResponseBody);
+        assertThat(translations.get()).isEqualTo(1);
+        assertThat(metricRegistry.meter(MetricRegistry.name(TranslationCache.class, "hits")).getCount()).isEqualTo(1);
+        assertThat(metricRegistry.meter(MetricRegistry.name(TranslationCache.class, "misses")).getCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldReturnAnEarlierNonMatchingTranslationWithAllOfItsAttributes() throws Exception {
+        TranslatedNonMatchingResponseBody nonMatchingResponseBody = new TranslatedNonMatchingResponseBody(
+                IDENTITY_VERIFIED,
+                "some-pid",
+                LEVEL_2,
+                objectMapper.readValue("{"
+                        + "\"firstNames\":[{\"value\":\"Joe\",\"verified\":true,\"from\":\"2017-07-03\",\"to\":\"2019-03-04\"}],"
+                        + "\"middleNames\":[],"
+                        + "\"surnames\":[{\"value\":\"Bloggs\",\"verified\":false,\"from\":\"2017-07-03\"}],"
+                        + "\"datesOfBirth\":[{\"value\":\"1977-07-21\",\"verified\":true}],"
+                        + "\"gender\":{\"value\":\"NOT_SPECIFIED\",\"verified\":true},"
+                        + "\"addresses\":[{\"value\":{\"lines\":[\"10 Whitechapel High St\"],\"postCode\":\"E1 8DX\"},\"verified\":true,\"from\":\"2017-07-03\"}]"
+                        + "}", NonMatchingAttributes.class));
+
+        TranslatedResponseBody first = translationCache.get(SAML_RESPONSE, REQUEST_ID, LEVEL_2, ENTITY_ID, () -> nonMatchingResponseBody);
+        TranslatedResponseBody retry = translationCache.get(SAML_RESPONSE, REQUEST_ID, LEVEL_2, ENTITY_ID, this::translate);
+
+        assertThat(first).isSameAs(nonMatchingResponseBody);
+        assertThat(retry).isInstanceOf(TranslatedNonMatchingResponseBody.class);
+        assertThat(((TranslatedNonMatchingResponseBody) retry).getAttributes()).isNotNull();
+        assertThat(objectMapper.writeValueAsString(retry)).isEqualTo(objectMapper.writeValueAsString(nonMatchingResponseBody));
+        assertThat(translations.get()).isEqualTo(0);
+    }
+
+    @Test
+    public void shouldTranslateAgainWhenAnyPartOfTheRequestIsDifferent() {
+        translationCache.get(SAML_RESPONSE, REQUEST_ID, LEVEL_2, ENTITY_ID, this::translate);
+        translationCache.get(SAML_RESPONSE + "-other", REQUEST_ID, LEVEL_2, ENTITY_ID, this::translate);
+        translationCache.get(SAML_RESPONSE, REQUEST_ID + "-other", LEVEL_2, ENTITY_ID, this::translate);
+        translationCache.get(SAML_RESPONSE, REQUEST_ID, LEVEL_1, ENTITY_ID, this::translate);
+        translationCache.get(SAML_RESPONSE, REQUEST_ID, LEVEL_2, ENTITY_ID + "-other", this::translate);
+
+        assertThat(translations.get()).isEqualTo(5);
+    }
+
+    @Test
+    public void shouldNotCacheAFailedTranslation() {
+        assertThatThrownBy(() -> translationCache.get(SAML_RESPONSE, REQUEST_ID, LEVEL_2, ENTITY_ID, () -> {
+            throw new SamlResponseValidationException("Some validation failure.");
+        }))
+                .isInstanceOf(SamlResponseValidationException.class)
+                .hasMessage("Some validation failure.");
+
+        assertThat(translationCache.get(SAML_RESPONSE, REQUEST_ID, LEVEL_2, ENTITY_ID, this::translate)).isSameAs(translatedResponseBody);
+        assertThat(translations.get()).isEqualTo(1);
+    }
+
+    private TranslatedResponseBody translate() {
+        translations.incrementAndGet();
+        return translatedResponseBody;
+    }
+}
@@ -1,5 +1,6 @@
 package unit.uk.gov.ida.verifyserviceprovider.services;
 
+import com.codahale.metrics.MetricRegistry;
 import com.google.common.collect.ImmutableList;
 import net.shibboleth.utilities.java.support.component.ComponentInitializationException;
 import org.joda.time.DateTime;
@@ -38,8 +39,12 @@ import uk.gov.ida.verifyserviceprovider.dto.LevelOfAssurance;
 import uk.gov.ida.verifyserviceprovider.dto.TranslatedMatchingResponseBody;
 import uk.gov.ida.verifyserviceprovider.dto.TranslatedResponseBody;
 import uk.gov.ida.verifyserviceprovider.factories.saml.ResponseFactory;
+import uk.gov.ida.verifyserviceprovider.services.EncryptedTranslationCache;
 import uk.gov.ida.verifyserviceprovider.services.MatchingAssertionTranslator;
+import uk.gov.ida.verifyserviceprovider.services.ReplayCache;
 import uk.gov.ida.verifyserviceprovider.services.ResponseService;
+import uk.gov.ida.verifyserviceprovider.services.TimeBucketedReplayCache;
+import uk.gov.ida.verifyserviceprovider.services.TranslationCache;
 import uk.gov.ida.verifyserviceprovider.utils.DateTimeComparator;
 import uk.gov.ida.verifyserviceprovider.validators.AssertionValidator;
 import uk.gov.ida.verifyserviceprovider.validators.ConditionsValidator;
@@ -54,8 +59,10 @@ import java.security.PrivateKey;
 import java.util.List;
 
 import static common.uk.gov.ida.verifyserviceprovider.utils.SamlResponseHelper.createVerifiedAttribute;
+import static io.dropwizard.jackson.Jackson.newObjectMapper;
 import static java.util.Arrays.asList;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
@@ -92,11 +99,17 @@ public class ResponseServiceTest {
     private static final String VERIFY_SERVICE_PROVIDER_ENTITY_ID = "some-entity-id";
 
     private ResponseService matchingResponseService;
+    private ResponseService replayProtectedResponseService;
+    private MetricRegistry replayProtectedMetricRegistry;
+    private ResponseService translationCachedResponseService;
+    private MetricRegistry translationCachedMetricRegistry;
 
     private XmlObjectToBase64EncodedStringTransformer<XMLObject> responseToBase64StringTransformer = new XmlObjectToBase64EncodedStringTransformer<>();
 
     private MetadataResolver hubMetadataResolver;
 
+    private MetricRegistry metricRegistry;
+
     @Rule
     public ExpectedException expectedException = ExpectedException.none();
     private TestCredentialFactory encryptionCredentialFactory;
@@ -113,7 +126,8 @@ public class ResponseServiceTest {
 
         hubMetadataResolver = mock(MetadataResolver.class);
 
-        ResponseFactory responseFactory = new ResponseFactory(keyPairs);
+        metricRegistry = new MetricRegistry();
+        ResponseFactory responseFactory = ResponseFactory.builder(keyPairs).withMetricRegistry(metricRegistry).build();
         DateTimeComparator dateTimeComparator = new DateTimeComparator(Duration.standardSeconds(5));
         TimeRestrictionValidator timeRestrictionValidator = new TimeRestrictionValidator(dateTimeComparator);
 
@@ -133,6 +147,21 @@ public class ResponseServiceTest {
             dateTimeComparator
         );
 
+        replayProtectedMetricRegistry = new MetricRegistry();
+        replayProtectedResponseService = ResponseFactory.builder(keyPairs)
+            .withMetricRegistry(replayProtectedMetricRegistry)
+            .withReplayCache(new TimeBucketedReplayCache(Duration.standardSeconds(5), dateTimeComparator.getClock(), replayProtectedMetricRegistry))
+            .build()
+            .createMatchingResponseService(signatureTrustEngine, msaAssertionService, dateTimeComparator);
+
+        translationCachedMetricRegistry = new MetricRegistry();
+        translationCachedResponseService = ResponseFactory.builder(keyPairs)
+            .withMetricRegistry(translationCachedMetricRegistry)
+            .withTranslationCache(new EncryptedTranslationCache(10, Duration.standardMinutes(1), newObjectMapper(), translationCachedMetricRegistry))
+            .withReplayCache(new TimeBucketedReplayCache(Duration.standardSeconds(5), dateTimeComparator.getClock(), translationCachedMetricRegistry))
+            .build()
+            .createMatchingResponseService(signatureTrustEngine, msaAssertionService, dateTimeComparator);
+
     }
 
     @Before
@@ -165,6 +194,34 @@ public class ResponseServiceTest {
         ));
     }
 
+    @Test
+    public void shouldRecordTimingsForEachStageOfTranslation() throws Exception {
+        EntityDescriptor entityDescriptor = createEntityDescriptorWithSigningCertificate(TEST_RP_PUBLIC_SIGNING_CERT);
+        when(hubMetadataResolver.resolve(any())).thenReturn(ImmutableList.of(entityDescriptor));
+
+        Status successStatus = aStatus().
+            withStatusCode(aStatusCode().withValue(StatusCode.SUCCESS).build())
+            .build();
+        Response response = signResponse(createNoAttributeResponseBuilder(successStatus), testRpSigningCredential);
+
+        matchingResponseService.convertTranslatedResponseBody(
+            responseToBase64StringTransformer.apply(response),
+            response.getInResponseTo(),
+            LevelOfAssurance.LEVEL_2,
+            VERIFY_SERVICE_PROVIDER_ENTITY_ID
+        );
+
+        assertThat(metricRegistry.getTimers().keySet()).contains(
+            "uk.gov.ida.verifyserviceprovider.services.ResponseService.matching.unmarshal",
+            "uk.gov.ida.verifyserviceprovider.services.ResponseService.non-matching.unmarshal"
+        );
+        assertThat(metricRegistry.timer(stageTimerName("unmarshal")).getCount()).isEqualTo(1);
+        assertThat(metricRegistry.timer(stageTimerName("response-signature-validation")).getCount()).isEqualTo(1);
+        assertThat(metricRegistry.timer(stageTimerName("response-validation")).getCount()).isEqualTo(1);
+        assertThat(metricRegistry.timer(stageTimerName("decryption")).getCount()).isEqualTo(1);
+        assertThat(metricRegistry.timer(stageTimerName("assertion-translation")).getCount()).isEqualTo(1);
+    }
+
     @Test
     public void matchingResponseServiceShouldHandleAccountCreationSaml() throws Exception {
         EntityDescriptor entityDescriptor = createEntityDescriptorWithSigningCertificate(TEST_RP_PUBLIC_SIGNING_CERT);
@@ -394,6 +451,88 @@ public class ResponseServiceTest {
         );
     }
 
+    @Test
+    public void shouldRejectAReplayedResponseBeforeValidatingItsSignature() throws Exception {
+        EntityDescriptor entityDescriptor = createEntityDescriptorWithSigningCertificate(TEST_RP_PUBLIC_SIGNING_CERT);
+        when(hubMetadataResolver.resolve(any())).thenReturn(ImmutableList.of(entityDescriptor));
+
+        Status successStatus = aStatus().
+            withStatusCode(aStatusCode().withValue(StatusCode.SUCCESS).build())
+            .build();
+        Response response = signResponse(createNoAttributeResponseBuilder(successStatus), testRpSigningCredential);
+        String samlResponse = responseToBase64StringTransformer.apply(response);
+
+        replayProtectedResponseService.convertTranslatedResponseBody(samlResponse, response.getInResponseTo(), LevelOfAssurance.LEVEL_2, VERIFY_SERVICE_PROVIDER_ENTITY_ID);
+
+        assertThatThrownBy(() -> replayProtectedResponseService.convertTranslatedResponseBody(samlResponse, response.getInResponseTo(), LevelOfAssurance.LEVEL_2, VERIFY_SERVICE_PROVIDER_ENTITY_ID))
+            .isInstanceOf(SamlResponseValidationException.class)
+            .hasMessage(String.format("Response with ID %s has already been translated.", response.getID()));
+        assertThat(replayProtectedMetricRegistry.timer(stageTimerName("response-signature-validation")).getCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldNotRecordAResponseAsTranslatedWhenItFailsAfterItsSignatureIsValidated() throws Exception {
+        EntityDescriptor entityDescriptor = createEntityDescriptorWithSigningCertificate(TEST_RP_PUBLIC_SIGNING_CERT);
+        when(hubMetadataResolver.resolve(any())).thenReturn(ImmutableList.of(entityDescriptor));
+
+        Status successStatus = aStatus().
+            withStatusCode(aStatusCode().withValue(StatusCode.SUCCESS).build())
+            .build();
+        Response response = signResponse(createNoAttributeResponseBuilder(successStatus), testRpSigningCredential);
+        String samlResponse = responseToBase64StringTransformer.apply(response);
+
+        // The assertion's audience restriction doesn't match, which is only found once it has been decrypted
+        assertThatThrownBy(() -> replayProtectedResponseService.convertTranslatedResponseBody(samlResponse, response.getInResponseTo(), LevelOfAssurance.LEVEL_2, "some-other-entity-id"))
+            .isInstanceOf(SamlResponseValidationException.class);
+
+        TranslatedResponseBody result = replayProtectedResponseService.convertTranslatedResponseBody(samlResponse, response.getInResponseTo(), LevelOfAssurance.LEVEL_2, VERIFY_SERVICE_PROVIDER_ENTITY_ID);
+
+        assertThat(result).isEqualTo(new TranslatedMatchingResponseBody(SUCCESS_MATCH, "some-pid", LevelOfAssurance.LEVEL_2, null));
+        assertThat(replayProtectedMetricRegistry.timer(stageTimerName("response-signature-validation")).getCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void shouldAnswerARetryFromTheTranslationCacheBeforeCheckingForAReplay() throws Exception {
+        EntityDescriptor entityDescriptor = createEntityDescriptorWithSigningCertificate(TEST_RP_PUBLIC_SIGNING_CERT);
+        when(hubMetadataResolver.resolve(any())).thenReturn(ImmutableList.of(entityDescriptor));
+
+        Status successStatus = aStatus().
+            withStatusCode(aStatusCode().withValue(StatusCode.SUCCESS).build())
+            .build();
+        Response response = signResponse(createNoAttributeResponseBuilder(successStatus), testRpSigningCredential);
+        String samlResponse = responseToBase64StringTransformer.apply(response);
+
+        TranslatedResponseBody first = translationCachedResponseService.convertTranslatedResponseBody(samlResponse, response.getInResponseTo(), LevelOfAssurance.LEVEL_2, VERIFY_SERVICE_PROVIDER_ENTITY_ID);
+        TranslatedResponseBody retry = translationCachedResponseService.convertTranslatedResponseBody(samlResponse, response.getInResponseTo(), LevelOfAssurance.LEVEL_2, VERIFY_SERVICE_PROVIDER_ENTITY_ID);
+
+        assertThat(retry).isEqualTo(first);
+        assertThat(translationCachedMetricRegistry.meter(MetricRegistry.name(TranslationCache.class, "hits")).getCount()).isEqualTo(1);
+        assertThat(translationCachedMetricRegistry.meter(MetricRegistry.name(ReplayCache.class, "hits")).getCount()).isEqualTo(0);
+
+        // Any other request with the same response isn't in the translation cache, so it is rejected as a replay
+        assertThatThrownBy(() -> translationCachedResponseService.convertTranslatedResponseBody(samlResponse, response.getInResponseTo(), LevelOfAssurance.LEVEL_1, VERIFY_SERVICE_PROVIDER_ENTITY_ID))
+            .isInstanceOf(SamlResponseValidationException.class)
+            .hasMessage(String.format("Response with ID %s has already been translated.", response.getID()));
+    }
+
+    @Test
+    public void shouldCheckInResponseToBeforeValidatingTheSignature() throws Exception {
+        expectedException.expect(SamlResponseValidationException.class);
+        expectedException.expectMessage(String.format("Expected InResponseTo to be some-incorrect-request-id, but was %s", DEFAULT_REQUEST_ID));
+
+        Status successStatus = aStatus().
+            withStatusCode(aStatusCode().withValue(StatusCode.SUCCESS).build())
+            .build();
+        Response response = createNoAttributeResponseBuilder(successStatus).withoutSigning().build();
+
+        matchingResponseService.convertTranslatedResponseBody(
+            responseToBase64StringTransformer.apply(response),
+            "some-incorrect-request-id",
+            LevelOfAssurance.LEVEL_2,
+            VERIFY_SERVICE_PROVIDER_ENTITY_ID
+        );
+    }
+
     @Test
     public void shouldFailWhenIssueInstantIsTooOld() throws Exception {
         expectedException.expect(SamlResponseValidationException.class);
@@ -432,6 +571,10 @@ public class ResponseServiceTest {
         );
     }
 
+    private String stageTimerName(String stage) {
+        return MetricRegistry.name(ResponseService.class, "matching", stage);
+    }
+
     private EntityDescriptor createEntityDescriptorWithSigningCertificate(String signingCert) throws MarshallingException, SignatureException {
         return anEntityDescriptor()
             .addSpServiceDescriptor(anSpServiceDescriptor()
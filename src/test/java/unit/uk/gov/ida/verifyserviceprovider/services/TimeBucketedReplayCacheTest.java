@@ -0,0 +1,83 @@
+package unit.uk.gov.ida.verifyserviceprovider.services;
+
+import com.codahale.metrics.MetricRegistry;
+import org.joda.time.DateTime;
+import org.joda.time.Duration;
+import org.junit.Before;
+import org.junit.Test;
+import uk.gov.ida.verifyserviceprovider.services.ReplayCache;
+import uk.gov.ida.verifyserviceprovider.services.TimeBucketedReplayCache;
+import uk.gov.ida.verifyserviceprovider.utils.TranslationClock;
+
+import java.time.Clock;
+
+import static com.codahale.metrics.MetricRegistry.name;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class TimeBucketedReplayCacheTest {
+
+    private static final DateTime NOW = DateTime.parse("2019-03-04T11:30:15Z");
+    private static final Duration CLOCK_SKEW = Duration.standardSeconds(30);
+
+    private final Clock clock = mock(Clock.class);
+    private final MetricRegistry metricRegistry = new MetricRegistry();
+    private final TimeBucketedReplayCache replayCache = new TimeBucketedReplayCache(CLOCK_SKEW, new TranslationClock(clock), metricRegistry);
+
+    @Before
+    public void setUp() {
+        setTime(NOW);
+    }
+
+    @Test
+    public void shouldRememberAnIdUntilItsNotOnOrAfterPlusTheClockSkew() {
+        assertThat(replayCache.add("some-id", NOW.plusMinutes(5))).isTrue();
+
+        setTime(NOW.plusMinutes(5).plus(CLOCK_SKEW).minusMillis(1));
+        assertThat(replayCache.contains("some-id")).isTrue();
+
+        setTime(NOW.plusMinutes(5).plus(CLOCK_SKEW));
+        assertThat(replayCache.contains("some-id")).isFalse();
+    }
+
+    @Test
+    public void shouldOnlyLetAnIdBeAddedOnceUntilItExpires() {
+        assertThat(replayCache.add("some-id", NOW.plusMinutes(5))).isTrue();
+        assertThat(replayCache.add("some-id", NOW.plusMinutes(5))).isFalse();
+
+        setTime(NOW.plusMinutes(10));
+        assertThat(replayCache.add("some-id", NOW.plusMinutes(15))).isTrue();
+    }
+
+    @Test
+    public void shouldDropIdsOnceTheirBucketHasExpired() {
+        replayCache.add("first-id", NOW.plusMinutes(1));
+        replayCache.add("second-id", NOW.plusMinutes(10));
+        assertThat(size()).isEqualTo(2);
+
+        setTime(NOW.plusMinutes(2));
+        assertThat(replayCache.contains("second-id")).isTrue();
+        assertThat(size()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldCountHitsAndMisses() {
+        replayCache.add("some-id", NOW.plusMinutes(5));
+
+        replayCache.contains("some-id");
+        replayCache.contains("some-id");
+        replayCache.contains("another-id");
+
+        assertThat(metricRegistry.meter(name(ReplayCache.class, "hits")).getCount()).isEqualTo(2);
+        assertThat(metricRegistry.meter(name(ReplayCache.class, "misses")).getCount()).isEqualTo(1);
+    }
+
+    private Object size() {
+        return metricRegistry.getGauges().get(name(ReplayCache.class, "size")).getValue();
+    }
+
+    private void setTime(DateTime time) {
+        when(clock.millis()).thenReturn(time.getMillis());
+    }
+}
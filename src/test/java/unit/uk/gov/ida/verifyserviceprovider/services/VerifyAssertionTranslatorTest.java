@@ -38,8 +38,13 @@ import uk.gov.ida.verifyserviceprovider.validators.SubjectValidator;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static java.util.Collections.singletonList;
 import static org.assertj.core.util.Lists.emptyList;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
@@ -213,6 +218,43 @@ public class VerifyAssertionTranslatorTest {
         verify(levelOfAssuranceValidator, times(1)).validate(LEVEL_2, LEVEL_1);
     }
 
+    @Test
+    public void shouldValidateTheMatchingDatasetAssertionOnTheAssertionValidationExecutor() {
+        Assertion authnAssertion = anAuthnStatementAssertion(IdaAuthnContext.LEVEL_2_AUTHN_CTX, "requestId").buildUnencrypted();
+        Assertion mdsAssertion = aMatchingDatasetAssertionWithSignature(emptyList(), anIdpSignature(), "requestId").buildUnencrypted();
+        Set<String> signatureValidationThreads = ConcurrentHashMap.newKeySet();
+        when(hubSignatureValidator.validate(any(), any())).thenAnswer(invocation -> {
+            signatureValidationThreads.add(Thread.currentThread().getName());
+            return mock(ValidatedAssertions.class);
+        });
+        ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "assertion-validation"));
+
+        try {
+            aVerifyAssertionTranslatorWith(executor).validate(authnAssertion, mdsAssertion, "requestId", LevelOfAssurance.LEVEL_1, LEVEL_2);
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(signatureValidationThreads).containsExactlyInAnyOrder(Thread.currentThread().getName(), "assertion-validation");
+        verify(levelOfAssuranceValidator, times(1)).validate(LEVEL_2, LEVEL_1);
+    }
+
+    @Test
+    public void shouldThrowExceptionWhenTheMatchingDatasetAssertionFailsOnTheAssertionValidationExecutor() {
+        Assertion authnAssertion = anAuthnStatementAssertion(IdaAuthnContext.LEVEL_2_AUTHN_CTX, "requestId").buildUnencrypted();
+        Assertion mdsAssertion = aMatchingDatasetAssertionWithSignature(emptyList(), anIdpSignature(), "requestId").buildUnencrypted();
+        when(hubSignatureValidator.validate(eq(singletonList(mdsAssertion)), any())).thenThrow(new SamlResponseValidationException("Invalid signature"));
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        exception.expect(SamlResponseValidationException.class);
+        exception.expectMessage("Invalid signature");
+        try {
+            aVerifyAssertionTranslatorWith(executor).validate(authnAssertion, mdsAssertion, "requestId", LevelOfAssurance.LEVEL_1, LEVEL_2);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
     @Test
     public void shouldCorrectlyExtractLevelOfAssurance() {
         Assertion authnAssertion = anAuthnStatementAssertion(IdaAuthnContext.LEVEL_2_AUTHN_CTX, "requestId").buildUnencrypted();
@@ -265,6 +307,19 @@ public class VerifyAssertionTranslatorTest {
         assertThat(responseBody.toString()).contains(expectedNonMatchingResponseBody.getPid());
     }
 
+    private VerifyAssertionTranslator aVerifyAssertionTranslatorWith(ExecutorService assertionValidationExecutor) {
+        return new VerifyAssertionTranslator(
+                hubSignatureValidator,
+                subjectValidator,
+                attributeStatementValidator,
+                verifyMatchingDatasetUnmarshaller,
+                new AssertionClassifier(),
+                matchingDatasetToNonMatchingAttributesMapper,
+                levelOfAssuranceValidator,
+                userIdHashFactory,
+                assertionValidationExecutor);
+    }
+
     private static AssertionBuilder aMatchingDatasetAssertionWithSignature(List<Attribute> attributes, Signature signature, String requestId) {
         return anAssertion()
                 .withId("mds-assertion")
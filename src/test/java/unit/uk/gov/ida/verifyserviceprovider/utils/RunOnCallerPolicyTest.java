@@ -0,0 +1,25 @@
+package unit.uk.gov.ida.verifyserviceprovider.utils;
+
+import org.junit.Test;
+import uk.gov.ida.verifyserviceprovider.utils.RunOnCallerPolicy;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RunOnCallerPolicyTest {
+
+    @Test
+    public void shouldRunTasksOnTheCallerAfterTheExecutorHasBeenShutDown() {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(1), new RunOnCallerPolicy());
+        executor.shutdown();
+
+        CompletableFuture<Thread> future = CompletableFuture.supplyAsync(Thread::currentThread, executor);
+
+        assertThat(future).isCompleted();
+        assertThat(future.join()).isSameAs(Thread.currentThread());
+    }
+}
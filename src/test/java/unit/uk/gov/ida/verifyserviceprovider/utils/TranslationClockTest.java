@@ -0,0 +1,70 @@
+package unit.uk.gov.ida.verifyserviceprovider.utils;
+
+import org.junit.Test;
+import uk.gov.ida.verifyserviceprovider.utils.TranslationClock;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class TranslationClockTest {
+
+    private static final Instant START = Instant.parse("2019-03-04T11:30:15Z");
+    private static final Instant LATER = START.plusSeconds(10);
+
+    private final Clock clock = mock(Clock.class);
+    private final TranslationClock translationClock = new TranslationClock(clock);
+
+    @Test
+    public void shouldReadTheClockOnceForATranslation() {
+        when(clock.instant()).thenReturn(START, LATER);
+
+        Instant[] instants = translationClock.atSnapshot(() -> new Instant[] { translationClock.now(), translationClock.now() });
+
+        assertThat(instants).containsExactly(START, START);
+        verify(clock, times(1)).instant();
+    }
+
+    @Test
+    public void shouldReadTheClockEachTimeOutsideATranslation() {
+        when(clock.instant()).thenReturn(START, LATER);
+
+        assertThat(translationClock.now()).isEqualTo(START);
+        assertThat(translationClock.now()).isEqualTo(LATER);
+    }
+
+    @Test
+    public void shouldUseTheSameInstantOnAnotherThreadDuringATranslation() throws Exception {
+        when(clock.instant()).thenReturn(START, LATER);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        AtomicReference<Instant> otherThreadsNow = new AtomicReference<>();
+
+        try {
+            translationClock.atSnapshot(() -> CompletableFuture.runAsync(
+                () -> otherThreadsNow.set(translationClock.now()),
+                translationClock.propagatingTo(executor)
+            ).join());
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(otherThreadsNow.get()).isEqualTo(START);
+    }
+
+    @Test
+    public void shouldReplayAtAFixedInstant() {
+        TranslationClock fixedClock = new TranslationClock(Clock.fixed(START, ZoneOffset.UTC));
+
+        assertThat(fixedClock.atSnapshot(fixedClock::now)).isEqualTo(START);
+    }
+}
@@ -7,8 +7,13 @@ import org.junit.Test;
 import org.junit.rules.ExpectedException;
 import uk.gov.ida.saml.core.validation.SamlResponseValidationException;
 import uk.gov.ida.verifyserviceprovider.utils.DateTimeComparator;
+import uk.gov.ida.verifyserviceprovider.utils.TranslationClock;
 import uk.gov.ida.verifyserviceprovider.validators.InstantValidator;
 
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
 import static org.joda.time.DateTimeZone.UTC;
 import static org.joda.time.format.ISODateTimeFormat.dateHourMinuteSecond;
 import static org.mockito.Mockito.mock;
@@ -26,6 +31,7 @@ public class InstantValidatorTest {
     @Before
     public void setUp() {
         dateTimeComparator = mock(DateTimeComparator.class);
+        when(dateTimeComparator.getClock()).thenReturn(TranslationClock.systemUTC());
 
         validator = new InstantValidator(dateTimeComparator);
     }
@@ -60,4 +66,14 @@ public class InstantValidatorTest {
 
         validator.validate(instant, "some-instant-name");
     }
-}
\ No newline at end of file
+
+    @Test
+    public void shouldValidateAgainstTheGivenClock() {
+        DateTime instant = new DateTime(2019, 3, 4, 11, 30, UTC);
+        TranslationClock clock = new TranslationClock(Clock.fixed(Instant.ofEpochMilli(instant.plusMinutes(6).getMillis()), ZoneOffset.UTC));
+        expectedException.expect(SamlResponseValidationException.class);
+        expectedException.expectMessage("some-instant-name is too far in the past 6 minutes");
+
+        new InstantValidator(dateTimeComparator, clock).validate(instant, "some-instant-name");
+    }
+}
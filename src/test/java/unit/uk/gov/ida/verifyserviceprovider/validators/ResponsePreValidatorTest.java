@@ -0,0 +1,111 @@
+package unit.uk.gov.ida.verifyserviceprovider.validators;
+
+import org.joda.time.DateTime;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.opensaml.saml.saml2.core.Response;
+import org.opensaml.saml.saml2.core.StatusCode;
+import uk.gov.ida.saml.core.IdaSamlBootstrap;
+import uk.gov.ida.saml.core.validation.SamlResponseValidationException;
+import uk.gov.ida.verifyserviceprovider.validators.InstantValidator;
+import uk.gov.ida.verifyserviceprovider.validators.ResponsePreValidator;
+
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static uk.gov.ida.saml.core.test.builders.ResponseBuilder.aResponse;
+import static uk.gov.ida.saml.core.test.builders.StatusBuilder.aStatus;
+import static uk.gov.ida.saml.core.test.builders.StatusCodeBuilder.aStatusCode;
+
+public class ResponsePreValidatorTest {
+
+    private static final String REQUEST_ID = "some-request-id";
+
+    private InstantValidator instantValidator;
+    private ResponsePreValidator validator;
+
+    @Rule
+    public ExpectedException expectedException = ExpectedException.none();
+
+    @Before
+    public void setUp() {
+        IdaSamlBootstrap.bootstrap();
+        instantValidator = mock(InstantValidator.class);
+        validator = new ResponsePreValidator(instantValidator);
+    }
+
+    @Test
+    public void shouldAcceptAResponseWithTheExpectedInResponseToAndAKnownStatus() throws Exception {
+        Response response = aResponseWithStatus(StatusCode.SUCCESS);
+
+        validator.validate(response, REQUEST_ID);
+
+        verify(instantValidator).validate(response.getIssueInstant(), "Response IssueInstant");
+    }
+
+    @Test
+    public void shouldAcceptAResponderStatus() throws Exception {
+        validator.validate(aResponseWithStatus(StatusCode.RESPONDER), REQUEST_ID);
+    }
+
+    @Test
+    public void shouldThrowExceptionWhenInResponseToDoesNotMatch() throws Exception {
+        expectedException.expect(SamlResponseValidationException.class);
+        expectedException.expectMessage("Expected InResponseTo to be some-other-request-id, but was some-request-id");
+
+        validator.validate(aResponseWithStatus(StatusCode.SUCCESS), "some-other-request-id");
+    }
+
+    @Test
+    public void shouldThrowExceptionWhenIssueInstantIsInvalid() throws Exception {
+        Response response = aResponseWithStatus(StatusCode.SUCCESS);
+        doThrow(new SamlResponseValidationException("Response IssueInstant is too far in the past"))
+            .when(instantValidator).validate(response.getIssueInstant(), "Response IssueInstant");
+
+        expectedException.expect(SamlResponseValidationException.class);
+        expectedException.expectMessage("Response IssueInstant is too far in the past");
+
+        validator.validate(response, REQUEST_ID);
+    }
+
+    @Test
+    public void shouldThrowExceptionWhenIssueInstantIsMissing() throws Exception {
+        Response response = aResponseWithStatus(StatusCode.SUCCESS);
+        response.setIssueInstant(null);
+
+        expectedException.expect(SamlResponseValidationException.class);
+        expectedException.expectMessage("Response IssueInstant is missing");
+
+        validator.validate(response, REQUEST_ID);
+    }
+
+    @Test
+    public void shouldThrowExceptionWhenStatusIsUnknown() throws Exception {
+        expectedException.expect(SamlResponseValidationException.class);
+        expectedException.expectMessage("Unknown SAML status: UNKNOWN");
+
+        validator.validate(aResponseWithStatus("UNKNOWN"), REQUEST_ID);
+    }
+
+    @Test
+    public void shouldThrowExceptionWhenStatusIsMissing() throws Exception {
+        Response response = aResponseWithStatus(StatusCode.SUCCESS);
+        response.setStatus(null);
+
+        expectedException.expect(SamlResponseValidationException.class);
+        expectedException.expectMessage("Response has no StatusCode");
+
+        validator.validate(response, REQUEST_ID);
+    }
+
+    private Response aResponseWithStatus(String statusCode) throws Exception {
+        return aResponse()
+            .withInResponseTo(REQUEST_ID)
+            .withIssueInstant(DateTime.now())
+            .withStatus(aStatus().withStatusCode(aStatusCode().withValue(statusCode).build()).build())
+            .withoutSigning()
+            .build();
+    }
+}
@@ -0,0 +1,77 @@
+package unit.uk.gov.ida.verifyserviceprovider.validators;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import uk.gov.ida.saml.core.validation.SamlResponseValidationException;
+import uk.gov.ida.verifyserviceprovider.validators.ResponseStructureValidator;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+
+public class ResponseStructureValidatorTest {
+
+    private static final String RESPONSE_START = "<saml2p:Response xmlns:saml2p=\"urn:oasis:names:tc:SAML:2.0:protocol\" xmlns:saml2=\"urn:oasis:names:tc:SAML:2.0:assertion\">";
+    private static final String RESPONSE_END = "</saml2p:Response>";
+    private static final String ENCRYPTED_ASSERTION = "<saml2:EncryptedAssertion/>";
+
+    private final ResponseStructureValidator validator = new ResponseStructureValidator(10, 4, 3, 2);
+
+    @Rule
+    public ExpectedException expectedException = ExpectedException.none();
+
+    @Test
+    public void shouldAcceptAResponseWithinTheLimits() throws Exception {
+        validator.validate(xml(RESPONSE_START + "<saml2:Issuer a=\"1\"/>" + ENCRYPTED_ASSERTION + ENCRYPTED_ASSERTION + RESPONSE_END));
+    }
+
+    @Test
+    public void shouldRejectAResponseWithTooManyElements() throws Exception {
+        expectedException.expect(SamlResponseValidationException.class);
+        expectedException.expectMessage("SAML Response has too many elements.");
+
+        validator.validate(xml(RESPONSE_START + repeat("<saml2:Issuer/>", 10) + RESPONSE_END));
+    }
+
+    @Test
+    public void shouldRejectAResponseThatIsNestedTooDeeply() throws Exception {
+        expectedException.expect(SamlResponseValidationException.class);
+        expectedException.expectMessage("SAML Response is nested too deeply.");
+
+        validator.validate(xml(RESPONSE_START + repeat("<a>", 4) + repeat("</a>", 4) + RESPONSE_END));
+    }
+
+    @Test
+    public void shouldRejectAResponseWithAnElementWithTooManyAttributes() throws Exception {
+        expectedException.expect(SamlResponseValidationException.class);
+        expectedException.expectMessage("SAML Response has an element with too many attributes.");
+
+        validator.validate(xml(RESPONSE_START + "<saml2:Issuer a=\"1\" b=\"2\" c=\"3\" d=\"4\"/>" + RESPONSE_END));
+    }
+
+    @Test
+    public void shouldRejectAResponseWithTooManyEncryptedAssertions() throws Exception {
+        expectedException.expect(SamlResponseValidationException.class);
+        expectedException.expectMessage("SAML Response has too many EncryptedAssertions.");
+
+        validator.validate(xml(RESPONSE_START + repeat(ENCRYPTED_ASSERTION, 3) + RESPONSE_END));
+    }
+
+    @Test
+    public void shouldRejectAResponseWithADtd() throws Exception {
+        expectedException.expect(SamlResponseValidationException.class);
+        expectedException.expectMessage("SAML Response must not contain a DTD.");
+
+        validator.validate(xml("<!DOCTYPE Response [<!ENTITY a \"a\">]>" + RESPONSE_START + RESPONSE_END));
+    }
+
+    private static InputStream xml(String xml) {
+        return new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String repeat(String string, int times) {
+        return String.join("", Collections.nCopies(times, string));
+    }
+}
@@ -0,0 +1,63 @@
+package unit.uk.gov.ida.verifyserviceprovider.validators;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.joda.time.Duration;
+import org.junit.Test;
+import uk.gov.ida.saml.core.validation.SamlResponseValidationException;
+import uk.gov.ida.verifyserviceprovider.validators.SamlValidationRejection;
+import uk.gov.ida.verifyserviceprovider.validators.SamlValidationRejections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static uk.gov.ida.verifyserviceprovider.validators.ValidationRejectionReason.INSTANT_TOO_OLD;
+import static uk.gov.ida.verifyserviceprovider.validators.ValidationRejectionReason.NOT_BEFORE;
+import static uk.gov.ida.verifyserviceprovider.validators.ValidationRejectionReason.SUBJECT_MISSING;
+
+public class SamlValidationRejectionTest {
+
+    @Test
+    public void shouldBeASamlResponseValidationExceptionWithAReason() {
+        SamlValidationRejection rejection = new SamlValidationRejection(SUBJECT_MISSING);
+
+        assertThat(rejection).isInstanceOf(SamlResponseValidationException.class);
+        assertThat(rejection.getReason()).isEqualTo(SUBJECT_MISSING);
+        assertThat(rejection.getMessage()).isEqualTo("Subject is missing from the assertion.");
+    }
+
+    @Test
+    public void shouldHaveAStackTraceByDefault() {
+        assertThat(new SamlValidationRejection(SUBJECT_MISSING).getStackTrace()).isNotEmpty();
+    }
+
+    @Test
+    public void shouldHaveAStackTraceStartingWhereItWasCreatedWhenCreatedWithStackTraces() {
+        SamlValidationRejection rejection = SamlValidationRejections.WITH_STACK_TRACES.reject(SUBJECT_MISSING);
+
+        assertThat(rejection.getStackTrace()).isNotEmpty();
+        assertThat(rejection.getStackTrace()[0].getClassName()).isEqualTo(SamlValidationRejections.class.getName());
+        assertThat(rejection.getMessage()).isEqualTo("Subject is missing from the assertion.");
+    }
+
+    @Test
+    public void shouldNotHaveAStackTraceWhenCreatedStackless() {
+        SamlValidationRejection rejection = SamlValidationRejections.STACKLESS.reject(SUBJECT_MISSING);
+
+        assertThat(rejection.getStackTrace()).isEmpty();
+        assertThat(rejection.getReason()).isEqualTo(SUBJECT_MISSING);
+        assertThat(rejection.getMessage()).isEqualTo("Subject is missing from the assertion.");
+    }
+
+    @Test
+    public void shouldFormatDateTimesAsUtcToTheSecond() {
+        DateTime notBefore = new DateTime(2019, 3, 4, 12, 30, 15, 123, DateTimeZone.forOffsetHours(1));
+
+        assertThat(new SamlValidationRejection(NOT_BEFORE, notBefore).getMessage())
+            .isEqualTo("Assertion is not valid before 2019-03-04T11:30:15");
+    }
+
+    @Test
+    public void shouldFormatDurationsAsAPeriodInWords() {
+        assertThat(new SamlValidationRejection(INSTANT_TOO_OLD, "Response IssueInstant", Duration.standardMinutes(6)).getMessage())
+            .isEqualTo("Response IssueInstant is too far in the past 6 minutes");
+    }
+}